@@ -0,0 +1,133 @@
+package com.europeanexchangerates.exchangeapi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.provider.ExchangeRateProvider;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+import com.europeanexchangerates.exchangeapi.util.dataparser.ByteCsvDataParser;
+
+/**
+ * Generates a history with the same shape and size as the ECB file.
+ *
+ * Every business day from 1999-01-04 has a row, newest first, with a random
+ * walk of rates for the 41 currencies that the ECB has published. Rates of
+ * currencies that were not published on a day are "N/A" like in the real file.
+ * The same seed always produces the same data so benchmark runs can be
+ * compared.
+ */
+public final class SyntheticHistory {
+    public static final LocalDate FIRST_DATE = LocalDate.of(1999, 1, 4);
+    public static final LocalDate LAST_DATE = LocalDate.of(2024, 5, 31);
+
+    private static final String[] CURRENCIES = {
+            "USD", "JPY", "BGN", "CYP", "CZK", "DKK", "EEK", "GBP", "HUF", "LTL", "LVL", "MTL", "PLN", "ROL",
+            "RON", "SEK", "SIT", "SKK", "CHF", "ISK", "NOK", "HRK", "RUB", "TRL", "TRY", "AUD", "BRL", "CAD",
+            "CNY", "HKD", "IDR", "ILS", "INR", "KRW", "MXN", "MYR", "NZD", "PHP", "SGD", "THB", "ZAR" };
+    private static final long SEED = 20240531L;
+
+    private static byte[] csv;
+
+    private SyntheticHistory() {
+    }
+
+    /**
+     * @return the history as the bytes of an ECB formatted CSV file
+     */
+    public static synchronized byte[] csv() {
+        if (csv == null) {
+            csv = generate();
+        }
+        return csv;
+    }
+
+    /**
+     * @return the history as the bytes of a ZIP file containing the CSV file
+     */
+    public static byte[] zip() {
+        try {
+            ByteArrayOutputStream zip = new ByteArrayOutputStream();
+            try (ZipOutputStream zipOutputStream = new ZipOutputStream(zip)) {
+                zipOutputStream.putNextEntry(new ZipEntry("eurofxref-hist.csv"));
+                zipOutputStream.write(csv());
+                zipOutputStream.closeEntry();
+            }
+            return zip.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the history parsed into a rate store
+     */
+    public static RateStore store() {
+        try {
+            return new ByteCsvDataParser().parseToStore(new ByteArrayInputStream(csv()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return a provider that serves the history from memory
+     */
+    public static ExchangeRateProvider provider() {
+        RateStore store = store();
+        return new ExchangeRateProvider() {
+            @Override
+            public TreeMap<LocalDate, ExchangeRate> getExchangeRates() {
+                return store.toExchangeRates();
+            }
+
+            @Override
+            public RateStore getRateStore() {
+                return store;
+            }
+        };
+    }
+
+    private static byte[] generate() {
+        Random random = new Random(SEED);
+        double[] rates = new double[CURRENCIES.length];
+        for (int c = 0; c < CURRENCIES.length; c++) {
+            rates[c] = 0.5 + random.nextDouble() * 200;
+        }
+
+        StringBuilder builder = new StringBuilder("Date,");
+        for (String currency : CURRENCIES) {
+            builder.append(currency).append(',');
+        }
+        builder.append('\n');
+
+        for (LocalDate date = LAST_DATE; !date.isBefore(FIRST_DATE); date = date.minusDays(1)) {
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            builder.append(date).append(',');
+            for (int c = 0; c < CURRENCIES.length; c++) {
+                rates[c] *= 1 + (random.nextDouble() - 0.5) / 100;
+                // Some currencies were only published for part of the period.
+                if (c % 7 == 3 && date.getYear() < 2008 + c % 5) {
+                    builder.append("N/A");
+                } else {
+                    builder.append(BigDecimal.valueOf(rates[c]).setScale(4, RoundingMode.HALF_UP));
+                }
+                builder.append(',');
+            }
+            builder.append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
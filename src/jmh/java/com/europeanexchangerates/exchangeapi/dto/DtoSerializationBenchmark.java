@@ -0,0 +1,91 @@
+package com.europeanexchangerates.exchangeapi.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.europeanexchangerates.exchangeapi.SyntheticHistory;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Measures the JSON serialization of the DTOs returned by the endpoints with
+ * an ObjectMapper configured like the one of Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoSerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private ExchangeRate exchangeRate;
+    private CurrencyConversion currencyConversion;
+    private CurrencyHighestRate currencyHighestRate;
+    private CurrencyLowestRate currencyLowestRate;
+    private CurrencyAverageRate currencyAverageRate;
+    private SnapshotStatus snapshotStatus;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        RateStore store = SyntheticHistory.store();
+        LocalDate startDate = store.date(0);
+        LocalDate endDate = store.date(store.size() - 1);
+        exchangeRate = new ExchangeRate(store.rates(store.size() - 1));
+        currencyConversion = new CurrencyConversion("USD", "JPY", new BigDecimal("1234.56"), endDate,
+                new BigDecimal("185233.22"));
+        currencyHighestRate = new CurrencyHighestRate("USD", startDate, endDate, new BigDecimal("1.5990"));
+        currencyLowestRate = new CurrencyLowestRate("USD", startDate, endDate, new BigDecimal("0.8252"));
+        currencyAverageRate = new CurrencyAverageRate("USD", startDate, endDate, new BigDecimal("1.18"));
+        snapshotStatus = new SnapshotStatus(1, Instant.now(), 250, store.size(), store.currencyCount(),
+                startDate, endDate, 0, 0x1c291ca3L);
+    }
+
+    @Benchmark
+    public byte[] exchangeRate() throws Exception {
+        return objectMapper.writeValueAsBytes(exchangeRate);
+    }
+
+    @Benchmark
+    public byte[] currencyConversion() throws Exception {
+        return objectMapper.writeValueAsBytes(currencyConversion);
+    }
+
+    @Benchmark
+    public byte[] currencyHighestRate() throws Exception {
+        return objectMapper.writeValueAsBytes(currencyHighestRate);
+    }
+
+    @Benchmark
+    public byte[] currencyLowestRate() throws Exception {
+        return objectMapper.writeValueAsBytes(currencyLowestRate);
+    }
+
+    @Benchmark
+    public byte[] currencyAverageRate() throws Exception {
+        return objectMapper.writeValueAsBytes(currencyAverageRate);
+    }
+
+    @Benchmark
+    public byte[] snapshotStatus() throws Exception {
+        return objectMapper.writeValueAsBytes(snapshotStatus);
+    }
+}
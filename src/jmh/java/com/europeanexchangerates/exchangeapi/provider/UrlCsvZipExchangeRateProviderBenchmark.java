@@ -0,0 +1,63 @@
+package com.europeanexchangerates.exchangeapi.provider;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipInputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.europeanexchangerates.exchangeapi.SyntheticHistory;
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+import com.europeanexchangerates.exchangeapi.util.datadownloader.DataDownloader;
+import com.europeanexchangerates.exchangeapi.util.dataparser.ByteCsvDataParser;
+import com.europeanexchangerates.exchangeapi.util.dataparser.CsvDataParser;
+
+/**
+ * Measures the whole load path from the ZIP file to the parsed data without
+ * the network. The archive is served from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlCsvZipExchangeRateProviderBenchmark {
+    private UrlCsvZipExchangeRateProvider csvProvider;
+    private UrlCsvZipExchangeRateProvider byteCsvProvider;
+
+    @Setup
+    public void setUp() {
+        byte[] zip = SyntheticHistory.zip();
+        DataDownloader downloader = url -> new ZipInputStream(new ByteArrayInputStream(zip));
+        csvProvider = new UrlCsvZipExchangeRateProvider(downloader, new CsvDataParser());
+        byteCsvProvider = new UrlCsvZipExchangeRateProvider(downloader, new ByteCsvDataParser());
+    }
+
+    @Benchmark
+    public TreeMap<LocalDate, ExchangeRate> csvGetExchangeRates() throws Exception {
+        return csvProvider.getExchangeRates();
+    }
+
+    @Benchmark
+    public RateStore byteCsvGetRateStore() throws Exception {
+        return byteCsvProvider.getRateStore();
+    }
+
+    @Benchmark
+    public TreeMap<LocalDate, ExchangeRate> byteCsvGetExchangeRatesSince() throws Exception {
+        return byteCsvProvider.getExchangeRatesSince(SyntheticHistory.LAST_DATE.minusDays(7));
+    }
+}
@@ -0,0 +1,88 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.europeanexchangerates.exchangeapi.SyntheticHistory;
+import com.europeanexchangerates.exchangeapi.dto.CurrencyAverageRate;
+import com.europeanexchangerates.exchangeapi.dto.CurrencyConversion;
+import com.europeanexchangerates.exchangeapi.dto.CurrencyHighestRate;
+import com.europeanexchangerates.exchangeapi.dto.CurrencyLowestRate;
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+
+/**
+ * Measures the query methods of the service over short, medium and full date
+ * ranges of a history with the size of the ECB one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExchangeRateServiceBenchmark {
+    public enum Range {
+        SHORT(7), MEDIUM(365), FULL(365 * 30);
+
+        private final int days;
+
+        Range(int days) {
+            this.days = days;
+        }
+    }
+
+    @Param
+    public Range range;
+
+    private ExchangeRateService service;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() throws Exception {
+        service = new ExchangeRateService(SyntheticHistory.provider());
+        endDate = SyntheticHistory.LAST_DATE;
+        startDate = endDate.minusDays(range.days);
+        amount = new BigDecimal("1234.56");
+    }
+
+    @Benchmark
+    public Optional<ExchangeRate> getRatesForDate() {
+        return service.getRatesForDate(endDate);
+    }
+
+    @Benchmark
+    public Optional<CurrencyConversion> convertCurrency() {
+        return service.convertCurrency(endDate, "USD", "JPY", amount);
+    }
+
+    @Benchmark
+    public Optional<CurrencyHighestRate> getHighestRate() {
+        return service.getHighestRate(startDate, endDate, "USD");
+    }
+
+    @Benchmark
+    public Optional<CurrencyLowestRate> getLowestRate() {
+        return service.getLowestRate(startDate, endDate, "USD");
+    }
+
+    @Benchmark
+    public Optional<CurrencyAverageRate> getAverageRate() {
+        return service.getAverageRate(startDate, endDate, "USD");
+    }
+}
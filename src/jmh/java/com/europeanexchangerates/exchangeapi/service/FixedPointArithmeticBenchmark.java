@@ -0,0 +1,90 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.europeanexchangerates.exchangeapi.store.FixedPoint;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+/**
+ * Compares converting amounts and averaging rates with fixed-point longs to
+ * doing the same with BigDecimals, over a batch of ECB-like rates.
+ *
+ * The rates are stored as fixed-point longs, so the BigDecimal conversion
+ * turns them into BigDecimals first like the service used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixedPointArithmeticBenchmark {
+    private static final int BATCH = 1024;
+
+    private BigDecimal[] amounts;
+    private long[] rates;
+    private BigDecimal[] bigDecimalRates;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new BigDecimal[BATCH];
+        rates = new long[BATCH];
+        bigDecimalRates = new BigDecimal[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            amounts[i] = BigDecimal.valueOf(random.nextInt(100_000_000), 2);
+            // Rates from about 0.5 to 200 with four decimal places.
+            rates[i] = (5_000 + random.nextInt(2_000_000)) * 100L;
+            bigDecimalRates[i] = BigDecimal.valueOf(rates[i], RateStore.RATE_SCALE).stripTrailingZeros();
+        }
+    }
+
+    @Benchmark
+    public void convertBigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(ExchangeRateService.convert(amounts[i],
+                    BigDecimal.valueOf(rates[i], RateStore.RATE_SCALE),
+                    BigDecimal.valueOf(rates[BATCH - 1 - i], RateStore.RATE_SCALE)));
+        }
+    }
+
+    @Benchmark
+    public void convertFixedPoint(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(ExchangeRateService.convert(amounts[i], rates[i], rates[BATCH - 1 - i]));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal averageBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < BATCH; i++) {
+            sum = sum.add(bigDecimalRates[i]);
+        }
+        return sum.divide(BigDecimal.valueOf(BATCH), 2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long averageFixedPoint() {
+        long sum = 0;
+        for (int i = 0; i < BATCH; i++) {
+            sum += rates[i];
+        }
+        return FixedPoint.multiplyDivide(sum, 1, BATCH * FixedPoint.powerOfTen(RateStore.RATE_SCALE - 2));
+    }
+}
@@ -0,0 +1,60 @@
+package com.europeanexchangerates.exchangeapi.util.dataparser;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.europeanexchangerates.exchangeapi.SyntheticHistory;
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.store.ColumnarRateStore;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+/**
+ * Compares the String based CSV parser with the byte based one on a file with
+ * the size of the full ECB history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataParserBenchmark {
+    private byte[] data;
+    private CsvDataParser csvDataParser;
+    private ByteCsvDataParser byteCsvDataParser;
+
+    @Setup
+    public void setUp() {
+        data = SyntheticHistory.csv();
+        csvDataParser = new CsvDataParser();
+        byteCsvDataParser = new ByteCsvDataParser();
+    }
+
+    @Benchmark
+    public TreeMap<LocalDate, ExchangeRate> csvParseData() throws Exception {
+        return csvDataParser.parseData(new ByteArrayInputStream(data));
+    }
+
+    @Benchmark
+    public RateStore csvParseToStore() throws Exception {
+        return ColumnarRateStore.of(csvDataParser.parseData(new ByteArrayInputStream(data)));
+    }
+
+    @Benchmark
+    public RateStore byteCsvParseToStore() throws Exception {
+        return byteCsvDataParser.parseToStore(new ByteArrayInputStream(data));
+    }
+}
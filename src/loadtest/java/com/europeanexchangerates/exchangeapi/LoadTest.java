@@ -0,0 +1,178 @@
+package com.europeanexchangerates.exchangeapi;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.europeanexchangerates.exchangeapi.service.ExchangeRateService;
+
+/**
+ * Compares the throughput and latency of the REST layer with requests handled
+ * on platform threads and on virtual threads.
+ *
+ * The application is started in process once for each mode on a random port
+ * with the scheduled refresh disabled. A fixed number of clients then send
+ * cheap lookups to /rates, /convert, /highest_rate and /average_rate back to
+ * back, first to warm up and then for the measured duration. The requests per
+ * second and the latency percentiles of every mode are printed at the end.
+ *
+ * Options are given as name=value arguments, e.g.
+ * {@code ./gradlew loadTest --args='concurrency=2000 duration=60'}:
+ * concurrency (default 1000), warm-up and duration in seconds (default 10 and
+ * 30).
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        Duration warmUp = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warm-up", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %12s %10s %10s %10s %8s", "threads", "requests/s", "p50 ms", "p99 ms",
+                "max ms", "errors"));
+        for (boolean virtualThreads : new boolean[] { false, true }) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ExchangeapiApplication.class)
+                    .properties("server.port=0",
+                            "spring.threads.virtual.enabled=" + virtualThreads,
+                            "exchangeapi.refresh.enabled=false")
+                    .run()) {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                LocalDate lastDate = context.getBean(ExchangeRateService.class).getSnapshotStatus().getLastDate();
+                List<URI> uris = uris(port, lastDate);
+
+                run(uris, concurrency, warmUp);
+                Result result = run(uris, concurrency, duration);
+                report.add(String.format("%-9s %12.0f %10.2f %10.2f %10.2f %8d",
+                        virtualThreads ? "virtual" : "platform",
+                        result.count() / (duration.toNanos() / 1e9),
+                        result.percentile(0.50) / 1e6,
+                        result.percentile(0.99) / 1e6,
+                        result.percentile(1.00) / 1e6,
+                        result.errors()));
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    private static List<URI> uris(int port, LocalDate lastDate) {
+        String base = "http://localhost:" + port;
+        LocalDate startDate = lastDate.minusDays(90);
+        return List.of(
+                URI.create(base + "/rates?date=" + lastDate),
+                URI.create(base + "/convert?date=" + lastDate + "&source=USD&target=JPY&amount=100"),
+                URI.create(base + "/highest_rate?start_date=" + startDate + "&end_date=" + lastDate
+                        + "&currency=USD"),
+                URI.create(base + "/average_rate?start_date=" + startDate + "&end_date=" + lastDate
+                        + "&currency=USD"));
+    }
+
+    /**
+     * Send requests from every client until the duration has passed.
+     */
+    private static Result run(List<URI> uris, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Result>> clients = new ArrayList<>();
+        // The clients run on virtual threads so that the load generator itself
+        // is not limited by the number of threads.
+        try (HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < concurrency; client++) {
+                int offset = client;
+                clients.add(executor.submit(() -> runClient(httpClient, uris, offset, deadline)));
+            }
+            Result result = new Result();
+            for (Future<Result> client : clients) {
+                result.add(client.get());
+            }
+            return result;
+        }
+    }
+
+    private static Result runClient(HttpClient httpClient, List<URI> uris, int offset, long deadline) {
+        Result result = new Result();
+        for (int i = offset; System.nanoTime() < deadline; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size())).GET().build();
+            long startedAt = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() != 200) {
+                    result.errors++;
+                    continue;
+                }
+            } catch (Exception e) {
+                result.errors++;
+                continue;
+            }
+            result.addLatency(System.nanoTime() - startedAt);
+        }
+        return result;
+    }
+
+    /**
+     * Latencies in nanoseconds of the successful requests and the number of
+     * failed ones.
+     */
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private boolean sorted;
+
+        void addLatency(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+            sorted = false;
+        }
+
+        void add(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                addLatency(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+
+        int count() {
+            return count;
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(latencies, 0, count);
+                sorted = true;
+            }
+            return latencies[Math.max(0, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+}
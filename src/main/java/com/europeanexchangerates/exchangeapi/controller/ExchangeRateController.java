@@ -1,101 +1,655 @@
 package com.europeanexchangerates.exchangeapi.controller;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
+import io.micrometer.core.instrument.Metrics;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.europeanexchangerates.exchangeapi.dto.ConversionError;
+import com.europeanexchangerates.exchangeapi.dto.ConversionRequest;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyAverageRate;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyConversion;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyHighestRate;
+import com.europeanexchangerates.exchangeapi.dto.CurrencyLowestRate;
 import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.dto.RateSummary;
+import com.europeanexchangerates.exchangeapi.dto.SnapshotStatus;
 import com.europeanexchangerates.exchangeapi.exception.InvalidDateRangeException;
+import com.europeanexchangerates.exchangeapi.exception.UnknownCurrencyException;
+import com.europeanexchangerates.exchangeapi.service.BatchCurrencyConverter;
+import com.europeanexchangerates.exchangeapi.service.DateFallback;
 import com.europeanexchangerates.exchangeapi.service.ExchangeRateService;
+import com.europeanexchangerates.exchangeapi.service.RollingSeries;
+import com.europeanexchangerates.exchangeapi.service.RollingStatistic;
+import com.europeanexchangerates.exchangeapi.service.TimeSeries;
+import com.europeanexchangerates.exchangeapi.store.CurrencyDictionary;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+import com.europeanexchangerates.exchangeapi.store.RateStoreFile;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @RestController
 public class ExchangeRateController {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    // Bytes buffered before an export is handed to the container.
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final ExchangeRateService service;
+    private final RatesResponseCache ratesResponseCache;
+    private final RangeQueryCache rangeQueryCache;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ExchangeRateController(ExchangeRateService service) {
+    public ExchangeRateController(ExchangeRateService service, RatesResponseCache ratesResponseCache,
+            RangeQueryCache rangeQueryCache, ObjectMapper objectMapper) {
         this.service = service;
+        this.ratesResponseCache = ratesResponseCache;
+        this.rangeQueryCache = rangeQueryCache;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/rates")
     @Operation(summary = "Get all the available exchange rates for a given date.")
+    @ApiResponse(responseCode = "200", description = "Exchange rates of the given date.", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ExchangeRate.class)))
     @ApiResponse(responseCode = "204", description = "No exchange rates found for the given date.")
-    public ResponseEntity<ExchangeRate> getRates(
-            @Parameter(description = "Date from which to get the exchange rates. Must be ISO formatted.") @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        Optional<ExchangeRate> exchangeRate = service.getRatesForDate(date);
+    @ApiResponse(responseCode = "400", description = "The base is unknown or the fallback is not supported.")
+    public ResponseEntity<byte[]> getRates(
+            @Parameter(description = "Date from which to get the exchange rates. Must be ISO formatted.") @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Parameter(description = "What to do if there are no rates for a date: none, or previous to use the nearest earlier date with rates.") @RequestParam(value = "fallback", defaultValue = "none") String fallback,
+            @Parameter(description = "Currency to quote the rates against. Defaults to EUR.") @RequestParam(value = "base", required = false) String base,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws IOException {
+        DateFallback dateFallback = DateFallback.fromParameter(fallback);
+        if (dateFallback == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (dateFallback != DateFallback.NONE) {
+            // Render and cache the rates only once for all the dates that
+            // resolve to the same date.
+            Optional<LocalDate> resolvedDate = service.resolveDate(date, dateFallback);
+            if (resolvedDate.isEmpty()) {
+                return noContent("/rates");
+            }
+            date = resolvedDate.get();
+        }
+        // The rates are served as JSON rendered once per snapshot.
+        Optional<RatesResponseCache.Entry> exchangeRate = ratesResponseCache.get(date, base);
         if (exchangeRate.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        } else {
-            return ResponseEntity.ok(exchangeRate.get());
+            return noContent("/rates");
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(exchangeRate.get().getGzip());
+        }
+        return response.body(exchangeRate.get().getJson());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                // A quality of zero means not acceptable.
+                if (parts[i].trim().matches("q=0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
         }
+        return false;
     }
 
     @GetMapping("/convert")
     @Operation(summary = "Convert a specific amount from one currency to another.")
     @ApiResponse(responseCode = "204", description = "No exchange rate found for the given date.")
+    @ApiResponse(responseCode = "400", description = "The currency is unknown or the fallback is not supported.")
     public ResponseEntity<CurrencyConversion> convertCurrency(
             @Parameter(description = "Date to use for the conversion . Must be ISO formatted.") @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @Parameter(description = "Currency to convert from") @RequestParam("source") String source,
             @Parameter(description = "Currency to convert to") @RequestParam("target") String target,
-            @Parameter(description = "Amount to convert") @RequestParam("amount") BigDecimal amount) {
-        Optional<CurrencyConversion> conversion = service.convertCurrency(date, source, target, amount);
+            @Parameter(description = "Amount to convert") @RequestParam("amount") BigDecimal amount,
+            @Parameter(description = "What to do if there are no rates for a date: none, or previous to use the nearest earlier date with rates.") @RequestParam(value = "fallback", defaultValue = "none") String fallback) {
+        DateFallback dateFallback = DateFallback.fromParameter(fallback);
+        if (dateFallback == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<CurrencyConversion> conversion = service.convertCurrency(date, source, target, amount,
+                dateFallback);
         if (conversion.isEmpty()) {
-            return ResponseEntity.noContent().build();
+            return noContent("/convert");
         } else {
             return ResponseEntity.ok(conversion.get());
         }
     }
 
+    @PostMapping(value = "/convert/batch", consumes = { MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE })
+    @Operation(summary = "Convert many amounts in one request.", description = "Accepts a JSON array or "
+            + "newline-delimited JSON of objects with date, source, target and amount. The conversions are "
+            + "streamed back in the same order and the same format. The converted amount is null for "
+            + "conversions without exchange rates. As the status is sent before the requests are read, a "
+            + "request that cannot be read or has an unknown currency is answered with an object with its "
+            + "index and an error instead of a conversion. Malformed JSON ends a JSON array after the error, while in newline-delimited JSON "
+            + "only the malformed line is skipped.")
+    public ResponseEntity<StreamingResponseBody> convertCurrencies(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        // Pin the snapshot before streaming so that the whole batch is
+        // converted with the same data.
+        BatchCurrencyConverter converter = service.newBatchConverter();
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+        StreamingResponseBody response = outputStream -> {
+            try (SequenceWriter results = ndjson
+                    ? writer.writeValues(outputStream)
+                    : writer.writeValuesAsArray(outputStream)) {
+                if (ndjson) {
+                    convertLines(body, converter, results);
+                } else {
+                    convertArray(body, converter, results);
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(response);
+    }
+
+    /**
+     * Convert the requests of a JSON array. A request that cannot be mapped
+     * is answered with an error and skipped. Malformed JSON ends the batch
+     * with an error, as the requests after it cannot be told apart.
+     */
+    private void convertArray(InputStream body, BatchCurrencyConverter converter, SequenceWriter results)
+            throws IOException {
+        try (MappingIterator<ConversionRequest> requests = objectMapper
+                .readerFor(ConversionRequest.class).readValues(body)) {
+            for (int index = 0;; index++) {
+                ConversionRequest request;
+                try {
+                    if (!requests.hasNextValue()) {
+                        return;
+                    }
+                    request = requests.nextValue();
+                } catch (JsonMappingException e) {
+                    // The iterator skips the rest of the request.
+                    results.write(new ConversionError(index, e.getOriginalMessage()));
+                    continue;
+                } catch (JsonProcessingException e) {
+                    results.write(new ConversionError(index, e.getOriginalMessage()));
+                    return;
+                }
+                results.write(convert(converter, index, request));
+            }
+        }
+    }
+
+    /**
+     * Convert the requests of newline-delimited JSON. A line that cannot be
+     * read is answered with an error and skipped.
+     */
+    private void convertLines(InputStream body, BatchCurrencyConverter converter, SequenceWriter results)
+            throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ConversionRequest.class);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int index = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            ConversionRequest request;
+            try {
+                request = reader.readValue(line);
+            } catch (JsonProcessingException e) {
+                results.write(new ConversionError(index++, e.getOriginalMessage()));
+                continue;
+            }
+            results.write(convert(converter, index++, request));
+        }
+    }
+
+    private static Object convert(BatchCurrencyConverter converter, int index, ConversionRequest request) {
+        if (request == null) {
+            return new ConversionError(index, "Missing conversion request.");
+        }
+        try {
+            return converter.convert(request.getDate(), request.getSource(), request.getTarget(),
+                    request.getAmount());
+        } catch (UnknownCurrencyException e) {
+            return new ConversionError(index, e.getMessage());
+        }
+    }
+
+    @GetMapping("/timeseries")
+    @Operation(summary = "Get the exchange rates of one or more currencies for every day of a given date range.",
+            description = "The JSON format lists the dates once followed by an array of rates per currency. "
+                    + "The CSV format has a row per date and a column per currency. Missing rates are null "
+                    + "in JSON and empty in CSV.")
+    @ApiResponse(responseCode = "204", description = "No exchange rates found for the given date range.")
+    @ApiResponse(responseCode = "400", description = "A currency or the base is unknown or the format is not supported.")
+    @ApiResponse(responseCode = "422", description = "End date is before the start date.")
+    public ResponseEntity<StreamingResponseBody> getTimeSeries(
+            @Parameter(description = "Start date of the date range. Must be ISO formatted.") @RequestParam("start_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date of the date range. Must be ISO formatted.") @RequestParam("end_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Currencies to get the rates for, comma separated or repeated.") @RequestParam("currency") List<String> currencies,
+            @Parameter(description = "Response format, json or csv.") @RequestParam(value = "format", defaultValue = "json") String format,
+            @Parameter(description = "Currency to quote the rates against. Defaults to EUR.") @RequestParam(value = "base", required = false) String base) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"json".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<TimeSeries> timeSeries = service.getTimeSeries(startDate, endDate, currencies, base);
+        if (timeSeries.isEmpty()) {
+            return noContent("/timeseries");
+        }
+        TimeSeries series = timeSeries.get();
+        if (csv) {
+            return ResponseEntity.ok()
+                    .contentType(TEXT_CSV)
+                    .body(outputStream -> writeTimeSeriesCsv(series, outputStream));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> writeTimeSeriesJson(series, startDate, endDate, outputStream));
+    }
+
+    private void writeTimeSeriesJson(TimeSeries series, LocalDate startDate, LocalDate endDate,
+            OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartObject();
+            generator.writeStringField("startDate", startDate.toString());
+            generator.writeStringField("endDate", endDate.toString());
+            generator.writeArrayFieldStart("dates");
+            for (int day = 0; day < series.size(); day++) {
+                generator.writeString(series.date(day).toString());
+            }
+            generator.writeEndArray();
+            generator.writeObjectFieldStart("rates");
+            for (int currency = 0; currency < series.getCurrencies().size(); currency++) {
+                generator.writeArrayFieldStart(series.getCurrencies().get(currency));
+                for (int day = 0; day < series.size(); day++) {
+                    BigDecimal rate = series.rate(currency, day);
+                    if (rate == null) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeNumber(rate);
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeTimeSeriesCsv(TimeSeries series, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write("Date");
+        for (String currency : series.getCurrencies()) {
+            writer.write(',');
+            writer.write(currency);
+        }
+        writer.write('\n');
+        for (int day = 0; day < series.size(); day++) {
+            writer.write(series.date(day).toString());
+            for (int currency = 0; currency < series.getCurrencies().size(); currency++) {
+                writer.write(',');
+                BigDecimal rate = series.rate(currency, day);
+                if (rate != null) {
+                    writer.write(rate.toPlainString());
+                }
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    @GetMapping("/rolling")
+    @Operation(summary = "Get a statistic of the rates of a currency over a sliding window for every day of a given date range.",
+            description = "The window of a day is made up of the day and the published days before it, so the "
+                    + "first windows reach back before the start date. The value is null while there are not "
+                    + "enough published days for a complete window or if there are no rates in the window.")
+    @ApiResponse(responseCode = "204", description = "No exchange rates found for the given date range.")
+    @ApiResponse(responseCode = "400", description = "The currency or the base is unknown or the window or the statistic is not supported.")
+    @ApiResponse(responseCode = "422", description = "End date is before the start date.")
+    public ResponseEntity<StreamingResponseBody> getRollingSeries(
+            @Parameter(description = "Start date of the date range. Must be ISO formatted.") @RequestParam("start_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date of the date range. Must be ISO formatted.") @RequestParam("end_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Currency to get the statistic for.") @RequestParam("currency") String currency,
+            @Parameter(description = "Number of published days in each window.") @RequestParam("window") int window,
+            @Parameter(description = "Statistic to compute over each window: mean, min, max or stddev.") @RequestParam(value = "statistic", defaultValue = "mean") String statistic,
+            @Parameter(description = "Currency to quote the rates against. Defaults to EUR.") @RequestParam(value = "base", required = false) String base) {
+        RollingStatistic rollingStatistic = RollingStatistic.fromParameter(statistic);
+        if (rollingStatistic == null || window < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<RollingSeries> rollingSeries = service.getRollingSeries(startDate, endDate, currency, window,
+                rollingStatistic, base);
+        if (rollingSeries.isEmpty()) {
+            return noContent("/rolling");
+        }
+        RollingSeries series = rollingSeries.get();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> writeRollingSeriesJson(series, startDate, endDate, outputStream));
+    }
+
+    private void writeRollingSeriesJson(RollingSeries series, LocalDate startDate, LocalDate endDate,
+            OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartObject();
+            generator.writeStringField("currency", series.getCurrency());
+            generator.writeStringField("statistic", series.getStatistic().name().toLowerCase());
+            generator.writeNumberField("window", series.getWindow());
+            generator.writeStringField("startDate", startDate.toString());
+            generator.writeStringField("endDate", endDate.toString());
+            generator.writeArrayFieldStart("values");
+            series.forEach((date, value) -> {
+                generator.writeStartObject();
+                generator.writeStringField("date", date.toString());
+                if (value == null) {
+                    generator.writeNullField("value");
+                } else {
+                    generator.writeNumberField("value", value);
+                }
+                generator.writeEndObject();
+            });
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export the exchange rates of many days and currencies in bulk.",
+            description = "The CSV format has a row per date and a column per currency with empty cells for missing "
+                    + "rates. The NDJSON format has a line per date like the response of /rates. The binary format "
+                    + "is the columnar format of the snapshot file. The export is streamed straight from memory "
+                    + "and compressed with gzip if the client accepts it.")
+    @ApiResponse(responseCode = "204", description = "No exchange rates found for the given date range.")
+    @ApiResponse(responseCode = "400", description = "A currency or the base is unknown or the format is not supported.")
+    @ApiResponse(responseCode = "422", description = "End date is before the start date.")
+    public ResponseEntity<StreamingResponseBody> exportRates(
+            @Parameter(description = "Start date of the date range. Must be ISO formatted. Defaults to the first day.") @RequestParam(value = "start_date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date of the date range. Must be ISO formatted. Defaults to the last day.") @RequestParam(value = "end_date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Currencies to export, comma separated or repeated. Defaults to all the currencies.") @RequestParam(value = "currency", required = false) List<String> currencies,
+            @Parameter(description = "Export format, csv, ndjson or binary.") @RequestParam(value = "format", defaultValue = "csv") String format,
+            @Parameter(description = "Currency to quote the rates against. Defaults to EUR.") @RequestParam(value = "base", required = false) String base,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MediaType contentType;
+        RateStoreWriter writer;
+        if ("csv".equalsIgnoreCase(format)) {
+            contentType = TEXT_CSV;
+            writer = ExchangeRateController::writeExportCsv;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            contentType = MediaType.APPLICATION_NDJSON;
+            writer = this::writeExportNdjson;
+        } else if ("binary".equalsIgnoreCase(format)) {
+            contentType = MediaType.APPLICATION_OCTET_STREAM;
+            writer = RateStoreFile::write;
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<RateStore> export = service.exportRates(startDate, endDate, currencies, base);
+        if (export.isEmpty()) {
+            return noContent("/export");
+        }
+        RateStore rateStore = export.get();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(outputStream -> {
+                GZIPOutputStream gzip = new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE);
+                writer.write(rateStore, gzip);
+                // Finish rather than close, the container closes its stream.
+                gzip.finish();
+            });
+        }
+        return response.body(outputStream -> writer.write(rateStore, outputStream));
+    }
+
+    private static void writeExportCsv(RateStore rateStore, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                EXPORT_BUFFER_SIZE);
+        writer.write("Date");
+        for (int currencyId = 0; currencyId < rateStore.currencyCount(); currencyId++) {
+            writer.write(',');
+            writer.write(rateStore.currencyCode(currencyId));
+        }
+        writer.write('\n');
+        for (int i = 0; i < rateStore.size(); i++) {
+            writer.write(rateStore.date(i).toString());
+            for (int currencyId = 0; currencyId < rateStore.currencyCount(); currencyId++) {
+                writer.write(',');
+                BigDecimal rate = rateStore.rateAsBigDecimal(currencyId, i);
+                if (rate != null) {
+                    writer.write(rate.toPlainString());
+                }
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeExportNdjson(RateStore rateStore, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // Every line ends with a newline instead of the lines being
+            // separated by spaces.
+            generator.setRootValueSeparator(null);
+            for (int i = 0; i < rateStore.size(); i++) {
+                generator.writeStartObject();
+                generator.writeStringField("date", rateStore.date(i).toString());
+                generator.writeObjectFieldStart("rates");
+                for (int currencyId = 0; currencyId < rateStore.currencyCount(); currencyId++) {
+                    BigDecimal rate = rateStore.rateAsBigDecimal(currencyId, i);
+                    if (rate != null) {
+                        generator.writeNumberField(rateStore.currencyCode(currencyId), rate);
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes a rate store in one of the export formats.
+     */
+    @FunctionalInterface
+    private interface RateStoreWriter {
+        void write(RateStore rateStore, OutputStream outputStream) throws IOException;
+    }
+
     @GetMapping("/highest_rate")
     @Operation(summary = "Get the highest exchange rate for a given currency for a given date range.")
     @ApiResponse(responseCode = "204", description = "No exchange rates found for the given date range.")
+    @ApiResponse(responseCode = "400", description = "The currency or the base is unknown or the fallback is not supported.")
     @ApiResponse(responseCode = "422", description = "End date is before the start date.")
     public ResponseEntity<CurrencyHighestRate> getHighestRate(
             @Parameter(description = "Start date of the date range. Must be ISO formatted.") @RequestParam("start_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @Parameter(description = "End date of the date range. Must be ISO formatted.") @RequestParam("end_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @Parameter(description = "Currency to get the highest rate for.") @RequestParam("currency") String currency) {
-        Optional<CurrencyHighestRate> highestRate = service.getHighestRate(startDate, endDate, currency);
+            @Parameter(description = "Currency to get the highest rate for.") @RequestParam("currency") String currency,
+            @Parameter(description = "What to do if there are no rates for a date: none, or previous to use the nearest earlier date with rates.") @RequestParam(value = "fallback", defaultValue = "none") String fallback,
+            @Parameter(description = "Currency to quote the rates against. Defaults to EUR.") @RequestParam(value = "base", required = false) String base) {
+        DateFallback dateFallback = DateFallback.fromParameter(fallback);
+        if (dateFallback == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<CurrencyHighestRate> highestRate = rangeQueryCache.get("/highest_rate",
+                Arrays.asList(startDate, endDate, currencyKey(currency), dateFallback, currencyKey(base)),
+                () -> service.getHighestRate(startDate, endDate, currency, dateFallback, base));
         if (highestRate.isEmpty()) {
-            return ResponseEntity.noContent().build();
+            return noContent("/highest_rate");
         } else {
             return ResponseEntity.ok(highestRate.get());
         }
     }
 
+    @GetMapping("/lowest_rate")
+    @Operation(summary = "Get the lowest exchange rate for a given currency for a given date range.")
+    @ApiResponse(responseCode = "204", description = "No exchange rates found for the given date range.")
+    @ApiResponse(responseCode = "400", description = "The currency or the base is unknown or the fallback is not supported.")
+    @ApiResponse(responseCode = "422", description = "End date is before the start date.")
+    public ResponseEntity<CurrencyLowestRate> getLowestRate(
+            @Parameter(description = "Start date of the date range. Must be ISO formatted.") @RequestParam("start_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date of the date range. Must be ISO formatted.") @RequestParam("end_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Currency to get the lowest rate for.") @RequestParam("currency") String currency,
+            @Parameter(description = "What to do if there are no rates for a date: none, or previous to use the nearest earlier date with rates.") @RequestParam(value = "fallback", defaultValue = "none") String fallback,
+            @Parameter(description = "Currency to quote the rates against. Defaults to EUR.") @RequestParam(value = "base", required = false) String base) {
+        DateFallback dateFallback = DateFallback.fromParameter(fallback);
+        if (dateFallback == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<CurrencyLowestRate> lowestRate = rangeQueryCache.get("/lowest_rate",
+                Arrays.asList(startDate, endDate, currencyKey(currency), dateFallback, currencyKey(base)),
+                () -> service.getLowestRate(startDate, endDate, currency, dateFallback, base));
+        if (lowestRate.isEmpty()) {
+            return noContent("/lowest_rate");
+        } else {
+            return ResponseEntity.ok(lowestRate.get());
+        }
+    }
+
     @GetMapping("/average_rate")
     @Operation(summary = "Get the average exchange rate for a given currency for a given date range.")
     @ApiResponse(responseCode = "204", description = "No exchange rates found for the given date range.")
+    @ApiResponse(responseCode = "400", description = "The currency or the base is unknown or the fallback is not supported.")
     @ApiResponse(responseCode = "422", description = "End date is before the start date.")
     public ResponseEntity<CurrencyAverageRate> getAverageRate(
             @Parameter(description = "Start date of the date range. Must be ISO formatted.") @RequestParam("start_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @Parameter(description = "End date of the date range. Must be ISO formatted.") @RequestParam("end_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @Parameter(description = "Currency to get the average rate for.") @RequestParam("currency") String currency) {
-        Optional<CurrencyAverageRate> averageRate = service.getAverageRate(startDate, endDate, currency);
+            @Parameter(description = "Currency to get the average rate for.") @RequestParam("currency") String currency,
+            @Parameter(description = "What to do if there are no rates for a date: none, or previous to use the nearest earlier date with rates.") @RequestParam(value = "fallback", defaultValue = "none") String fallback,
+            @Parameter(description = "Currency to quote the rates against. Defaults to EUR.") @RequestParam(value = "base", required = false) String base) {
+        DateFallback dateFallback = DateFallback.fromParameter(fallback);
+        if (dateFallback == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<CurrencyAverageRate> averageRate = rangeQueryCache.get("/average_rate",
+                Arrays.asList(startDate, endDate, currencyKey(currency), dateFallback, currencyKey(base)),
+                () -> service.getAverageRate(startDate, endDate, currency, dateFallback, base));
         if (averageRate.isEmpty()) {
-            return ResponseEntity.noContent().build();
+            return noContent("/average_rate");
         } else {
             return ResponseEntity.ok(averageRate.get());
         }
     }
 
+    @GetMapping("/summary")
+    @Operation(summary = "Get the lowest, highest, average, first and last rates, the change in percent and the "
+            + "standard deviation of one or more currencies for a given date range.",
+            description = "The statistics of every currency are computed in a single pass over the rates. Only "
+                    + "the count is given for a currency without rates in the date range.")
+    @ApiResponse(responseCode = "204", description = "No exchange rates found for the given date range.")
+    @ApiResponse(responseCode = "400", description = "A currency or the base is unknown or the fallback is not supported.")
+    @ApiResponse(responseCode = "422", description = "End date is before the start date.")
+    public ResponseEntity<RateSummary> getSummary(
+            @Parameter(description = "Start date of the date range. Must be ISO formatted.") @RequestParam("start_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date of the date range. Must be ISO formatted.") @RequestParam("end_date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Currencies to summarize, comma separated or repeated. Defaults to all currencies.") @RequestParam(value = "currency", required = false) List<String> currencies,
+            @Parameter(description = "What to do if there are no rates for a date: none, or previous to use the nearest earlier date with rates.") @RequestParam(value = "fallback", defaultValue = "none") String fallback,
+            @Parameter(description = "Currency to quote the rates against. Defaults to EUR.") @RequestParam(value = "base", required = false) String base) {
+        DateFallback dateFallback = DateFallback.fromParameter(fallback);
+        if (dateFallback == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> currencyKeys = currencies == null ? null
+                : currencies.stream().map(ExchangeRateController::currencyKey).toList();
+        Optional<RateSummary> summary = rangeQueryCache.get("/summary",
+                Arrays.asList(startDate, endDate, currencyKeys, dateFallback, currencyKey(base)),
+                () -> service.getSummary(startDate, endDate, currencies, dateFallback, base));
+        if (summary.isEmpty()) {
+            return noContent("/summary");
+        } else {
+            return ResponseEntity.ok(summary.get());
+        }
+    }
+
+    @GetMapping("/status")
+    @Operation(summary = "Get the version and load timings of the data set being served.")
+    public ResponseEntity<SnapshotStatus> getStatus() {
+        return ResponseEntity.ok(service.getSnapshotStatus());
+    }
+
+    /**
+     * Normalize a currency code for the key of a cached query, so that e.g.
+     * usd and USD share the result. Invalid codes are kept as they are and
+     * rejected by the service.
+     */
+    private static String currencyKey(String code) {
+        return CurrencyDictionary.isValid(code) ? CurrencyDictionary.normalize(code) : code;
+    }
+
+    /**
+     * Build an empty response and count it, so that requests for data that is
+     * not available show up in the metrics of the endpoint.
+     */
+    private static <T> ResponseEntity<T> noContent(String endpoint) {
+        Metrics.counter("exchangeapi.no.content.responses", "endpoint", endpoint).increment();
+        return ResponseEntity.noContent().build();
+    }
+
     @ExceptionHandler(InvalidDateRangeException.class)
     public ResponseEntity<String> handleInvalidDateRangeException(InvalidDateRangeException e) {
         return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
     }
+
+    @ExceptionHandler(UnknownCurrencyException.class)
+    public ResponseEntity<String> handleUnknownCurrencyException(UnknownCurrencyException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
 }
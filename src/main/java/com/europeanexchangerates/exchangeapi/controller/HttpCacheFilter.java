@@ -0,0 +1,204 @@
+package com.europeanexchangerates.exchangeapi.controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.europeanexchangerates.exchangeapi.dto.SnapshotStatus;
+import com.europeanexchangerates.exchangeapi.service.ExchangeRateService;
+
+/**
+ * Adds validators and caching directives to the responses of the rate
+ * endpoints and answers conditional requests.
+ *
+ * The ETag is derived from the latest date and the checksum of the data being
+ * served and the query, so it changes whenever the data changes but stays the
+ * same across restarts and instances serving the same data. A request whose
+ * If-None-Match header matches it is answered with 304 Not Modified without
+ * calling the controller. The Last-Modified date is the latest date with
+ * rates. Published rates do not change, so successful
+ * responses about dates before the latest loaded date may be cached for a long
+ * time. All other responses have to be revalidated.
+ */
+@Component
+public class HttpCacheFilter extends OncePerRequestFilter {
+    private static final Set<String> CACHEABLE_PATHS = Set.of(
+            "/rates", "/convert", "/highest_rate", "/lowest_rate", "/average_rate", "/timeseries",
+            "/rolling", "/export", "/summary");
+
+    private final ExchangeRateService service;
+    private final CacheControl historicalCacheControl;
+
+    @Autowired
+    public HttpCacheFilter(ExchangeRateService service,
+            @Value("${exchangeapi.http-cache.historical-max-age-seconds:2592000}") long historicalMaxAgeSeconds) {
+        this.service = service;
+        this.historicalCacheControl = CacheControl.maxAge(Duration.ofSeconds(historicalMaxAgeSeconds))
+                .cachePublic();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method)) || !CACHEABLE_PATHS.contains(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SnapshotStatus status = service.getSnapshotStatus();
+
+        // Derived from the data rather than the snapshot version, which starts
+        // over on every start-up and differs between instances.
+        String tag = status.getLastDate() + "-" + Long.toHexString(status.getChecksum()) + "-"
+                + Integer.toHexString(query(request).hashCode());
+        String eTag = "\"" + tag + "\"";
+        // The gzip encoded representation of a response needs its own ETag.
+        String gzipETag = "\"" + tag + "-gzip\"";
+        CacheControl cacheControl = isHistorical(request, status.getLastDate())
+                ? historicalCacheControl
+                : CacheControl.noCache();
+        Consumer<String> setHeaders = responseETag -> {
+            response.setHeader(HttpHeaders.ETAG, responseETag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            if (status.getLastDate() != null) {
+                // Reloading the same data does not modify it.
+                response.setDateHeader(HttpHeaders.LAST_MODIFIED,
+                        status.getLastDate().atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+            }
+        };
+
+        String matchedETag = match(request.getHeaders(HttpHeaders.IF_NONE_MATCH), eTag, gzipETag);
+        if (matchedETag != null) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            setHeaders.accept(matchedETag);
+            return;
+        }
+        Runnable setResponseHeaders = () -> setHeaders.accept(
+                "gzip".equals(response.getHeader(HttpHeaders.CONTENT_ENCODING)) ? gzipETag : eTag);
+        CacheHeadersResponse cacheHeadersResponse = new CacheHeadersResponse(response, setResponseHeaders);
+        chain.doFilter(request, cacheHeadersResponse);
+        cacheHeadersResponse.applyHeaders();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Describe the query independently of the order of the parameters.
+     */
+    private static String query(HttpServletRequest request) {
+        StringBuilder query = new StringBuilder(path(request));
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) -> query
+                .append('&').append(name).append('=').append(String.join(",", values)));
+        return query.toString();
+    }
+
+    /**
+     * Whether the request is only about dates before the latest loaded date.
+     */
+    private static boolean isHistorical(HttpServletRequest request, LocalDate lastDate) {
+        String date = request.getParameter("end_date");
+        if (date == null) {
+            date = request.getParameter("date");
+        }
+        if (date == null || lastDate == null) {
+            return false;
+        }
+        try {
+            return LocalDate.parse(date).isBefore(lastDate);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Find the ETag that matches the If-None-Match header. Only actual ETags
+     * match, so a request with "*" is answered like one without the header.
+     *
+     * @return matching ETag or null if none matches
+     */
+    private static String match(Enumeration<String> ifNoneMatch, String eTag, String gzipETag) {
+        while (ifNoneMatch != null && ifNoneMatch.hasMoreElements()) {
+            for (String candidate : ifNoneMatch.nextElement().split(",")) {
+                candidate = candidate.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                // "*" is not matched, as it would answer queries that fail,
+                // e.g. for an unknown currency, with 304 as well.
+                if (candidate.equals(eTag)) {
+                    return eTag;
+                }
+                if (candidate.equals(gzipETag)) {
+                    return gzipETag;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets the caching headers right before the response is committed, but
+     * only if it is successful so that errors are never cached.
+     */
+    private static final class CacheHeadersResponse extends HttpServletResponseWrapper {
+        private final Runnable setHeaders;
+        private boolean applied;
+
+        private CacheHeadersResponse(HttpServletResponse response, Runnable setHeaders) {
+            super(response);
+            this.setHeaders = setHeaders;
+        }
+
+        void applyHeaders() {
+            if (applied || isCommitted()) {
+                return;
+            }
+            applied = true;
+            if (getStatus() >= 200 && getStatus() < 300) {
+                setHeaders.run();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            applyHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            applyHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            applyHeaders();
+            super.flushBuffer();
+        }
+    }
+}
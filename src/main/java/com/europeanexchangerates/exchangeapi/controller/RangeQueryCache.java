@@ -0,0 +1,223 @@
+package com.europeanexchangerates.exchangeapi.controller;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.europeanexchangerates.exchangeapi.service.ExchangeRateService;
+
+/**
+ * Shares the results of identical range queries between requests.
+ *
+ * Concurrent requests for the same query wait for a single computation
+ * instead of each computing the result (single-flight). Completed results
+ * are kept for a short time in a cache that is bounded by the number of
+ * entries and evicts the least recently used ones first. Like
+ * {@link RatesResponseCache} the entries belong to the snapshot version they
+ * were computed from and are all dropped as soon as a newer version is
+ * served. Failures, e.g. for an unknown currency, are passed to all the
+ * waiting requests but are not cached.
+ *
+ * The hits, misses and coalesced requests are published as metrics.
+ */
+@Component
+public class RangeQueryCache implements MeterBinder {
+    private final ExchangeRateService service;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    // Computations in progress by query.
+    private final ConcurrentHashMap<Key, CompletableFuture<Optional<?>>> inFlight = new ConcurrentHashMap<>();
+
+    // Guarded by this.
+    private long version = Long.MIN_VALUE;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    @Autowired
+    public RangeQueryCache(ExchangeRateService service,
+            @Value("${exchangeapi.range-cache.max-entries:10000}") int maxEntries,
+            @Value("${exchangeapi.range-cache.ttl-ms:300000}") long ttlMillis) {
+        this(service, maxEntries, Duration.ofMillis(ttlMillis), System::nanoTime);
+    }
+
+    RangeQueryCache(ExchangeRateService service, int maxEntries, Duration ttl, LongSupplier nanoTime) {
+        this.service = service;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Get the result of a query, computing it unless it is cached or already
+     * being computed for another request.
+     *
+     * @param query      name of the query, e.g. the endpoint
+     * @param parameters parameters that together with the name identify the
+     *                   result, may contain nulls
+     * @param compute    computes the result against the current snapshot
+     * @return result of the query
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> get(String query, List<?> parameters, Supplier<Optional<T>> compute) {
+        Key key = new Key(service.getSnapshotVersion(), query, parameters);
+        Optional<?> cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return (Optional<T>) cached;
+        }
+
+        CompletableFuture<Optional<?>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<?>> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            try {
+                return (Optional<T>) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        // A computation that finished between the lookup and taking over the
+        // query is repeated, which only costs the time of the query.
+        misses.incrementAndGet();
+        try {
+            Optional<T> result = compute.get();
+            // Stored before the computation is removed, so that a request
+            // that arrives in between finds it in the cache.
+            store(key, result);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("exchangeapi.range.cache.requests", hits, AtomicLong::get)
+                .description("Range queries by whether they were cached, computed or waited for")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("exchangeapi.range.cache.requests", misses, AtomicLong::get)
+                .description("Range queries by whether they were cached, computed or waited for")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("exchangeapi.range.cache.requests", coalesced, AtomicLong::get)
+                .description("Range queries by whether they were cached, computed or waited for")
+                .tag("result", "coalesced")
+                .register(registry);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of requests that waited for the computation of another
+     *         request
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop all the cached results.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private synchronized Optional<?> lookup(Key key) {
+        if (key.version > version) {
+            version = key.version;
+            entries.clear();
+            return null;
+        }
+        Entry entry = key.version == version ? entries.get(key) : null;
+        if (entry == null) {
+            return null;
+        }
+        if (nanoTime.getAsLong() - entry.storedAt >= ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.result;
+    }
+
+    private synchronized void store(Key key, Optional<?> result) {
+        // Results of an older snapshot are not kept once a newer one is
+        // served.
+        if (key.version != version || maxEntries <= 0) {
+            return;
+        }
+        entries.put(key, new Entry(result, nanoTime.getAsLong()));
+        if (entries.size() > maxEntries) {
+            Map.Entry<Key, Entry> eldest = entries.entrySet().iterator().next();
+            entries.remove(eldest.getKey());
+        }
+    }
+
+    private static final class Key {
+        private final long version;
+        private final String query;
+        private final List<?> parameters;
+
+        private Key(long version, String query, List<?> parameters) {
+            this.version = version;
+            this.query = query;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && version == key.version && query.equals(key.query)
+                    && parameters.equals(key.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(version) * 31 + query.hashCode()) * 31 + parameters.hashCode();
+        }
+    }
+
+    private static final class Entry {
+        private final Optional<?> result;
+        private final long storedAt;
+
+        private Entry(Optional<?> result, long storedAt) {
+            this.result = result;
+            this.storedAt = storedAt;
+        }
+    }
+}
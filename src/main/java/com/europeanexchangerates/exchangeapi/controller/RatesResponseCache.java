@@ -0,0 +1,203 @@
+package com.europeanexchangerates.exchangeapi.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.exception.UnknownCurrencyException;
+import com.europeanexchangerates.exchangeapi.service.DateFallback;
+import com.europeanexchangerates.exchangeapi.service.ExchangeRateService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Caches the serialized JSON and gzip bytes of the exchange rates of a date
+ * and base currency.
+ *
+ * The entries belong to the snapshot version they were rendered from. As soon
+ * as a newer version is served all the entries are dropped at once so that a
+ * response is never rendered from one snapshot and served for another. The
+ * cache is bounded by the number of bytes it holds and evicts the least
+ * recently used entries first.
+ *
+ * The hits and misses are published as metrics.
+ */
+@Component
+public class RatesResponseCache implements MeterBinder {
+    // Rough size of the map entry, the key and the entry object.
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final ExchangeRateService service;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // Guarded by this.
+    private long version = Long.MIN_VALUE;
+    private long bytes;
+    // Keyed by the id of the base in the high and the epoch day in the low
+    // half.
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    @Autowired
+    public RatesResponseCache(ExchangeRateService service, ObjectMapper objectMapper,
+            @Value("${exchangeapi.rates-cache.max-bytes:16777216}") long maxBytes) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the rendered exchange rates of a date, rendering them if they are
+     * not cached yet.
+     *
+     * @param date date to get exchange rates for
+     * @return rendered exchange rates, empty if there are none for the date
+     */
+    public Optional<Entry> get(LocalDate date) throws IOException {
+        return get(date, null);
+    }
+
+    /**
+     * Get the rendered exchange rates of a date quoted against a base
+     * currency, rendering them if they are not cached yet.
+     *
+     * @param date date to get exchange rates for
+     * @param base currency to quote the rates against, null for the euro
+     * @return rendered exchange rates, empty if there are none for the date
+     * @throws UnknownCurrencyException if the base is unknown
+     */
+    public Optional<Entry> get(LocalDate date, String base) throws IOException {
+        long currentVersion = service.getSnapshotVersion();
+        long key = ((long) service.resolveBase(base) << Integer.SIZE) | (date.toEpochDay() & 0xFFFFFFFFL);
+        Entry entry = lookup(currentVersion, key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return Optional.of(entry);
+        }
+        misses.incrementAndGet();
+        Optional<ExchangeRate> exchangeRate = service.getRatesForDate(date, DateFallback.NONE, base);
+        if (exchangeRate.isEmpty()) {
+            return Optional.empty();
+        }
+        entry = render(exchangeRate.get());
+        store(currentVersion, key, entry);
+        return Optional.of(entry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("exchangeapi.rates.cache.requests", hits, AtomicLong::get)
+                .description("Requests for the rates of a date by whether they were cached")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("exchangeapi.rates.cache.requests", misses, AtomicLong::get)
+                .description("Requests for the rates of a date by whether they were cached")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of bytes held by the cache, including an estimate of the
+     *         overhead of each entry
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Entry lookup(long currentVersion, long key) {
+        if (currentVersion > version) {
+            version = currentVersion;
+            entries.clear();
+            bytes = 0;
+            return null;
+        }
+        return currentVersion == version ? entries.get(key) : null;
+    }
+
+    private synchronized void store(long renderedVersion, long key, Entry entry) {
+        // Entries of an older snapshot are not kept once a newer one is
+        // served and entries that would not fit on their own are not kept at
+        // all.
+        if (renderedVersion != version || entry.size() > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            bytes -= previous.size();
+        }
+        bytes += entry.size();
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+
+    private Entry render(ExchangeRate exchangeRate) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(exchangeRate);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzip)) {
+            gzipOutputStream.write(json);
+        }
+        return new Entry(json, gzip.toByteArray());
+    }
+
+    /**
+     * Serialized exchange rates of a date and base.
+     */
+    public static final class Entry {
+        private final byte[] json;
+        private final byte[] gzip;
+
+        private Entry(byte[] json, byte[] gzip) {
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        /**
+         * @return UTF-8 encoded JSON
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return gzip compressed JSON
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        long size() {
+            return json.length + gzip.length + ENTRY_OVERHEAD;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.europeanexchangerates.exchangeapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Takes the place of the conversion of a request of a batch conversion request that could "
+        + "not be read or has an unknown currency")
+public class ConversionError {
+    private int index;
+    private String error;
+
+    public ConversionError(int index, String error) {
+        this.index = index;
+        this.error = error;
+    }
+
+    @Schema(description = "Position of the request in the batch, starting at 0")
+    public int getIndex() {
+        return index;
+    }
+
+    @Schema(description = "Why the request could not be converted")
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,45 @@
+package com.europeanexchangerates.exchangeapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Represents a single conversion of a batch conversion request")
+public class ConversionRequest {
+    private LocalDate date;
+    private String source;
+    private String target;
+    private BigDecimal amount;
+
+    @JsonCreator
+    public ConversionRequest(
+            @JsonProperty("date") LocalDate date,
+            @JsonProperty("source") String source,
+            @JsonProperty("target") String target,
+            @JsonProperty("amount") BigDecimal amount) {
+        this.date = date;
+        this.source = source;
+        this.target = target;
+        this.amount = amount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+}
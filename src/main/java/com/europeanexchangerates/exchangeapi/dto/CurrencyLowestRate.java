@@ -0,0 +1,41 @@
+package com.europeanexchangerates.exchangeapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Represents the lowest rate of a given currency in a given period of time")
+public class CurrencyLowestRate {
+    private String currency;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal lowestRate;
+
+    public CurrencyLowestRate(
+            String currency,
+            LocalDate startDate,
+            LocalDate endDate,
+            BigDecimal lowestRate) {
+        this.currency = currency;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.lowestRate = lowestRate;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public BigDecimal getLowestRate() {
+        return lowestRate;
+    }
+}
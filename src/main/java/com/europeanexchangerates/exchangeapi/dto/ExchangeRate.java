@@ -1,18 +1,45 @@
 package com.europeanexchangerates.exchangeapi.dto;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 
 @Schema(description = "Contains all the exchange rates for a given date")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ExchangeRate {
+    private LocalDate date;
+    private String base;
     private Map<String, BigDecimal> rates;
 
     public ExchangeRate(Map<String, BigDecimal> rates) {
+        this(null, rates);
+    }
+
+    public ExchangeRate(LocalDate date, Map<String, BigDecimal> rates) {
+        this(date, null, rates);
+    }
+
+    public ExchangeRate(LocalDate date, String base, Map<String, BigDecimal> rates) {
+        this.date = date;
+        this.base = base;
         this.rates = rates;
     }
 
+    @Schema(description = "Date the rates were published for, which is earlier than the requested date "
+            + "if a fallback was used")
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Schema(description = "Currency the rates are quoted against, left out for the euro")
+    public String getBase() {
+        return base;
+    }
+
     public Map<String, BigDecimal> getRates() {
         return rates;
     }
@@ -0,0 +1,120 @@
+package com.europeanexchangerates.exchangeapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Statistics of the rates of one or more currencies in a given period of time")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RateSummary {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String base;
+    private Map<String, Statistics> currencies;
+
+    public RateSummary(LocalDate startDate, LocalDate endDate, String base, Map<String, Statistics> currencies) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.base = base;
+        this.currencies = currencies;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    @Schema(description = "Currency the rates are quoted against, left out for the euro")
+    public String getBase() {
+        return base;
+    }
+
+    @Schema(description = "Statistics by currency code in the order of the requested currencies")
+    public Map<String, Statistics> getCurrencies() {
+        return currencies;
+    }
+
+    @Schema(description = "Statistics of the rates of a currency. Only the count is given if there are no rates "
+            + "and the standard deviation needs at least two rates.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static final class Statistics {
+        private final int count;
+        private final BigDecimal minRate;
+        private final BigDecimal maxRate;
+        private final BigDecimal averageRate;
+        private final BigDecimal standardDeviation;
+        private final LocalDate firstDate;
+        private final BigDecimal firstRate;
+        private final LocalDate lastDate;
+        private final BigDecimal lastRate;
+        private final BigDecimal changePercent;
+
+        public Statistics(int count, BigDecimal minRate, BigDecimal maxRate, BigDecimal averageRate,
+                BigDecimal standardDeviation, LocalDate firstDate, BigDecimal firstRate, LocalDate lastDate,
+                BigDecimal lastRate, BigDecimal changePercent) {
+            this.count = count;
+            this.minRate = minRate;
+            this.maxRate = maxRate;
+            this.averageRate = averageRate;
+            this.standardDeviation = standardDeviation;
+            this.firstDate = firstDate;
+            this.firstRate = firstRate;
+            this.lastDate = lastDate;
+            this.lastRate = lastRate;
+            this.changePercent = changePercent;
+        }
+
+        @Schema(description = "Number of days with rates")
+        public int getCount() {
+            return count;
+        }
+
+        public BigDecimal getMinRate() {
+            return minRate;
+        }
+
+        public BigDecimal getMaxRate() {
+            return maxRate;
+        }
+
+        public BigDecimal getAverageRate() {
+            return averageRate;
+        }
+
+        @Schema(description = "Sample standard deviation of the rates")
+        public BigDecimal getStandardDeviation() {
+            return standardDeviation;
+        }
+
+        @Schema(description = "First day with a rate")
+        public LocalDate getFirstDate() {
+            return firstDate;
+        }
+
+        public BigDecimal getFirstRate() {
+            return firstRate;
+        }
+
+        @Schema(description = "Last day with a rate")
+        public LocalDate getLastDate() {
+            return lastDate;
+        }
+
+        public BigDecimal getLastRate() {
+            return lastRate;
+        }
+
+        @Schema(description = "Change from the first to the last rate in percent, left out if the first rate "
+                + "is zero")
+        public BigDecimal getChangePercent() {
+            return changePercent;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.europeanexchangerates.exchangeapi.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Describes the data set that is currently being served")
+public class SnapshotStatus {
+    private long version;
+    private Instant loadedAt;
+    private long loadDurationMillis;
+    private int dayCount;
+    private int currencyCount;
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+    private long crossRateBytes;
+    private long checksum;
+
+    public SnapshotStatus(
+            long version,
+            Instant loadedAt,
+            long loadDurationMillis,
+            int dayCount,
+            int currencyCount,
+            LocalDate firstDate,
+            LocalDate lastDate,
+            long crossRateBytes,
+            long checksum) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.loadDurationMillis = loadDurationMillis;
+        this.dayCount = dayCount;
+        this.currencyCount = currencyCount;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.crossRateBytes = crossRateBytes;
+        this.checksum = checksum;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public long getLoadDurationMillis() {
+        return loadDurationMillis;
+    }
+
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    public int getCurrencyCount() {
+        return currencyCount;
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    @Schema(description = "Memory used by the precomputed cross rates in bytes, 0 if they are disabled")
+    public long getCrossRateBytes() {
+        return crossRateBytes;
+    }
+
+    @Schema(description = "CRC32 checksum of the data, the same for the same data on every instance and after "
+            + "restarts")
+    public long getChecksum() {
+        return checksum;
+    }
+}
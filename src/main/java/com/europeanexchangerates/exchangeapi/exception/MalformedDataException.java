@@ -0,0 +1,7 @@
+package com.europeanexchangerates.exchangeapi.exception;
+
+public class MalformedDataException extends RuntimeException {
+    public MalformedDataException(String message) {
+        super(message);
+    }
+}
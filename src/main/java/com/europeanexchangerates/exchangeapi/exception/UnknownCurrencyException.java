@@ -0,0 +1,7 @@
+package com.europeanexchangerates.exchangeapi.exception;
+
+public class UnknownCurrencyException extends RuntimeException {
+    public UnknownCurrencyException(String message) {
+        super(message);
+    }
+}
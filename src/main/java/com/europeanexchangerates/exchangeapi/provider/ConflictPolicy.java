@@ -0,0 +1,36 @@
+package com.europeanexchangerates.exchangeapi.provider;
+
+/**
+ * Which source's rates are kept when several sources have rates for the same
+ * date.
+ *
+ * The rates of a date are always taken from a single source, so a day never
+ * mixes the rates of different sources.
+ */
+public enum ConflictPolicy {
+    /**
+     * The rates of the source whose fetch completed first are kept.
+     */
+    FIRST_COMPLETED,
+
+    /**
+     * The rates of the source that was configured first are kept.
+     */
+    PRIORITY;
+
+    /**
+     * Resolve the policy of a configuration value.
+     *
+     * @param parameter "first_completed", "first-completed" or "priority",
+     *                  ignoring case
+     * @return policy or null if the value is not supported
+     */
+    public static ConflictPolicy fromParameter(String parameter) {
+        for (ConflictPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(parameter.trim().replace('-', '_'))) {
+                return policy;
+            }
+        }
+        return null;
+    }
+}
@@ -4,7 +4,35 @@ import java.time.LocalDate;
 import java.util.TreeMap;
 
 import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.store.ColumnarRateStore;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
 
 public interface ExchangeRateProvider {
     TreeMap<LocalDate, ExchangeRate> getExchangeRates() throws Exception;
+
+    /**
+     * Get all the exchange rates in a columnar rate store.
+     * 
+     * Implementations that can parse straight into a store should override
+     * this to avoid building the intermediate map.
+     * 
+     * @return exchange rates
+     */
+    default RateStore getRateStore() throws Exception {
+        return ColumnarRateStore.of(getExchangeRates());
+    }
+
+    /**
+     * Get only the exchange rates of the dates after the given date.
+     * 
+     * This is used to pick up newly published rates without reloading the
+     * whole history. Implementations should avoid fetching and parsing the
+     * older data where the source allows it.
+     * 
+     * @param after only dates after this date are returned
+     * @return exchange rates after the date
+     */
+    default TreeMap<LocalDate, ExchangeRate> getExchangeRatesSince(LocalDate after) throws Exception {
+        return new TreeMap<>(getExchangeRates().tailMap(after, false));
+    }
 }
@@ -0,0 +1,328 @@
+package com.europeanexchangerates.exchangeapi.provider;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.exception.NoDataFromSource;
+import com.europeanexchangerates.exchangeapi.store.ColumnarRateStore;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+/**
+ * Fetches the exchange rates from several sources in parallel and merges them
+ * by date.
+ *
+ * Every source is fetched on its own thread with its own timeout. A load
+ * returns as soon as the {@link ConflictPolicy} has a winning source, so a
+ * slow or unreachable source only delays it if no source it would lose to
+ * has delivered, and only fails it if no other source delivers. The results
+ * of the sources that delivered by then are merged by date and the
+ * {@link ConflictPolicy} decides whose rates of a date in several of them are
+ * kept.
+ *
+ * Sources that are still running when a load returns, or that time out, are
+ * abandoned rather than interrupted. Their fetches finish in the background
+ * and the results are dropped.
+ */
+public class FederatedExchangeRateProvider implements ExchangeRateProvider {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FederatedExchangeRateProvider.class);
+    private static final String FETCH_TIMER = "exchangeapi.source.fetch";
+
+    private final List<Source> sources;
+    private final ConflictPolicy conflictPolicy;
+    private final ExecutorService executor;
+
+    /**
+     * @param sources        sources to fetch from, in order of priority
+     * @param conflictPolicy which source's rates to keep for a date that is in
+     *                       more than one source
+     */
+    public FederatedExchangeRateProvider(List<Source> sources, ConflictPolicy conflictPolicy) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("At least one source is needed.");
+        }
+        this.sources = List.copyOf(sources);
+        this.conflictPolicy = conflictPolicy;
+        AtomicInteger threads = new AtomicInteger();
+        // Daemon threads so that an abandoned fetch does not keep the JVM
+        // alive.
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "exchange-rate-source-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create a provider of ZIP files like the ECB's at several URLs.
+     *
+     * @param urls           URLs in order of priority, e.g. mirrors of the ECB
+     *                       file or {@code file:} URLs
+     * @param timeoutsMillis one timeout for all the URLs or one per URL
+     * @param conflictPolicy which URL's rates to keep for a date that is in
+     *                       more than one file
+     * @return new provider
+     */
+    public static FederatedExchangeRateProvider ofUrls(List<String> urls, List<Long> timeoutsMillis,
+            ConflictPolicy conflictPolicy) {
+        if (timeoutsMillis.size() != 1 && timeoutsMillis.size() != urls.size()) {
+            throw new IllegalArgumentException("Expected one timeout or one per source but got "
+                    + timeoutsMillis.size() + " for " + urls.size() + " sources.");
+        }
+        List<Source> sources = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            String url = urls.get(i).trim();
+            long timeoutMillis = timeoutsMillis.get(timeoutsMillis.size() == 1 ? 0 : i);
+            sources.add(new Source(url, new UrlCsvZipExchangeRateProvider(url), Duration.ofMillis(timeoutMillis)));
+        }
+        return new FederatedExchangeRateProvider(sources, conflictPolicy);
+    }
+
+    @Override
+    public TreeMap<LocalDate, ExchangeRate> getExchangeRates() throws Exception {
+        return mergeMaps(fetchAll(ExchangeRateProvider::getExchangeRates));
+    }
+
+    @Override
+    public TreeMap<LocalDate, ExchangeRate> getExchangeRatesSince(LocalDate after) throws Exception {
+        return mergeMaps(fetchAll(provider -> provider.getExchangeRatesSince(after)));
+    }
+
+    /**
+     * Fetch the rate stores of all the sources and merge them into one.
+     *
+     * If only one source delivers then its store is used as it is.
+     */
+    @Override
+    public RateStore getRateStore() throws Exception {
+        List<RateStore> stores = fetchAll(ExchangeRateProvider::getRateStore);
+        if (stores.size() == 1) {
+            return stores.get(0);
+        }
+
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        Set<LocalDate> dates = new HashSet<>();
+        for (RateStore store : stores) {
+            int[] currencyIds = new int[store.currencyCount()];
+            for (int currencyId = 0; currencyId < currencyIds.length; currencyId++) {
+                currencyIds[currencyId] = builder.currency(store.currencyCode(currencyId));
+            }
+            for (int i = 0; i < store.size(); i++) {
+                LocalDate date = store.date(i);
+                if (!dates.add(date)) {
+                    continue;
+                }
+                int row = builder.addDay(date);
+                for (int currencyId = 0; currencyId < currencyIds.length; currencyId++) {
+                    if (store.hasRate(currencyId, i)) {
+                        builder.putRate(row, currencyIds[currencyId], store.rate(currencyId, i),
+                                store.publishedScale(currencyId, i));
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static TreeMap<LocalDate, ExchangeRate> mergeMaps(List<TreeMap<LocalDate, ExchangeRate>> results) {
+        TreeMap<LocalDate, ExchangeRate> merged = new TreeMap<>();
+        for (TreeMap<LocalDate, ExchangeRate> result : results) {
+            result.forEach(merged::putIfAbsent);
+        }
+        return merged;
+    }
+
+    /**
+     * Fetch from all the sources at the same time and wait until the
+     * {@link ConflictPolicy} has a winner.
+     *
+     * Under {@link ConflictPolicy#FIRST_COMPLETED} the first source that
+     * delivers wins. Under {@link ConflictPolicy#PRIORITY} the source listed
+     * first among those that have not failed wins as soon as it delivers. The
+     * sources that delivered before the winner are merged in after it and
+     * the ones still running are ignored.
+     *
+     * @return results of the sources that delivered, the one whose rates win
+     *         a conflict first
+     * @throws NoDataFromSource if no source delivered
+     */
+    private <T> List<T> fetchAll(Fetch<T> fetch) {
+        Outcomes<T> outcomes = new Outcomes<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            Source source = sources.get(i);
+            int index = i;
+            long startedAt = System.nanoTime();
+            CompletableFuture
+                    .supplyAsync(() -> {
+                        try {
+                            return fetch.apply(source.getProvider());
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    }, executor)
+                    .orTimeout(source.getTimeout().toNanos(), TimeUnit.NANOSECONDS)
+                    .whenComplete((result, failure) -> {
+                        if (failure == null) {
+                            record(source, startedAt, "success");
+                            outcomes.delivered(index, result);
+                        } else {
+                            Throwable cause = unwrap(failure);
+                            record(source, startedAt, cause instanceof TimeoutException ? "timeout" : "failure");
+                            LOGGER.warn("Fetching exchange rates from {} failed.", source.getName(), cause);
+                            outcomes.failed(index, cause);
+                        }
+                    });
+        }
+
+        List<T> results = outcomes.winners.join();
+        if (results.isEmpty()) {
+            NoDataFromSource exception = new NoDataFromSource(
+                    "None of the " + sources.size() + " exchange rate sources delivered.");
+            outcomes.failures().forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return results;
+    }
+
+    /**
+     * Outcomes of the fetches of one load, completing {@link #winners} as soon
+     * as the conflict policy has a winner or every source has failed.
+     */
+    private final class Outcomes<T> {
+        private final CompletableFuture<List<T>> winners = new CompletableFuture<>();
+        // Guarded by this.
+        private final Object[] results;
+        private final boolean[] delivered;
+        private final boolean[] failed;
+        private final List<Throwable> failures = new ArrayList<>();
+
+        Outcomes(int size) {
+            results = new Object[size];
+            delivered = new boolean[size];
+            failed = new boolean[size];
+        }
+
+        synchronized void delivered(int index, T result) {
+            results[index] = result;
+            delivered[index] = true;
+            decide(index);
+        }
+
+        synchronized void failed(int index, Throwable cause) {
+            failed[index] = true;
+            failures.add(cause);
+            decide(-1);
+        }
+
+        synchronized List<Throwable> failures() {
+            return new ArrayList<>(failures);
+        }
+
+        /**
+         * @param deliveredIndex index of the source that just delivered, -1
+         *                       if one failed
+         */
+        @SuppressWarnings("unchecked")
+        private void decide(int deliveredIndex) {
+            if (winners.isDone()) {
+                return;
+            }
+            if (failures.size() == results.length) {
+                winners.complete(List.of());
+                return;
+            }
+            int winner;
+            if (conflictPolicy == ConflictPolicy.FIRST_COMPLETED) {
+                winner = deliveredIndex;
+            } else {
+                winner = 0;
+                while (failed[winner]) {
+                    winner++;
+                }
+                if (!delivered[winner]) {
+                    return;
+                }
+            }
+            if (winner < 0) {
+                return;
+            }
+            List<T> winning = new ArrayList<>();
+            winning.add((T) results[winner]);
+            // Under the priority policy the sources listed after the winner
+            // lose conflicts in their order. Under the first completed policy
+            // the winner is the only one that has delivered.
+            for (int index = winner + 1; index < results.length; index++) {
+                if (delivered[index]) {
+                    winning.add((T) results[index]);
+                }
+            }
+            winners.complete(winning);
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static void record(Source source, long startedAt, String outcome) {
+        Metrics.timer(FETCH_TIMER, "source", source.getName(), "outcome", outcome)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A provider to fetch from and how long to wait for it.
+     */
+    public static final class Source {
+        private final String name;
+        private final ExchangeRateProvider provider;
+        private final Duration timeout;
+
+        /**
+         * @param name     name of the source in logs and metrics, e.g. its URL
+         * @param provider provider of the source
+         * @param timeout  how long to wait for a fetch from the source
+         */
+        public Source(String name, ExchangeRateProvider provider, Duration timeout) {
+            if (timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("The timeout of " + name + " must be positive.");
+            }
+            this.name = name;
+            this.provider = provider;
+            this.timeout = timeout;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ExchangeRateProvider getProvider() {
+            return provider;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Fetch<T> {
+        T apply(ExchangeRateProvider provider) throws Exception;
+    }
+}
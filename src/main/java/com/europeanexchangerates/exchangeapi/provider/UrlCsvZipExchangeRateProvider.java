@@ -3,30 +3,54 @@ package com.europeanexchangerates.exchangeapi.provider;
 import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipInputStream;
 
+import io.micrometer.core.instrument.Metrics;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
 import com.europeanexchangerates.exchangeapi.exception.NoDataFromSource;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
 import com.europeanexchangerates.exchangeapi.util.datadownloader.DataDownloader;
+import com.europeanexchangerates.exchangeapi.util.datadownloader.PipelinedInputStream;
+import com.europeanexchangerates.exchangeapi.util.datadownloader.TimedZipInputStream;
 import com.europeanexchangerates.exchangeapi.util.datadownloader.UrlCsvZipDataDownloader;
-import com.europeanexchangerates.exchangeapi.util.dataparser.CsvDataParser;
+import com.europeanexchangerates.exchangeapi.util.dataparser.ByteCsvDataParser;
 import com.europeanexchangerates.exchangeapi.util.dataparser.DataParser;
 
 /**
- * Fetches data from the European Central Bank's URL and parses it into a
+ * Fetches data from the European Central Bank's URL, or another URL serving
+ * the same ZIP file such as a mirror or a local file, and parses it into a
  * TreeMap.
+ *
+ * A full load downloads and inflates the archive on a separate thread through
+ * a {@link PipelinedInputStream} while the rows are parsed, so that waiting for
+ * the network does not hold up parsing.
  */
 public class UrlCsvZipExchangeRateProvider implements ExchangeRateProvider {
+    public static final String ECB_URL = "https://www.ecb.europa.eu/stats/eurofxref/eurofxref-hist.zip";
+    private static final String LOAD_TIMER = "exchangeapi.load";
+
+    private String url = ECB_URL;
     private DataDownloader downloader;
     private DataParser parser;
     private static final Logger LOGGER = LoggerFactory.getLogger(UrlCsvZipExchangeRateProvider.class);
 
     public UrlCsvZipExchangeRateProvider() {
+        this(ECB_URL);
+    }
+
+    /**
+     * @param url URL of the ZIP file, e.g. a mirror of the ECB file or a
+     *            {@code file:} URL
+     */
+    public UrlCsvZipExchangeRateProvider(String url) {
+        this.url = url;
         this.downloader = new UrlCsvZipDataDownloader();
-        this.parser = new CsvDataParser();
+        this.parser = new ByteCsvDataParser();
     }
 
     public UrlCsvZipExchangeRateProvider(DataDownloader downloader, DataParser parser) {
@@ -41,24 +65,118 @@ public class UrlCsvZipExchangeRateProvider implements ExchangeRateProvider {
      * is found then a warning log message is logged.
      */
     public TreeMap<LocalDate, ExchangeRate> getExchangeRates() throws Exception {
-        InputStream data = downloader.downloadData("https://www.ecb.europa.eu/stats/eurofxref/eurofxref-hist.zip");
+        return fetch(parser::parseData);
+    }
+
+    /**
+     * Fetch the data from the URL and parse it straight into a rate store.
+     * 
+     * The same checks on the contents of the ZIP file as in
+     * {@link #getExchangeRates()} apply.
+     */
+    @Override
+    public RateStore getRateStore() throws Exception {
+        return fetch(parser::parseToStore);
+    }
+
+    private <T> T fetch(ParseFunction<T> parse) throws Exception {
+        long startedAt = System.nanoTime();
+        InputStream data = downloader.downloadData(url);
+        try {
+            // Only one CSV file is expected from the ZIP file.
+            if (((ZipInputStream) data).getNextEntry() == null) {
+                throw new NoDataFromSource("No files found from the zip file");
+            }
+            // Download and inflate on another thread while the rows are
+            // parsed.
+            PipelinedInputStream pipeline = new PipelinedInputStream(data);
+            long parseStartedAt = System.nanoTime();
+            T exchangeRates;
+            try {
+                exchangeRates = parse.apply(pipeline);
+            } finally {
+                pipeline.close();
+            }
+            long parseNanos = System.nanoTime() - parseStartedAt - pipeline.getWaitNanos();
+
+            // If the zip file has changed, keep the current behavior by
+            // skipping the next files and but log a warning. This will prevent
+            // the service from going down if the zip file is updated.
+            // Ideally, alerts should be sent if running in a production
+            // environment. Some platforms can ingest the log messages and send
+            // out alerts for specific log messages.
+            if (((ZipInputStream) data).getNextEntry() != null) {
+                LOGGER.warn("The contents of the zip archive has changed. Please check the data source.");
+            }
+
+            long totalNanos = System.nanoTime() - startedAt;
+            recordLoadStages(data, parseNanos);
+            if (LOGGER.isInfoEnabled()) {
+                double megabytes = pipeline.getBytes() / 1_000_000.0;
+                LOGGER.info("Loaded {} MB of exchange rates in {} ms ({} MB/s).",
+                        String.format("%.1f", megabytes), TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                        String.format("%.1f", megabytes * 1_000_000_000.0 / Math.max(1, totalNanos)));
+            }
+            return exchangeRates;
+        } finally {
+            data.close();
+        }
+    }
 
-        // Only one CSV file is expected from the ZIP file.
-        if (((ZipInputStream) data).getNextEntry() == null) {
-            throw new NoDataFromSource("No files found from the zip file");
+    /**
+     * Record how the time of a load was split between downloading, inflating
+     * and parsing. The download and inflate times are only known when the
+     * downloader times the stream.
+     */
+    private static void recordLoadStages(InputStream data, long parseNanos) {
+        if (data instanceof TimedZipInputStream timed) {
+            Metrics.timer(LOAD_TIMER, "stage", "download").record(timed.getDownloadNanos(), TimeUnit.NANOSECONDS);
+            Metrics.timer(LOAD_TIMER, "stage", "unzip").record(timed.getInflateNanos(), TimeUnit.NANOSECONDS);
         }
-        TreeMap<LocalDate, ExchangeRate> exchangeRates = parser.parseData(data);
-
-        // If the zip file has changed, keep the current behavior by skipping
-        // the next files and but log a warning. This will prevent the service
-        // from going down if the zip file is updated.
-        // Ideally, alerts should be sent if running in a production
-        // environment. Some platforms can ingest the log messages and send out
-        // alerts for specific log messages.
-        if (((ZipInputStream) data).getNextEntry() != null) {
-            LOGGER.warn("The contents of the zip archive has changed. Please check the data source.");
+        Metrics.timer(LOAD_TIMER, "stage", "parse").record(Math.max(0, parseNanos), TimeUnit.NANOSECONDS);
+    }
+
+    private static long readNanos(InputStream data) {
+        if (data instanceof TimedZipInputStream timed) {
+            return timed.getDownloadNanos() + timed.getInflateNanos();
         }
+        return 0;
+    }
+
+    /**
+     * Fetch only the rates published after the given date.
+     * 
+     * The CSV file in the ZIP file lists the newest date first, so the parser
+     * stops after the new rows and the stream is closed right away. Only the
+     * beginning of the archive is downloaded and inflated. The cost is
+     * proportional to the number of new rows instead of the whole history.
+     * Unlike a full load the archive is not read ahead on another thread,
+     * which would inflate more than the new rows.
+     */
+    @Override
+    public TreeMap<LocalDate, ExchangeRate> getExchangeRatesSince(LocalDate after) throws Exception {
+        long startedAt = System.nanoTime();
+        InputStream data = downloader.downloadData(url);
+        try {
+            if (((ZipInputStream) data).getNextEntry() == null) {
+                throw new NoDataFromSource("No files found from the zip file");
+            }
+            TreeMap<LocalDate, ExchangeRate> exchangeRates = parser.parseDataSince(data, after);
+            // The rows are parsed on this thread as they are read.
+            recordLoadStages(data, System.nanoTime() - startedAt - readNanos(data));
+            return exchangeRates;
+        } finally {
+            data.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
 
-        return exchangeRates;
+    @FunctionalInterface
+    private interface ParseFunction<T> {
+        T apply(InputStream data) throws Exception;
     }
 }
@@ -0,0 +1,101 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.europeanexchangerates.exchangeapi.dto.CurrencyConversion;
+import com.europeanexchangerates.exchangeapi.exception.UnknownCurrencyException;
+import com.europeanexchangerates.exchangeapi.store.CrossRateMatrix;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+/**
+ * Converts many amounts against the snapshot that was current when the
+ * converter was created.
+ *
+ * The day of each distinct date is looked up only once per converter. The
+ * amounts are converted with the precomputed cross rates where there are any.
+ * For the other days and pairs the conversion factor of each distinct day and
+ * pair is computed once per converter, and only amounts whose rounding it
+ * cannot decide are converted by dividing the fixed-point rates of the store.
+ * A converter is not thread-safe and is meant to be used for a single batch.
+ */
+public class BatchCurrencyConverter {
+    private final RateStore rateStore;
+    private final CrossRateMatrix crossRateMatrix;
+    private final Map<LocalDate, Integer> dayIndexes = new HashMap<>();
+    // Factors by day and pair, see factorKey.
+    private final Map<Long, CrossRateMatrix.Factor> factors = new HashMap<>();
+
+    BatchCurrencyConverter(RateStore rateStore, CrossRateMatrix crossRateMatrix) {
+        this.rateStore = rateStore;
+        this.crossRateMatrix = crossRateMatrix;
+    }
+
+    /**
+     * Convert the amount from source to target currency.
+     *
+     * The results are rounded the same way as
+     * {@link ExchangeRateService#convertCurrency} and the currency codes are
+     * given back in upper case like there.
+     *
+     * @param date   date to get exchange rates for
+     * @param source source currency code in any case
+     * @param target target currency code in any case
+     * @param amount amount to convert
+     *
+     * @return conversion whose converted amount is null if a field is missing
+     *         or there are no rates for the date and currencies
+     * @throws UnknownCurrencyException if a currency is unknown
+     */
+    public CurrencyConversion convert(LocalDate date, String source, String target, BigDecimal amount) {
+        int sourceId = currencyId(source);
+        int targetId = currencyId(target);
+        BigDecimal convertedValue = date == null || sourceId < 0 || targetId < 0 || amount == null
+                ? null
+                : convertedAmount(date, sourceId, targetId, amount);
+        return new CurrencyConversion(sourceId < 0 ? source : rateStore.currencyCode(sourceId),
+                targetId < 0 ? target : rateStore.currencyCode(targetId), amount, date, convertedValue);
+    }
+
+    /**
+     * @return id of the currency or -1 if the code is missing
+     * @throws UnknownCurrencyException if the currency is not in the store
+     */
+    private int currencyId(String currency) {
+        if (currency == null) {
+            return -1;
+        }
+        int currencyId = rateStore.currencyId(currency);
+        if (currencyId < 0) {
+            throw new UnknownCurrencyException("Unknown currency " + currency + ".");
+        }
+        return currencyId;
+    }
+
+    private BigDecimal convertedAmount(LocalDate date, int sourceId, int targetId, BigDecimal amount) {
+        int index = dayIndexes.computeIfAbsent(date, rateStore::indexOf);
+        if (index < 0) {
+            return null;
+        }
+        BigDecimal convertedValue = ExchangeRateService.convert(crossRateMatrix, amount, index, sourceId, targetId);
+        if (convertedValue != null) {
+            return convertedValue;
+        }
+        if (!rateStore.hasRate(sourceId, index) || !rateStore.hasRate(targetId, index)) {
+            return null;
+        }
+        convertedValue = factors.computeIfAbsent(factorKey(index, sourceId, targetId),
+                key -> CrossRateMatrix.factor(rateStore, index, sourceId, targetId)).convert(amount);
+        if (convertedValue != null) {
+            return convertedValue;
+        }
+        return ExchangeRateService.convert(amount, rateStore.rate(sourceId, index), rateStore.rate(targetId, index));
+    }
+
+    private long factorKey(int index, int sourceId, int targetId) {
+        long currencyCount = rateStore.currencyCount();
+        return (index * currencyCount + sourceId) * currencyCount + targetId;
+    }
+}
@@ -0,0 +1,68 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+import java.time.LocalDate;
+
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+/**
+ * How a requested date is resolved to a day with published rates.
+ *
+ * Rates are not published on weekends and TARGET holidays. Instead of having
+ * clients retry with earlier dates, such a date can be snapped to the nearest
+ * earlier published date with a single binary search.
+ */
+public enum DateFallback {
+    /**
+     * Only the requested date itself is used.
+     */
+    NONE,
+
+    /**
+     * The nearest published date on or before the requested date is used.
+     */
+    PREVIOUS;
+
+    /**
+     * Resolve the fallback of a request parameter.
+     *
+     * @param parameter "none" or "previous", ignoring case
+     * @return fallback or null if the parameter is not supported
+     */
+    public static DateFallback fromParameter(String parameter) {
+        for (DateFallback fallback : values()) {
+            if (fallback.name().equalsIgnoreCase(parameter)) {
+                return fallback;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the day to use for a date.
+     *
+     * @param store store to search
+     * @param date  requested date
+     * @return index of the day or -1 if there is none
+     */
+    int dayIndex(RateStore store, LocalDate date) {
+        return this == PREVIOUS ? store.floorIndex(date) : store.indexOf(date);
+    }
+
+    /**
+     * Find the first day of a date range starting at a date.
+     *
+     * @param store     store to search
+     * @param startDate requested start date
+     * @return index of the first day, which is after the last day if there is
+     *         none
+     */
+    int startIndex(RateStore store, LocalDate startDate) {
+        if (this == PREVIOUS) {
+            int index = store.floorIndex(startDate);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return store.ceilingIndex(startDate);
+    }
+}
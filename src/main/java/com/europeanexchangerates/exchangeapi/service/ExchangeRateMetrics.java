@@ -0,0 +1,46 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the size and age of the snapshot that is being served as gauges.
+ *
+ * The gauges read the current snapshot whenever they are scraped, so they
+ * follow refreshes without having to be updated.
+ */
+@Component
+public class ExchangeRateMetrics implements MeterBinder {
+    private final ExchangeRateService service;
+
+    @Autowired
+    public ExchangeRateMetrics(ExchangeRateService service) {
+        this.service = service;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("exchangeapi.snapshot.days", service, s -> s.getSnapshotStatus().getDayCount())
+                .description("Number of days with published rates in the snapshot")
+                .register(registry);
+        Gauge.builder("exchangeapi.snapshot.currencies", service, s -> s.getSnapshotStatus().getCurrencyCount())
+                .description("Number of currencies in the snapshot")
+                .register(registry);
+        Gauge.builder("exchangeapi.snapshot.memory", service, ExchangeRateService::getSnapshotMemoryBytes)
+                .description("Estimated heap used by the rates, indexes and cross rates of the snapshot")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("exchangeapi.snapshot.age", service,
+                s -> Duration.between(s.getSnapshotStatus().getLoadedAt(), Instant.now()).toMillis() / 1000.0)
+                .description("Time since the snapshot was loaded")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
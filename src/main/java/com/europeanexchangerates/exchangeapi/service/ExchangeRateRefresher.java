@@ -0,0 +1,86 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically reloads the exchange rates in the background.
+ *
+ * The refresh runs on the scheduler thread so requests keep being served from
+ * the current snapshot while the new one is built. In incremental mode only the
+ * newly published rates are fetched, with a full reload every few refreshes to
+ * pick up any corrections to older data. If the data was loaded from the local
+ * snapshot file on start-up then a refresh is also run right away.
+ */
+@Component
+@ConditionalOnProperty(name = "exchangeapi.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class ExchangeRateRefresher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExchangeRateRefresher.class);
+
+    private final ExchangeRateService service;
+    private final TaskScheduler taskScheduler;
+    private final boolean incremental;
+    private final int fullReloadEvery;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock.
+    private int refreshesSinceFullReload;
+
+    @Autowired
+    public ExchangeRateRefresher(ExchangeRateService service, TaskScheduler taskScheduler,
+            @Value("${exchangeapi.refresh.incremental:true}") boolean incremental,
+            @Value("${exchangeapi.refresh.full-reload-every:24}") int fullReloadEvery) {
+        this.service = service;
+        this.taskScheduler = taskScheduler;
+        this.incremental = incremental;
+        this.fullReloadEvery = fullReloadEvery;
+    }
+
+    /**
+     * Bring the data up to date right after start-up if it was loaded from the
+     * local snapshot file instead of waiting for the first scheduled refresh.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshSnapshotFile() {
+        if (service.isServingSnapshotFile()) {
+            taskScheduler.schedule(this::refresh, Instant.now());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${exchangeapi.refresh.interval-ms:3600000}",
+            fixedDelayString = "${exchangeapi.refresh.interval-ms:3600000}")
+    public void refresh() {
+        lock.lock();
+        Instant startedAt = Instant.now();
+        try {
+            refreshesSinceFullReload++;
+            if (incremental && refreshesSinceFullReload < fullReloadEvery) {
+                service.refreshIncrementally();
+            } else {
+                service.refresh();
+                refreshesSinceFullReload = 0;
+            }
+            LOGGER.info("Exchange rates refreshed to snapshot version {} in {} ms.",
+                    service.getSnapshotStatus().getVersion(),
+                    Duration.between(startedAt, Instant.now()).toMillis());
+        } catch (Exception e) {
+            // Keep serving the previous snapshot. The next scheduled run will
+            // try again.
+            LOGGER.warn("Refreshing the exchange rates failed after {} ms. Serving the previous snapshot.",
+                    Duration.between(startedAt, Instant.now()).toMillis(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -2,37 +2,296 @@ package com.europeanexchangerates.exchangeapi.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.OptionalDouble;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
 
+import io.micrometer.core.instrument.Metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.europeanexchangerates.exchangeapi.dto.CurrencyAverageRate;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyConversion;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyHighestRate;
+import com.europeanexchangerates.exchangeapi.dto.CurrencyLowestRate;
 import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.dto.RateSummary;
+import com.europeanexchangerates.exchangeapi.dto.SnapshotStatus;
 import com.europeanexchangerates.exchangeapi.exception.InvalidDateRangeException;
+import com.europeanexchangerates.exchangeapi.exception.UnknownCurrencyException;
+import com.europeanexchangerates.exchangeapi.provider.ConflictPolicy;
 import com.europeanexchangerates.exchangeapi.provider.ExchangeRateProvider;
+import com.europeanexchangerates.exchangeapi.provider.FederatedExchangeRateProvider;
 import com.europeanexchangerates.exchangeapi.provider.UrlCsvZipExchangeRateProvider;
+import com.europeanexchangerates.exchangeapi.store.ColumnarRateStore;
+import com.europeanexchangerates.exchangeapi.store.CrossRateMatrix;
+import com.europeanexchangerates.exchangeapi.store.CurrencyDictionary;
+import com.europeanexchangerates.exchangeapi.store.FixedPoint;
+import com.europeanexchangerates.exchangeapi.store.RateSnapshot;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+import com.europeanexchangerates.exchangeapi.store.RateStoreFile;
+import com.europeanexchangerates.exchangeapi.store.RateStoreSlice;
 
 @Service
 public class ExchangeRateService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExchangeRateService.class);
+    // Decimal places of converted amounts and average rates.
+    private static final int RESULT_SCALE = 2;
+    // Currency the source rates are quoted against.
+    private static final String EURO = "EUR";
+    // Summaries of at least this many days times currencies are computed in
+    // parallel across the currencies. Smaller ones take less time than
+    // handing them to other threads.
+    private static final long PARALLEL_SUMMARY_RATES = 1 << 16;
+
+    private final ExchangeRateProvider provider;
+
+    // The exchange rates and their indexes are published as an immutable
+    // snapshot. A refresh builds a new snapshot off the request path and
+    // swaps it in so readers never lock and never see a half-built one. The
+    // data is currently only loaded into memory but can be easily replaced
+    // with a database or any other data store.
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>();
+
+    // Local copy of the latest data so that a restart does not have to wait
+    // for the download. It is null if persisting is disabled.
+    private final RateStoreFile snapshotFile;
+
+    // Cross rates to precompute for every snapshot or null.
+    private final CrossRateMatrix.Settings crossRateSettings;
 
-    // A TreeMap is used to store the exchange rates in chronological order.
-    // The data is currently only loaded into memory but can be easily
-    // replaced with a database or any other data store.
-    private TreeMap<LocalDate, ExchangeRate> exchangeRates;
+    // Serializes the refreshes. A lock rather than synchronized so that a
+    // refresh running on a virtual thread does not pin its carrier thread
+    // while downloading.
+    private final ReentrantLock refreshLock = new ReentrantLock();
 
-    public ExchangeRateService() throws Exception {
-        ExchangeRateProvider provider = new UrlCsvZipExchangeRateProvider();
-        this.exchangeRates = provider.getExchangeRates();
+    // Whether the data being served was loaded from the local snapshot file
+    // and has not been checked against the provider yet.
+    private volatile boolean servingSnapshotFile;
+
+    @Autowired
+    public ExchangeRateService(@Value("${exchangeapi.snapshot.path:}") String snapshotPath,
+            @Value("${exchangeapi.cross-rates.enabled:false}") boolean crossRatesEnabled,
+            @Value("${exchangeapi.cross-rates.window-days:30}") int crossRateWindowDays,
+            @Value("${exchangeapi.cross-rates.hot-pairs:}") List<String> crossRateHotPairs,
+            @Value("${exchangeapi.sources.urls:" + UrlCsvZipExchangeRateProvider.ECB_URL + "}") List<String> sourceUrls,
+            @Value("${exchangeapi.sources.timeout-ms:60000}") List<Long> sourceTimeoutsMillis,
+            @Value("${exchangeapi.sources.conflict-policy:first-completed}") String conflictPolicy) throws Exception {
+        this(FederatedExchangeRateProvider.ofUrls(sourceUrls, sourceTimeoutsMillis, conflictPolicy(conflictPolicy)),
+                snapshotPath.isBlank() ? null : new RateStoreFile(Path.of(snapshotPath)),
+                crossRatesEnabled ? new CrossRateMatrix.Settings(crossRateWindowDays, crossRateHotPairs) : null);
+    }
+
+    private static ConflictPolicy conflictPolicy(String parameter) {
+        ConflictPolicy policy = ConflictPolicy.fromParameter(parameter);
+        if (policy == null) {
+            throw new IllegalArgumentException("Unsupported conflict policy " + parameter + ".");
+        }
+        return policy;
     }
 
     public ExchangeRateService(ExchangeRateProvider provider) throws Exception {
-        this.exchangeRates = provider.getExchangeRates();
+        this(provider, null);
+    }
+
+    /**
+     * Load the exchange rates from the snapshot file if there is a valid one
+     * or else from the provider.
+     * 
+     * @param provider     provider of the exchange rates
+     * @param snapshotFile file to load the exchange rates from on start-up and
+     *                     to save them to after each refresh, may be null
+     */
+    public ExchangeRateService(ExchangeRateProvider provider, RateStoreFile snapshotFile) throws Exception {
+        this(provider, snapshotFile, null);
+    }
+
+    /**
+     * Load the exchange rates from the snapshot file if there is a valid one
+     * or else from the provider.
+     * 
+     * @param provider          provider of the exchange rates
+     * @param snapshotFile      file to load the exchange rates from on
+     *                          start-up and to save them to after each
+     *                          refresh, may be null
+     * @param crossRateSettings cross rates to precompute for faster
+     *                          conversions, may be null
+     */
+    public ExchangeRateService(ExchangeRateProvider provider, RateStoreFile snapshotFile,
+            CrossRateMatrix.Settings crossRateSettings) throws Exception {
+        this.provider = provider;
+        this.snapshotFile = snapshotFile;
+        this.crossRateSettings = crossRateSettings;
+        if (!loadSnapshotFile()) {
+            refresh();
+        }
+    }
+
+    private RateSnapshot buildSnapshot(long version, RateStore store, Instant startedAt) {
+        long indexStartedAt = System.nanoTime();
+        RateSnapshot built = RateSnapshot.build(version, store, startedAt, crossRateSettings);
+        Metrics.timer("exchangeapi.load", "stage", "index")
+                .record(System.nanoTime() - indexStartedAt, TimeUnit.NANOSECONDS);
+        if (built.getCrossRateMatrix() != null) {
+            LOGGER.info("Precomputed cross rates of snapshot version {} use {} bytes.", version,
+                    built.getCrossRateMatrix().memoryBytes());
+        }
+        return built;
+    }
+
+    private boolean loadSnapshotFile() {
+        if (snapshotFile == null || !snapshotFile.exists()) {
+            return false;
+        }
+        Instant startedAt = Instant.now();
+        try {
+            RateStore store = snapshotFile.read();
+            snapshot.set(buildSnapshot(1, store, startedAt));
+            servingSnapshotFile = true;
+            LOGGER.info("Loaded {} days of exchange rates from {} in {} ms.", store.size(),
+                    snapshotFile.getPath(), Duration.between(startedAt, Instant.now()).toMillis());
+            return true;
+        } catch (Exception e) {
+            LOGGER.warn("Ignoring the exchange rate snapshot file {}.", snapshotFile.getPath(), e);
+            return false;
+        }
+    }
+
+    private void saveSnapshotFile(RateStore store) {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            snapshotFile.write(store);
+        } catch (Exception e) {
+            // The data is still served from memory, only the next start-up
+            // has to download it again.
+            LOGGER.warn("Saving the exchange rate snapshot file {} failed.", snapshotFile.getPath(), e);
+        }
+    }
+
+    /**
+     * Whether the data being served was loaded from the local snapshot file
+     * and has not been refreshed from the provider since.
+     * 
+     * @return true if the served data may be outdated
+     */
+    public boolean isServingSnapshotFile() {
+        return servingSnapshotFile;
+    }
+
+    /**
+     * Reload the exchange rates from the provider and publish them as a new
+     * snapshot. The new data is also saved to the snapshot file if one is
+     * configured.
+     * 
+     * Concurrent refreshes are serialized. Readers keep using the previous
+     * snapshot until the new one is complete. If loading fails then the
+     * previous snapshot stays in place.
+     */
+    public void refresh() throws Exception {
+        refreshLock.lock();
+        try {
+            Instant startedAt = Instant.now();
+            RateStore store = provider.getRateStore();
+            RateSnapshot current = snapshot.get();
+            long version = current == null ? 1 : current.getVersion() + 1;
+            snapshot.set(buildSnapshot(version, store, startedAt));
+            servingSnapshotFile = false;
+            saveSnapshotFile(store);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Load only the exchange rates published after the latest loaded date and
+     * publish them merged with the current data as a new snapshot.
+     * 
+     * No new snapshot is published if there are no new rates. A full refresh
+     * is done if nothing has been loaded yet.
+     * 
+     * @return true if a new snapshot was published
+     */
+    public boolean refreshIncrementally() throws Exception {
+        refreshLock.lock();
+        try {
+            RateSnapshot current = snapshot.get();
+            if (current == null || current.getStore().size() == 0) {
+                refresh();
+                return true;
+            }
+            Instant startedAt = Instant.now();
+            RateStore currentStore = current.getStore();
+            TreeMap<LocalDate, ExchangeRate> newRates = provider
+                    .getExchangeRatesSince(currentStore.date(currentStore.size() - 1));
+            servingSnapshotFile = false;
+            if (newRates.isEmpty()) {
+                return false;
+            }
+            RateStore store = ColumnarRateStore.merge(currentStore, newRates);
+            snapshot.set(buildSnapshot(current.getVersion() + 1, store, startedAt));
+            saveSnapshotFile(store);
+            return true;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Get the version of the snapshot that is currently being served. The
+     * version changes whenever new data is published.
+     * 
+     * @return snapshot version
+     */
+    public long getSnapshotVersion() {
+        return snapshot.get().getVersion();
+    }
+
+    /**
+     * Describe the snapshot that is currently being served.
+     * 
+     * @return snapshot status
+     */
+    public SnapshotStatus getSnapshotStatus() {
+        RateSnapshot current = snapshot.get();
+        RateStore rateStore = current.getStore();
+        boolean empty = rateStore.size() == 0;
+        return new SnapshotStatus(
+                current.getVersion(),
+                current.getLoadedAt(),
+                current.getLoadDuration().toMillis(),
+                rateStore.size(),
+                rateStore.currencyCount(),
+                empty ? null : rateStore.date(0),
+                empty ? null : rateStore.date(rateStore.size() - 1),
+                current.getCrossRateMatrix() == null ? 0 : current.getCrossRateMatrix().memoryBytes(),
+                current.getChecksum());
+    }
+
+    /**
+     * Estimate the heap used by the snapshot that is currently being served.
+     * 
+     * @return estimated number of bytes
+     */
+    public long getSnapshotMemoryBytes() {
+        return snapshot.get().memoryBytes();
     }
 
     /**
@@ -43,13 +302,65 @@ public class ExchangeRateService {
      * @return exchange rates
      */
     public Optional<ExchangeRate> getRatesForDate(LocalDate date) {
-        return Optional.ofNullable(exchangeRates.get(date));
+        return getRatesForDate(date, DateFallback.NONE);
+    }
+
+    /**
+     * Get all the exchange rates for a given date or, depending on the
+     * fallback, for the nearest earlier date with published rates.
+     * 
+     * @param date     date to get exchange rates for
+     * @param fallback how to resolve a date without published rates
+     * 
+     * @return exchange rates of the resolved date
+     */
+    public Optional<ExchangeRate> getRatesForDate(LocalDate date, DateFallback fallback) {
+        return getRatesForDate(date, fallback, null);
+    }
+
+    /**
+     * Get all the exchange rates for a given date quoted against a base
+     * currency.
+     * 
+     * @param date     date to get exchange rates for
+     * @param fallback how to resolve a date without published rates
+     * @param base     currency to quote the rates against, null for the euro
+     * 
+     * @return exchange rates of the resolved date
+     * @throws UnknownCurrencyException if the base is unknown
+     */
+    public Optional<ExchangeRate> getRatesForDate(LocalDate date, DateFallback fallback, String base) {
+        RateSnapshot current = snapshot(base);
+        RateStore rateStore = current.getStore();
+        int index = fallback.dayIndex(rateStore, date);
+        if (index < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new ExchangeRate(rateStore.date(index), baseCode(current, base),
+                rateStore.rates(index)));
+    }
+
+    /**
+     * Resolve a date to the date with published rates that would be used for
+     * it.
+     * 
+     * @param date     requested date
+     * @param fallback how to resolve a date without published rates
+     * 
+     * @return resolved date, empty if there are no rates to use for the date
+     */
+    public Optional<LocalDate> resolveDate(LocalDate date, DateFallback fallback) {
+        RateStore rateStore = snapshot.get().getStore();
+        int index = fallback.dayIndex(rateStore, date);
+        return index < 0 ? Optional.empty() : Optional.of(rateStore.date(index));
     }
 
     /**
      * Convert the amount from source to target currency.
      * 
-     * The results are rounded using the RoundingMode.HALF_UP policy.
+     * The results are rounded using the RoundingMode.HALF_UP policy. If the
+     * cross rate of the date and currencies is precomputed then the division
+     * is avoided whenever that gives the same result.
      * 
      * @param date   date to get exchange rates for
      * @param source source currency code
@@ -60,22 +371,237 @@ public class ExchangeRateService {
      */
     public Optional<CurrencyConversion> convertCurrency(LocalDate date, String source,
             String target, BigDecimal amount) {
-        Optional<ExchangeRate> exchangeRateForDate = Optional.ofNullable(exchangeRates.get(date));
-        return exchangeRateForDate.flatMap(exchangeRate -> {
-            Optional<BigDecimal> optionalSourceRate = Optional.ofNullable(exchangeRate.getRates().get(source));
-            Optional<BigDecimal> optionalTargetRate = Optional.ofNullable(exchangeRate.getRates().get(target));
-
-            if (optionalSourceRate.isPresent() && optionalTargetRate.isPresent()) {
-                BigDecimal sourceRate = optionalSourceRate.get();
-                BigDecimal targetRate = optionalTargetRate.get();
-                BigDecimal convertedValue = amount.multiply(targetRate)
-                        .divide(sourceRate, 2, RoundingMode.HALF_UP);
-                return Optional.of(
-                        new CurrencyConversion(source, target, amount, date, convertedValue));
-            } else {
-                return Optional.empty();
+        return convertCurrency(date, source, target, amount, DateFallback.NONE);
+    }
+
+    /**
+     * Convert the amount from source to target currency using the rates of a
+     * given date or, depending on the fallback, of the nearest earlier date
+     * with published rates.
+     * 
+     * @param date     date to get exchange rates for
+     * @param source   source currency code
+     * @param target   target currency code
+     * @param amount   amount to convert
+     * @param fallback how to resolve a date without published rates
+     * 
+     * @return converted amount with the resolved date as conversion date
+     */
+    public Optional<CurrencyConversion> convertCurrency(LocalDate date, String source,
+            String target, BigDecimal amount, DateFallback fallback) {
+        RateSnapshot current = snapshot.get();
+        RateStore rateStore = current.getStore();
+        int sourceId = currencyId(rateStore, source);
+        int targetId = currencyId(rateStore, target);
+        int index = fallback.dayIndex(rateStore, date);
+        if (index < 0 || !rateStore.hasRate(sourceId, index) || !rateStore.hasRate(targetId, index)) {
+            return Optional.empty();
+        }
+        BigDecimal convertedValue = convert(current.getCrossRateMatrix(), amount, index, sourceId, targetId);
+        if (convertedValue == null) {
+            convertedValue = convert(amount, rateStore.rate(sourceId, index), rateStore.rate(targetId, index));
+        }
+        return Optional.of(
+                new CurrencyConversion(rateStore.currencyCode(sourceId), rateStore.currencyCode(targetId), amount,
+                        rateStore.date(index), convertedValue));
+    }
+
+    /**
+     * Create a converter for converting many amounts against the current
+     * snapshot.
+     * 
+     * @return new converter
+     */
+    public BatchCurrencyConverter newBatchConverter() {
+        RateSnapshot current = snapshot.get();
+        return new BatchCurrencyConverter(current.getStore(), current.getCrossRateMatrix());
+    }
+
+    static BigDecimal convert(BigDecimal amount, BigDecimal sourceRate, BigDecimal targetRate) {
+        return amount.multiply(targetRate).divide(sourceRate, RESULT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Convert with fixed-point rates.
+     * 
+     * The amount is only turned into a long and back. The computation falls
+     * back to {@link BigDecimal}s if the amount or the result do not fit in a
+     * long, so the result is always the same as dividing exactly.
+     * 
+     * @param sourceRate rate of the source currency scaled by
+     *                   {@link RateStore#RATE_SCALE}
+     * @param targetRate rate of the target currency scaled by
+     *                   {@link RateStore#RATE_SCALE}
+     */
+    static BigDecimal convert(BigDecimal amount, long sourceRate, long targetRate) {
+        // Both rates have the same scale, so the result has the scale of the
+        // amount and is rescaled by multiplying the amount or the divisor.
+        int shift = RESULT_SCALE - amount.scale();
+        if (amount.precision() <= 18 && Math.abs(shift) <= 18) {
+            long unscaledAmount = amount.unscaledValue().longValue();
+            try {
+                long converted = shift >= 0
+                        ? FixedPoint.multiplyDivide(
+                                Math.multiplyExact(unscaledAmount, FixedPoint.powerOfTen(shift)), targetRate, sourceRate)
+                        : FixedPoint.multiplyDivide(
+                                unscaledAmount, targetRate, Math.multiplyExact(sourceRate, FixedPoint.powerOfTen(-shift)));
+                return BigDecimal.valueOf(converted, RESULT_SCALE);
+            } catch (ArithmeticException e) {
+                // Too large for longs.
             }
-        });
+        }
+        return convert(amount, BigDecimal.valueOf(sourceRate, RateStore.RATE_SCALE),
+                BigDecimal.valueOf(targetRate, RateStore.RATE_SCALE));
+    }
+
+    /**
+     * Convert with the precomputed cross rate.
+     * 
+     * @return converted amount or null if it has to be computed by dividing
+     */
+    static BigDecimal convert(CrossRateMatrix crossRateMatrix, BigDecimal amount, int index,
+            int sourceId, int targetId) {
+        return crossRateMatrix == null ? null : crossRateMatrix.convert(amount, index, sourceId, targetId);
+    }
+
+    /**
+     * Get the rates of the currencies on every day in the date range.
+     * 
+     * @param startDate  start date of the date range
+     * @param endDate    end date of the date range
+     * @param currencies currency codes to get the rates for
+     * @return time series, empty if there are no days in the date range
+     * @throws UnknownCurrencyException if a currency is unknown
+     */
+    public Optional<TimeSeries> getTimeSeries(LocalDate startDate, LocalDate endDate,
+            List<String> currencies) {
+        return getTimeSeries(startDate, endDate, currencies, null);
+    }
+
+    /**
+     * Get the rates of the currencies quoted against a base currency on every
+     * day in the date range.
+     * 
+     * @param startDate  start date of the date range
+     * @param endDate    end date of the date range
+     * @param currencies currency codes to get the rates for
+     * @param base       currency to quote the rates against, null for the
+     *                   euro
+     * @return time series, empty if there are no days in the date range
+     * @throws UnknownCurrencyException if a currency or the base is unknown
+     */
+    public Optional<TimeSeries> getTimeSeries(LocalDate startDate, LocalDate endDate,
+            List<String> currencies, String base) {
+        if (endDate.isBefore(startDate)) {
+            throw new InvalidDateRangeException("End date cannot be before start date.");
+        }
+        RateStore rateStore = snapshot(base).getStore();
+        int[] currencyIds = new int[currencies.size()];
+        List<String> currencyCodes = new ArrayList<>(currencyIds.length);
+        for (int i = 0; i < currencyIds.length; i++) {
+            currencyIds[i] = currencyId(rateStore, currencies.get(i));
+            currencyCodes.add(rateStore.currencyCode(currencyIds[i]));
+        }
+        int fromIndex = rateStore.ceilingIndex(startDate);
+        int toIndex = rateStore.floorIndex(endDate);
+        if (currencyIds.length == 0 || fromIndex > toIndex) {
+            return Optional.empty();
+        }
+        return Optional.of(new TimeSeries(rateStore, fromIndex, toIndex, currencyCodes, currencyIds));
+    }
+
+    /**
+     * Get the rates of the currencies in the date range for exporting them
+     * in bulk.
+     * 
+     * The result is a view on the current snapshot, so it can be streamed
+     * without copying the rates.
+     * 
+     * @param startDate  start date of the date range, null to start with the
+     *                   first day
+     * @param endDate    end date of the date range, null to end with the last
+     *                   day
+     * @param currencies currency codes to export, null or empty for all the
+     *                   currencies
+     * @param base       currency to quote the rates against, null for the
+     *                   euro
+     * @return rates, empty if there are no days in the date range
+     * @throws UnknownCurrencyException if a currency or the base is unknown
+     */
+    public Optional<RateStore> exportRates(LocalDate startDate, LocalDate endDate, List<String> currencies,
+            String base) {
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new InvalidDateRangeException("End date cannot be before start date.");
+        }
+        RateStore rateStore = snapshot(base).getStore();
+        int[] currencyIds;
+        if (currencies == null || currencies.isEmpty()) {
+            currencyIds = new int[rateStore.currencyCount()];
+            for (int currencyId = 0; currencyId < currencyIds.length; currencyId++) {
+                currencyIds[currencyId] = currencyId;
+            }
+        } else {
+            // A currency that is asked for twice is exported once.
+            currencyIds = currencies.stream().mapToInt(currency -> currencyId(rateStore, currency))
+                    .distinct().toArray();
+        }
+        int fromIndex = startDate == null ? 0 : rateStore.ceilingIndex(startDate);
+        int toIndex = endDate == null ? rateStore.size() - 1 : rateStore.floorIndex(endDate);
+        if (fromIndex > toIndex) {
+            return Optional.empty();
+        }
+        return Optional.of(RateStoreSlice.of(rateStore, fromIndex, toIndex, currencyIds));
+    }
+
+    /**
+     * Get a statistic of the rates of the currency over a sliding window of
+     * published days for every day in the date range.
+     * 
+     * @param startDate start date of the date range
+     * @param endDate   end date of the date range
+     * @param currency  currency code to get the statistic for
+     * @param window    number of published days in each window
+     * @param statistic statistic to compute over each window
+     * @return rolling series, empty if there are no days in the date range
+     * @throws UnknownCurrencyException if the currency is unknown
+     */
+    public Optional<RollingSeries> getRollingSeries(LocalDate startDate, LocalDate endDate, String currency,
+            int window, RollingStatistic statistic) {
+        return getRollingSeries(startDate, endDate, currency, window, statistic, null);
+    }
+
+    /**
+     * Get a statistic of the rates of the currency quoted against a base
+     * currency over a sliding window of published days for every day in the
+     * date range.
+     * 
+     * @param startDate start date of the date range
+     * @param endDate   end date of the date range
+     * @param currency  currency code to get the statistic for
+     * @param window    number of published days in each window
+     * @param statistic statistic to compute over each window
+     * @param base      currency to quote the rates against, null for the euro
+     * @return rolling series, empty if there are no days in the date range
+     * @throws UnknownCurrencyException if the currency or the base is unknown
+     */
+    public Optional<RollingSeries> getRollingSeries(LocalDate startDate, LocalDate endDate, String currency,
+            int window, RollingStatistic statistic, String base) {
+        if (endDate.isBefore(startDate)) {
+            throw new InvalidDateRangeException("End date cannot be before start date.");
+        }
+        if (window < 1) {
+            throw new IllegalArgumentException("The window must contain at least one day.");
+        }
+        RateSnapshot current = snapshot(base);
+        RateStore rateStore = current.getStore();
+        int currencyId = currencyId(rateStore, currency);
+        int fromIndex = rateStore.ceilingIndex(startDate);
+        int toIndex = rateStore.floorIndex(endDate);
+        if (fromIndex > toIndex) {
+            return Optional.empty();
+        }
+        return Optional.of(new RollingSeries(rateStore, rateStore.currencyCode(currencyId), currencyId, fromIndex, toIndex, window,
+                statistic, averageScale(current)));
     }
 
     /**
@@ -88,22 +614,132 @@ public class ExchangeRateService {
      */
     public Optional<CurrencyHighestRate> getHighestRate(LocalDate startDate,
             LocalDate endDate, String currency) {
+        return getHighestRate(startDate, endDate, currency, DateFallback.NONE);
+    }
+
+    /**
+     * Get the highest rate for the currency in the date range whose dates are
+     * resolved using the fallback.
+     * 
+     * @param startDate start date of the date range
+     * @param endDate   end date of the date range
+     * @param currency  currency code to get the highest rate for
+     * @param fallback  how to resolve dates without published rates
+     * @return highest rate, reporting the resolved date range if there is a
+     *         fallback
+     */
+    public Optional<CurrencyHighestRate> getHighestRate(LocalDate startDate,
+            LocalDate endDate, String currency, DateFallback fallback) {
+        return getHighestRate(startDate, endDate, currency, fallback, null);
+    }
+
+    /**
+     * Get the highest rate for the currency quoted against a base currency in
+     * the date range whose dates are resolved using the fallback.
+     * 
+     * @param startDate start date of the date range
+     * @param endDate   end date of the date range
+     * @param currency  currency code to get the highest rate for
+     * @param fallback  how to resolve dates without published rates
+     * @param base      currency to quote the rates against, null for the euro
+     * @return highest rate, reporting the resolved date range if there is a
+     *         fallback
+     * @throws UnknownCurrencyException if the currency or the base is unknown
+     */
+    public Optional<CurrencyHighestRate> getHighestRate(LocalDate startDate,
+            LocalDate endDate, String currency, DateFallback fallback, String base) {
+        if (endDate.isBefore(startDate)) {
+            throw new InvalidDateRangeException("End date cannot be before start date.");
+        }
+        RateSnapshot current = snapshot(base);
+        RateStore rateStore = current.getStore();
+        int currencyId = currencyId(rateStore, currency);
+        int fromIndex = fallback.startIndex(rateStore, startDate);
+        int toIndex = rateStore.floorIndex(endDate);
+        if (fromIndex > toIndex) {
+            return Optional.empty();
+        }
+
+        int highestIndex = current.getRangeExtremaIndex().highestIndex(currencyId, fromIndex, toIndex);
+        return highestIndex < 0
+                ? Optional.empty()
+                : Optional.of(new CurrencyHighestRate(rateStore.currencyCode(currencyId),
+                        resolvedDate(rateStore, startDate, fromIndex, fallback),
+                        resolvedDate(rateStore, endDate, toIndex, fallback),
+                        rateStore.rateAsBigDecimal(currencyId, highestIndex)));
+    }
+
+    /**
+     * Get the lowest rate for the currency in the date range.
+     * 
+     * @param startDate start date of the date range
+     * @param endDate   end date of the date range
+     * @param currency  currency code to get the lowest rate for
+     * @return lowest rate
+     */
+    public Optional<CurrencyLowestRate> getLowestRate(LocalDate startDate,
+            LocalDate endDate, String currency) {
+        return getLowestRate(startDate, endDate, currency, DateFallback.NONE);
+    }
+
+    /**
+     * Get the lowest rate for the currency in the date range whose dates are
+     * resolved using the fallback.
+     * 
+     * @param startDate start date of the date range
+     * @param endDate   end date of the date range
+     * @param currency  currency code to get the lowest rate for
+     * @param fallback  how to resolve dates without published rates
+     * @return lowest rate, reporting the resolved date range if there is a
+     *         fallback
+     */
+    public Optional<CurrencyLowestRate> getLowestRate(LocalDate startDate,
+            LocalDate endDate, String currency, DateFallback fallback) {
+        return getLowestRate(startDate, endDate, currency, fallback, null);
+    }
+
+    /**
+     * Get the lowest rate for the currency quoted against a base currency in
+     * the date range whose dates are resolved using the fallback.
+     * 
+     * @param startDate start date of the date range
+     * @param endDate   end date of the date range
+     * @param currency  currency code to get the lowest rate for
+     * @param fallback  how to resolve dates without published rates
+     * @param base      currency to quote the rates against, null for the euro
+     * @return lowest rate, reporting the resolved date range if there is a
+     *         fallback
+     * @throws UnknownCurrencyException if the currency or the base is unknown
+     */
+    public Optional<CurrencyLowestRate> getLowestRate(LocalDate startDate,
+            LocalDate endDate, String currency, DateFallback fallback, String base) {
         if (endDate.isBefore(startDate)) {
             throw new InvalidDateRangeException("End date cannot be before start date.");
         }
-        Optional<BigDecimal> maxRate = exchangeRates
-                .subMap(startDate, true, endDate, true).values().stream()
-                .map(exchangeRate -> exchangeRate.getRates().get(currency))
-                .filter(Objects::nonNull)
-                .max(BigDecimal::compareTo);
+        RateSnapshot current = snapshot(base);
+        RateStore rateStore = current.getStore();
+        int currencyId = currencyId(rateStore, currency);
+        int fromIndex = fallback.startIndex(rateStore, startDate);
+        int toIndex = rateStore.floorIndex(endDate);
+        if (fromIndex > toIndex) {
+            return Optional.empty();
+        }
 
-        return maxRate.map(
-                highestRate -> new CurrencyHighestRate(currency, startDate, endDate, highestRate));
+        int lowestIndex = current.getRangeExtremaIndex().lowestIndex(currencyId, fromIndex, toIndex);
+        return lowestIndex < 0
+                ? Optional.empty()
+                : Optional.of(new CurrencyLowestRate(rateStore.currencyCode(currencyId),
+                        resolvedDate(rateStore, startDate, fromIndex, fallback),
+                        resolvedDate(rateStore, endDate, toIndex, fallback),
+                        rateStore.rateAsBigDecimal(currencyId, lowestIndex)));
     }
 
     /**
      * Get the average rate for the currency in the date range
      * 
+     * The average is computed exactly from precomputed prefix sums of the
+     * fixed-point rates and rounded using the RoundingMode.HALF_UP policy.
+     * 
      * @param startDate start date of the date range
      * @param endDate   end date of the date range
      * @param currency  currency code to get the highest rate for
@@ -111,20 +747,185 @@ public class ExchangeRateService {
      */
     public Optional<CurrencyAverageRate> getAverageRate(LocalDate startDate,
             LocalDate endDate, String currency) {
+        return getAverageRate(startDate, endDate, currency, DateFallback.NONE);
+    }
+
+    /**
+     * Get the average rate for the currency in the date range whose dates are
+     * resolved using the fallback.
+     * 
+     * @param startDate start date of the date range
+     * @param endDate   end date of the date range
+     * @param currency  currency code to get the average rate for
+     * @param fallback  how to resolve dates without published rates
+     * @return average rate, reporting the resolved date range if there is a
+     *         fallback
+     */
+    public Optional<CurrencyAverageRate> getAverageRate(LocalDate startDate,
+            LocalDate endDate, String currency, DateFallback fallback) {
+        return getAverageRate(startDate, endDate, currency, fallback, null);
+    }
+
+    /**
+     * Get the average rate for the currency quoted against a base currency in
+     * the date range whose dates are resolved using the fallback.
+     * 
+     * @param startDate start date of the date range
+     * @param endDate   end date of the date range
+     * @param currency  currency code to get the average rate for
+     * @param fallback  how to resolve dates without published rates
+     * @param base      currency to quote the rates against, null for the euro
+     * @return average rate, reporting the resolved date range if there is a
+     *         fallback
+     * @throws UnknownCurrencyException if the currency or the base is unknown
+     */
+    public Optional<CurrencyAverageRate> getAverageRate(LocalDate startDate,
+            LocalDate endDate, String currency, DateFallback fallback, String base) {
         if (endDate.isBefore(startDate)) {
             throw new InvalidDateRangeException("End date cannot be before start date.");
         }
+        RateSnapshot current = snapshot(base);
+        RateStore rateStore = current.getStore();
+        int currencyId = currencyId(rateStore, currency);
+        int fromIndex = fallback.startIndex(rateStore, startDate);
+        int toIndex = rateStore.floorIndex(endDate);
+        if (fromIndex > toIndex) {
+            return Optional.empty();
+        }
 
-        OptionalDouble average = exchangeRates
-                .subMap(startDate, true, endDate, true).values().stream()
-                .map(exchangeRate -> exchangeRate.getRates().get(currency))
-                .filter(Objects::nonNull)
-                .mapToDouble(BigDecimal::doubleValue)
-                .average();
+        int count = current.getRangeSumIndex().count(currencyId, fromIndex, toIndex);
+        if (count == 0) {
+            return Optional.empty();
+        }
+        long sum = current.getRangeSumIndex().sum(currencyId, fromIndex, toIndex);
+        int scale = averageScale(current);
+        long average = FixedPoint.multiplyDivide(sum, 1,
+                count * FixedPoint.powerOfTen(rateStore.rateScale() - scale));
+        return Optional.of(new CurrencyAverageRate(rateStore.currencyCode(currencyId),
+                resolvedDate(rateStore, startDate, fromIndex, fallback),
+                resolvedDate(rateStore, endDate, toIndex, fallback), BigDecimal.valueOf(average, scale)));
+    }
 
-        return average.isEmpty()
-                ? Optional.empty()
-                : Optional.of(new CurrencyAverageRate(currency, startDate, endDate,
-                        BigDecimal.valueOf(average.getAsDouble()).setScale(2, RoundingMode.HALF_UP)));
+    /**
+     * Get the statistics of the rates of the currencies quoted against a base
+     * currency in the date range whose dates are resolved using the fallback.
+     * 
+     * The statistics of each currency are computed in a single pass over the
+     * rates in the date range. Large summaries are computed in parallel
+     * across the currencies.
+     * 
+     * @param startDate  start date of the date range
+     * @param endDate    end date of the date range
+     * @param currencies currency codes to summarize, null or empty for all the
+     *                   currencies
+     * @param fallback   how to resolve dates without published rates
+     * @param base       currency to quote the rates against, null for the
+     *                   euro
+     * @return summary, reporting the resolved date range if there is a
+     *         fallback, empty if there are no days in the date range
+     * @throws UnknownCurrencyException if a currency or the base is unknown
+     */
+    public Optional<RateSummary> getSummary(LocalDate startDate, LocalDate endDate, List<String> currencies,
+            DateFallback fallback, String base) {
+        if (endDate.isBefore(startDate)) {
+            throw new InvalidDateRangeException("End date cannot be before start date.");
+        }
+        RateSnapshot current = snapshot(base);
+        RateStore rateStore = current.getStore();
+        int[] currencyIds;
+        if (currencies == null || currencies.isEmpty()) {
+            currencyIds = IntStream.range(0, rateStore.currencyCount()).toArray();
+        } else {
+            // A currency that is asked for twice is summarized once.
+            currencyIds = currencies.stream().mapToInt(currency -> currencyId(rateStore, currency))
+                    .distinct().toArray();
+        }
+        int fromIndex = fallback.startIndex(rateStore, startDate);
+        int toIndex = rateStore.floorIndex(endDate);
+        if (fromIndex > toIndex) {
+            return Optional.empty();
+        }
+
+        int meanScale = averageScale(current);
+        IntStream ids = Arrays.stream(currencyIds);
+        if ((long) currencyIds.length * (toIndex - fromIndex + 1) >= PARALLEL_SUMMARY_RATES) {
+            ids = ids.parallel();
+        }
+        RateSummary.Statistics[] statistics = ids
+                .mapToObj(currencyId -> RangeStatistics.compute(rateStore, currencyId, fromIndex, toIndex,
+                        meanScale))
+                .toArray(RateSummary.Statistics[]::new);
+        Map<String, RateSummary.Statistics> byCurrency = new LinkedHashMap<>();
+        for (int i = 0; i < currencyIds.length; i++) {
+            byCurrency.put(rateStore.currencyCode(currencyIds[i]), statistics[i]);
+        }
+        return Optional.of(new RateSummary(resolvedDate(rateStore, startDate, fromIndex, fallback),
+                resolvedDate(rateStore, endDate, toIndex, fallback), baseCode(current, base), byCurrency));
+    }
+
+    /**
+     * Resolve a base currency to the id it is cached under.
+     * 
+     * @param base currency the rates are quoted against, null for the euro
+     * @return id of the base in the current snapshot or -1 for the euro
+     * @throws UnknownCurrencyException if the base is unknown
+     */
+    public int resolveBase(String base) {
+        return isEuro(base) ? -1 : currencyId(snapshot.get().getStore(), base);
+    }
+
+    /**
+     * Get the current snapshot quoted against a base currency. The snapshot
+     * of a base other than the euro is built once per snapshot version and
+     * reused by the following queries.
+     * 
+     * @throws UnknownCurrencyException if the base is unknown
+     */
+    private RateSnapshot snapshot(String base) {
+        RateSnapshot current = snapshot.get();
+        return isEuro(base) ? current : current.rebased(currencyId(current.getStore(), base));
+    }
+
+    private static boolean isEuro(String base) {
+        return base == null || base.isBlank() || base.equalsIgnoreCase(EURO);
+    }
+
+    /**
+     * @return code of the base to report or null for the euro
+     */
+    private static String baseCode(RateSnapshot snapshot, String base) {
+        return snapshot.isRebased() ? CurrencyDictionary.normalize(base) : null;
+    }
+
+    /**
+     * Averages against the euro keep the two decimal places they always had.
+     * Averages against another base keep the precision of its rates, which
+     * can be small numbers like the rate of the yen against the dollar.
+     */
+    private static int averageScale(RateSnapshot snapshot) {
+        return snapshot.isRebased() ? snapshot.getStore().rateScale() : RESULT_SCALE;
+    }
+
+    /**
+     * Look up a currency before any days are looked at.
+     * 
+     * @return id of the currency
+     * @throws UnknownCurrencyException if the currency is not in the store
+     */
+    private static int currencyId(RateStore rateStore, String currency) {
+        int currencyId = rateStore.currencyId(currency);
+        if (currencyId < 0) {
+            throw new UnknownCurrencyException("Unknown currency " + currency + ".");
+        }
+        return currencyId;
+    }
+
+    /**
+     * Report the requested date as it is unless it was resolved with a
+     * fallback.
+     */
+    private static LocalDate resolvedDate(RateStore rateStore, LocalDate date, int index,
+            DateFallback fallback) {
+        return fallback == DateFallback.NONE ? date : rateStore.date(index);
     }
 }
@@ -0,0 +1,94 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+import java.math.BigDecimal;
+
+import com.europeanexchangerates.exchangeapi.dto.RateSummary;
+import com.europeanexchangerates.exchangeapi.store.FixedPoint;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+/**
+ * Computes the statistics of the rates of a currency over a range of days in
+ * a single pass.
+ *
+ * The pass keeps the count, the sum and the sum of squares of the fixed-point
+ * rates together with the extremes and the first and last rates. The sum of
+ * squares is kept in 128 bits, so the average and the standard deviation are
+ * exact before they are rounded, like those of {@link RollingSeries}.
+ */
+final class RangeStatistics {
+    // Decimal places of the change in percent.
+    private static final int CHANGE_SCALE = 4;
+
+    private RangeStatistics() {
+    }
+
+    /**
+     * @param rateStore  rates to summarize
+     * @param currencyId id of the currency
+     * @param fromIndex  index of the first day
+     * @param toIndex    index of the last day
+     * @param meanScale  decimal places of the average
+     * @return statistics, only the count if there are no rates and without
+     *         the change if the first rate is zero
+     */
+    static RateSummary.Statistics compute(RateStore rateStore, int currencyId, int fromIndex, int toIndex,
+            int meanScale) {
+        int count = 0;
+        long sum = 0;
+        long sumOfSquaresHigh = 0;
+        long sumOfSquaresLow = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int minIndex = -1;
+        int maxIndex = -1;
+        int firstIndex = -1;
+        int lastIndex = -1;
+
+        for (int index = fromIndex; index <= toIndex; index++) {
+            if (!rateStore.hasRate(currencyId, index)) {
+                continue;
+            }
+            long rate = rateStore.rate(currencyId, index);
+            long square = rate * rate;
+            count++;
+            sum += rate;
+            long low = sumOfSquaresLow + square;
+            sumOfSquaresHigh += Math.multiplyHigh(rate, rate)
+                    + (Long.compareUnsigned(low, sumOfSquaresLow) < 0 ? 1 : 0);
+            sumOfSquaresLow = low;
+            if (rate < min) {
+                min = rate;
+                minIndex = index;
+            }
+            if (rate > max) {
+                max = rate;
+                maxIndex = index;
+            }
+            if (firstIndex < 0) {
+                firstIndex = index;
+            }
+            lastIndex = index;
+        }
+
+        if (count == 0) {
+            return new RateSummary.Statistics(0, null, null, null, null, null, null, null, null, null);
+        }
+        long first = rateStore.rate(currencyId, firstIndex);
+        long last = rateStore.rate(currencyId, lastIndex);
+        long average = FixedPoint.multiplyDivide(sum, 1,
+                count * FixedPoint.powerOfTen(rateStore.rateScale() - meanScale));
+        // There is no change in percent from a rate of zero.
+        BigDecimal change = first == 0 ? null
+                : BigDecimal.valueOf(FixedPoint.multiplyDivide(last - first,
+                        100 * FixedPoint.powerOfTen(CHANGE_SCALE), first), CHANGE_SCALE);
+        return new RateSummary.Statistics(count,
+                rateStore.rateAsBigDecimal(currencyId, minIndex),
+                rateStore.rateAsBigDecimal(currencyId, maxIndex),
+                BigDecimal.valueOf(average, meanScale),
+                count < 2 ? null : RollingSeries.standardDeviation(count, sum, sumOfSquaresHigh, sumOfSquaresLow,
+                        rateStore.rateScale()),
+                rateStore.date(firstIndex), rateStore.rateAsBigDecimal(currencyId, firstIndex),
+                rateStore.date(lastIndex), rateStore.rateAsBigDecimal(currencyId, lastIndex),
+                change);
+    }
+}
@@ -0,0 +1,225 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+import com.europeanexchangerates.exchangeapi.store.FixedPoint;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+/**
+ * Statistic of the rates of a currency over a sliding window of published
+ * days, for every day of a date range.
+ *
+ * The window of a day is made up of the day itself and the published days
+ * before it, so the first windows reach back before the date range. The whole
+ * series is computed in a single pass in which every day enters and leaves
+ * the window once. The mean and the standard deviation are kept up to date
+ * with running sums of the fixed-point rates and the minimum and maximum with
+ * monotonic deques of the days in the window. Only the window is held in
+ * memory and every value is handed out as soon as it is computed, so the
+ * series can be streamed.
+ */
+public class RollingSeries {
+    private static final MathContext STDDEV_CONTEXT = MathContext.DECIMAL128;
+
+    /**
+     * Receives the values of a series in the order of the days.
+     */
+    @FunctionalInterface
+    public interface ValueConsumer {
+        /**
+         * @param date  date of the day
+         * @param value value of the statistic over the window ending on the
+         *              day, null if the window is not complete or has no rates
+         */
+        void accept(LocalDate date, BigDecimal value) throws IOException;
+    }
+
+    private final RateStore rateStore;
+    private final String currency;
+    private final int currencyId;
+    private final int fromIndex;
+    private final int toIndex;
+    private final int window;
+    private final RollingStatistic statistic;
+    // Decimal places of the means.
+    private final int meanScale;
+
+    RollingSeries(RateStore rateStore, String currency, int currencyId, int fromIndex, int toIndex, int window,
+            RollingStatistic statistic, int meanScale) {
+        this.rateStore = rateStore;
+        this.currency = currency;
+        this.currencyId = currencyId;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        this.window = window;
+        this.statistic = statistic;
+        this.meanScale = meanScale;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * @return number of published days in each window
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    public RollingStatistic getStatistic() {
+        return statistic;
+    }
+
+    /**
+     * @return number of days in the series
+     */
+    public int size() {
+        return toIndex - fromIndex + 1;
+    }
+
+    /**
+     * Compute the series and pass each value to the consumer.
+     *
+     * @param consumer consumer of the values
+     */
+    public void forEach(ValueConsumer consumer) throws IOException {
+        int startIndex = Math.max(0, fromIndex - window + 1);
+        // The deque never holds more days than the window or the scan.
+        IndexDeque deque = new IndexDeque(Math.min(window, toIndex - startIndex + 1));
+        int count = 0;
+        long sum = 0;
+        long sumOfSquaresHigh = 0;
+        long sumOfSquaresLow = 0;
+
+        for (int index = startIndex; index <= toIndex; index++) {
+            int leaving = index - window;
+            if (leaving >= startIndex && rateStore.hasRate(currencyId, leaving)) {
+                long rate = rateStore.rate(currencyId, leaving);
+                long square = rate * rate;
+                count--;
+                sum -= rate;
+                long low = sumOfSquaresLow - square;
+                sumOfSquaresHigh -= Math.multiplyHigh(rate, rate)
+                        + (Long.compareUnsigned(sumOfSquaresLow, square) < 0 ? 1 : 0);
+                sumOfSquaresLow = low;
+                deque.removeFirstIfEqual(leaving);
+            }
+            if (rateStore.hasRate(currencyId, index)) {
+                long rate = rateStore.rate(currencyId, index);
+                long square = rate * rate;
+                count++;
+                sum += rate;
+                long low = sumOfSquaresLow + square;
+                sumOfSquaresHigh += Math.multiplyHigh(rate, rate)
+                        + (Long.compareUnsigned(low, sumOfSquaresLow) < 0 ? 1 : 0);
+                sumOfSquaresLow = low;
+                if (statistic == RollingStatistic.MIN || statistic == RollingStatistic.MAX) {
+                    // Days that can no longer be the extreme of any window are
+                    // dropped, which keeps the deque ordered by rate.
+                    while (!deque.isEmpty() && !isBefore(rateStore.rate(currencyId, deque.last()), rate)) {
+                        deque.removeLast();
+                    }
+                    deque.addLast(index);
+                }
+            }
+            if (index < fromIndex) {
+                continue;
+            }
+            BigDecimal value = null;
+            if (index - window + 1 >= 0 && count > 0) {
+                switch (statistic) {
+                    case MEAN:
+                        value = BigDecimal.valueOf(FixedPoint.multiplyDivide(sum, 1,
+                                (long) count * FixedPoint.powerOfTen(rateStore.rateScale() - meanScale)),
+                                meanScale);
+                        break;
+                    case MIN:
+                    case MAX:
+                        value = rateStore.rateAsBigDecimal(currencyId, deque.first());
+                        break;
+                    case STDDEV:
+                        value = count < 2 ? null
+                                : standardDeviation(count, sum, sumOfSquaresHigh, sumOfSquaresLow,
+                                        rateStore.rateScale());
+                        break;
+                }
+            }
+            consumer.accept(rateStore.date(index), value);
+        }
+    }
+
+    /**
+     * Whether a rate comes strictly before another one in the order of the
+     * deque, i.e. it is lower for the minimum and higher for the maximum.
+     */
+    private boolean isBefore(long rate, long other) {
+        return statistic == RollingStatistic.MIN ? rate < other : rate > other;
+    }
+
+    /**
+     * Compute the sample standard deviation exactly from the running sums and
+     * round it to the scale of the rates.
+     *
+     * @param scale scale of the fixed-point rates the sums are made of
+     */
+    static BigDecimal standardDeviation(int count, long sum, long sumOfSquaresHigh,
+            long sumOfSquaresLow, int scale) {
+        BigInteger sumOfSquares = BigInteger.valueOf(sumOfSquaresHigh).shiftLeft(Long.SIZE)
+                .add(new BigInteger(Long.toUnsignedString(sumOfSquaresLow)));
+        // n * sum(x^2) - sum(x)^2 = n * (n - 1) * variance
+        BigInteger scaledVariance = sumOfSquares.multiply(BigInteger.valueOf(count))
+                .subtract(BigInteger.valueOf(sum).pow(2));
+        return new BigDecimal(scaledVariance)
+                .divide(BigDecimal.valueOf((long) count * (count - 1)), STDDEV_CONTEXT)
+                .sqrt(STDDEV_CONTEXT)
+                .movePointLeft(scale)
+                .setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Double-ended queue of day indexes in a fixed ring buffer.
+     */
+    private static final class IndexDeque {
+        private final int[] indexes;
+        private int head;
+        private int size;
+
+        IndexDeque(int capacity) {
+            indexes = new int[Math.max(capacity, 1)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int first() {
+            return indexes[head];
+        }
+
+        int last() {
+            return indexes[(head + size - 1) % indexes.length];
+        }
+
+        void addLast(int index) {
+            indexes[(head + size) % indexes.length] = index;
+            size++;
+        }
+
+        void removeLast() {
+            size--;
+        }
+
+        void removeFirstIfEqual(int index) {
+            if (size > 0 && indexes[head] == index) {
+                head = (head + 1) % indexes.length;
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+/**
+ * Statistic computed over the sliding window of a {@link RollingSeries}.
+ */
+public enum RollingStatistic {
+    /**
+     * Average rate, rounded like {@link ExchangeRateService#getAverageRate}.
+     */
+    MEAN,
+
+    /**
+     * Lowest rate.
+     */
+    MIN,
+
+    /**
+     * Highest rate.
+     */
+    MAX,
+
+    /**
+     * Sample standard deviation of the rates.
+     */
+    STDDEV;
+
+    /**
+     * Resolve the statistic of a request parameter.
+     *
+     * @param parameter name of the statistic, ignoring case
+     * @return statistic or null if the parameter is not supported
+     */
+    public static RollingStatistic fromParameter(String parameter) {
+        for (RollingStatistic statistic : values()) {
+            if (statistic.name().equalsIgnoreCase(parameter)) {
+                return statistic;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.europeanexchangerates.exchangeapi.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+/**
+ * Rates of one or more currencies on the consecutive days of a date range.
+ *
+ * The time series is a view on the snapshot that was current when it was
+ * created, so it can be streamed without copying the rates.
+ */
+public class TimeSeries {
+    private final RateStore rateStore;
+    private final int fromIndex;
+    private final int size;
+    private final List<String> currencies;
+    private final int[] currencyIds;
+
+    TimeSeries(RateStore rateStore, int fromIndex, int toIndex, List<String> currencies, int[] currencyIds) {
+        this.rateStore = rateStore;
+        this.fromIndex = fromIndex;
+        this.size = toIndex - fromIndex + 1;
+        this.currencies = currencies;
+        this.currencyIds = currencyIds;
+    }
+
+    /**
+     * @return number of days in the time series
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return currency codes in the order of the requested currencies
+     */
+    public List<String> getCurrencies() {
+        return currencies;
+    }
+
+    /**
+     * @param day position of the day in the time series
+     * @return date of the day
+     */
+    public LocalDate date(int day) {
+        return rateStore.date(fromIndex + day);
+    }
+
+    /**
+     * @param currency position of the currency in {@link #getCurrencies()}
+     * @param day      position of the day in the time series
+     * @return rate of the currency on the day or null if there is none
+     */
+    public BigDecimal rate(int currency, int day) {
+        return rateStore.rateAsBigDecimal(currencyIds[currency], fromIndex + day);
+    }
+}
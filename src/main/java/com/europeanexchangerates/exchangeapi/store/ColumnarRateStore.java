@@ -0,0 +1,450 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+
+/**
+ * Stores the exchange rates in primitive columns.
+ *
+ * The days are kept in a sorted array of epoch days and each currency has its
+ * own column of fixed-point rates. The scale in which each rate was published
+ * is kept alongside so that the original value can be given back unchanged.
+ */
+public final class ColumnarRateStore implements RateStore {
+    // Marks a day without a rate for the currency, e.g. "N/A" in the source.
+    private static final long MISSING = Long.MIN_VALUE;
+    // Currency the source rates are quoted against.
+    private static final String EURO = "EUR";
+
+    private final int[] epochDays;
+    private final CurrencyDictionary currencies;
+    private final long[][] rates;
+    private final byte[][] scales;
+    private final int rateScale;
+
+    private ColumnarRateStore(int[] epochDays, CurrencyDictionary currencies, long[][] rates, byte[][] scales,
+            int rateScale) {
+        this.epochDays = epochDays;
+        this.currencies = currencies;
+        this.rates = rates;
+        this.scales = scales;
+        this.rateScale = rateScale;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Create a store from exchange rates keyed by date.
+     *
+     * @param exchangeRates exchange rates to copy
+     * @return new store
+     */
+    public static ColumnarRateStore of(TreeMap<LocalDate, ExchangeRate> exchangeRates) {
+        Builder builder = builder();
+        exchangeRates.forEach((date, exchangeRate) -> {
+            int row = builder.addDay(date);
+            exchangeRate.getRates().forEach((currency, rate) -> builder.putRate(row, currency, rate));
+        });
+        return builder.build();
+    }
+
+    /**
+     * Create a store directly from its columns, e.g. when reading a
+     * {@link RateStoreFile}. The arrays are used as they are and not copied.
+     *
+     * @param epochDays     days in strictly ascending order
+     * @param currencyCodes currency codes indexed by currency id
+     * @param rates         fixed-point rates indexed by currency id and day,
+     *                      {@link Long#MIN_VALUE} for a missing rate
+     * @param scales        published scales indexed by currency id and day
+     * @return new store
+     */
+    static ColumnarRateStore of(int[] epochDays, String[] currencyCodes, long[][] rates, byte[][] scales) {
+        return of(epochDays, currencyCodes, rates, scales, RATE_SCALE);
+    }
+
+    private static ColumnarRateStore of(int[] epochDays, String[] currencyCodes, long[][] rates, byte[][] scales,
+            int rateScale) {
+        for (int i = 1; i < epochDays.length; i++) {
+            if (epochDays[i - 1] >= epochDays[i]) {
+                throw new IllegalArgumentException("Days are not in strictly ascending order.");
+            }
+        }
+        CurrencyDictionary currencies = CurrencyDictionary.of(currencyCodes);
+        for (int currencyId = 0; currencyId < currencyCodes.length; currencyId++) {
+            if (rates[currencyId].length != epochDays.length || scales[currencyId].length != epochDays.length) {
+                throw new IllegalArgumentException("Column of " + currencyCodes[currencyId]
+                        + " does not match the number of days.");
+            }
+        }
+        return new ColumnarRateStore(epochDays, currencies, rates, scales, rateScale);
+    }
+
+    /**
+     * Create a store with the days of an existing store plus newer exchange
+     * rates. Rates in the newer data replace the existing rates of the same
+     * date and currency.
+     *
+     * @param base          existing store
+     * @param exchangeRates exchange rates to add
+     * @return new store
+     */
+    public static ColumnarRateStore merge(RateStore base, TreeMap<LocalDate, ExchangeRate> exchangeRates) {
+        Builder builder = builder();
+        for (int currencyId = 0; currencyId < base.currencyCount(); currencyId++) {
+            builder.currency(base.currencyCode(currencyId));
+        }
+        for (int i = 0; i < base.size(); i++) {
+            int row = builder.addDay(base.date(i));
+            for (int currencyId = 0; currencyId < base.currencyCount(); currencyId++) {
+                if (base.hasRate(currencyId, i)) {
+                    builder.putRate(row, currencyId, base.rate(currencyId, i),
+                            base.publishedScale(currencyId, i));
+                }
+            }
+        }
+        exchangeRates.forEach((date, exchangeRate) -> {
+            int row = builder.addDay(date);
+            exchangeRate.getRates().forEach((currency, rate) -> builder.putRate(row, currency, rate));
+        });
+        return builder.build();
+    }
+
+    /**
+     * Create a store with the rates of another store quoted against one of
+     * its currencies instead of the euro.
+     *
+     * Every rate is divided by the rate of the base on the same day and
+     * rounded half up to the {@link #rateScale()} of the new store, which is
+     * also the scale the rates are given back with. The scale is
+     * {@link RateStore#RATE_SCALE} plus the number of digits before the
+     * decimal point of the highest rate of the base minus one, e.g. 10 for
+     * the rupiah at around 17000 to the euro. So the euro keeps at least six
+     * significant digits even against a base that is worth very little. The
+     * euro is added as a currency unless the store
+     * already has it. The days stay the same, but days without a rate for
+     * the base have no rates at all.
+     *
+     * @param store  store quoted against the euro
+     * @param baseId id of the base currency in the store
+     * @return new store
+     */
+    public static ColumnarRateStore rebase(RateStore store, int baseId) {
+        int size = store.size();
+        int[] epochDays = new int[size];
+        for (int i = 0; i < size; i++) {
+            epochDays[i] = (int) store.date(i).toEpochDay();
+        }
+        boolean addEuro = store.currencyId(EURO) < 0;
+        int currencyCount = store.currencyCount() + (addEuro ? 1 : 0);
+        String[] currencyCodes = new String[currencyCount];
+        long[][] rates = new long[currencyCount][];
+        byte[][] scales = new byte[currencyCount][];
+        long one = FixedPoint.powerOfTen(RATE_SCALE);
+        long highestBaseRate = 0;
+        for (int i = 0; i < size; i++) {
+            if (store.hasRate(baseId, i)) {
+                highestBaseRate = Math.max(highestBaseRate, store.rate(baseId, i));
+            }
+        }
+        int rateScale = RATE_SCALE + Math.max(Long.toString(highestBaseRate / one).length() - 1, 0);
+        long scaleFactor = FixedPoint.powerOfTen(rateScale);
+        for (int currencyId = 0; currencyId < currencyCount; currencyId++) {
+            boolean euro = currencyId == store.currencyCount();
+            currencyCodes[currencyId] = euro ? EURO : store.currencyCode(currencyId);
+            long[] column = new long[size];
+            for (int i = 0; i < size; i++) {
+                if (!store.hasRate(baseId, i) || !euro && !store.hasRate(currencyId, i)) {
+                    column[i] = MISSING;
+                } else {
+                    column[i] = FixedPoint.multiplyDivide(euro ? one : store.rate(currencyId, i), scaleFactor,
+                            store.rate(baseId, i));
+                }
+            }
+            byte[] scaleColumn = new byte[size];
+            Arrays.fill(scaleColumn, (byte) rateScale);
+            rates[currencyId] = column;
+            scales[currencyId] = scaleColumn;
+        }
+        return of(epochDays, currencyCodes, rates, scales, rateScale);
+    }
+
+    @Override
+    public int rateScale() {
+        return rateScale;
+    }
+
+    @Override
+    public int size() {
+        return epochDays.length;
+    }
+
+    @Override
+    public int currencyCount() {
+        return currencies.size();
+    }
+
+    @Override
+    public CurrencyDictionary currencies() {
+        return currencies;
+    }
+
+    @Override
+    public String currencyCode(int currencyId) {
+        return currencies.code(currencyId);
+    }
+
+    @Override
+    public int currencyId(String currencyCode) {
+        return currencies.id(currencyCode);
+    }
+
+    @Override
+    public LocalDate date(int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    @Override
+    public int indexOf(LocalDate date) {
+        int index = Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+        return index < 0 ? -1 : index;
+    }
+
+    @Override
+    public int ceilingIndex(LocalDate date) {
+        int index = Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+        return index < 0 ? -index - 1 : index;
+    }
+
+    @Override
+    public int floorIndex(LocalDate date) {
+        int index = Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+        return index < 0 ? -index - 2 : index;
+    }
+
+    @Override
+    public boolean hasRate(int currencyId, int index) {
+        return rates[currencyId][index] != MISSING;
+    }
+
+    @Override
+    public long rate(int currencyId, int index) {
+        return rates[currencyId][index];
+    }
+
+    @Override
+    public int publishedScale(int currencyId, int index) {
+        return scales[currencyId][index];
+    }
+
+    @Override
+    public BigDecimal rateAsBigDecimal(int currencyId, int index) {
+        long rate = rates[currencyId][index];
+        if (rate == MISSING) {
+            return null;
+        }
+        // Dropping the padded zeros is exact so no rounding takes place.
+        return FixedPoint.toBigDecimal(rate, rateScale, scales[currencyId][index]);
+    }
+
+    /**
+     * Collects days and rates in any order and builds a store sorted by date.
+     *
+     * If a date is added more than once then the rates of the later row
+     * replace the rates of the earlier one.
+     */
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 256;
+
+        private int[] epochDays = new int[INITIAL_CAPACITY];
+        private int size;
+        private final Map<String, Integer> currencyIds = new HashMap<>();
+        private final List<String> currencyCodes = new ArrayList<>();
+        private final List<long[]> rates = new ArrayList<>();
+        private final List<byte[]> scales = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Get the id of a currency, registering it if it is new.
+         *
+         * @param currencyCode currency code in any case
+         * @return id of the currency
+         * @throws IllegalArgumentException if the code is not three letters
+         */
+        public int currency(String currencyCode) {
+            String code = CurrencyDictionary.normalize(currencyCode);
+            Integer id = currencyIds.get(code);
+            if (id != null) {
+                return id;
+            }
+            int newId = currencyCodes.size();
+            currencyIds.put(code, newId);
+            currencyCodes.add(code);
+            long[] column = new long[epochDays.length];
+            Arrays.fill(column, MISSING);
+            rates.add(column);
+            scales.add(new byte[epochDays.length]);
+            return newId;
+        }
+
+        /**
+         * Add a day without any rates yet.
+         *
+         * @param date date of the day
+         * @return row to use when putting rates for the day
+         */
+        public int addDay(LocalDate date) {
+            return addEpochDay((int) date.toEpochDay());
+        }
+
+        /**
+         * Add a day without any rates yet.
+         *
+         * @param epochDay day as the number of days since 1970-01-01
+         * @return row to use when putting rates for the day
+         */
+        public int addEpochDay(int epochDay) {
+            if (size == epochDays.length) {
+                grow();
+            }
+            epochDays[size] = epochDay;
+            return size++;
+        }
+
+        /**
+         * Put a rate for a currency on a day.
+         *
+         * @param row      row returned by {@link #addDay(LocalDate)}
+         * @param currency currency code
+         * @param rate     rate with at most {@link RateStore#RATE_SCALE}
+         *                 decimal places
+         * @return this builder
+         */
+        public Builder putRate(int row, String currency, BigDecimal rate) {
+            int scale = Math.max(rate.scale(), 0);
+            if (scale > RATE_SCALE) {
+                throw new IllegalArgumentException("Rate " + rate + " of " + currency
+                        + " has more than " + RATE_SCALE + " decimal places.");
+            }
+            long scaledRate = rate.setScale(RATE_SCALE).unscaledValue().longValueExact();
+            return putRate(row, currency(currency), scaledRate, scale);
+        }
+
+        /**
+         * Put a fixed-point rate for a currency on a day.
+         *
+         * @param row        row returned by {@link #addDay(LocalDate)}
+         * @param currencyId id returned by {@link #currency(String)}
+         * @param scaledRate rate scaled by {@link RateStore#RATE_SCALE}
+         * @param scale      number of decimal places the rate was published
+         *                   with
+         * @return this builder
+         */
+        public Builder putRate(int row, int currencyId, long scaledRate, int scale) {
+            rates.get(currencyId)[row] = scaledRate;
+            scales.get(currencyId)[row] = (byte) scale;
+            return this;
+        }
+
+        public ColumnarRateStore build() {
+            int[] order = sortedRows();
+            int[] sortedDays = new int[size];
+            int[] target = new int[size];
+            int days = 0;
+            for (int i = 0; i < size; i++) {
+                int row = order[i];
+                if (days == 0 || sortedDays[days - 1] != epochDays[row]) {
+                    sortedDays[days++] = epochDays[row];
+                }
+                target[row] = days - 1;
+            }
+
+            int currencyCount = currencyCodes.size();
+            long[][] sortedRates = new long[currencyCount][];
+            byte[][] sortedScales = new byte[currencyCount][];
+            for (int c = 0; c < currencyCount; c++) {
+                long[] column = new long[days];
+                byte[] scaleColumn = new byte[days];
+                Arrays.fill(column, MISSING);
+                long[] source = rates.get(c);
+                byte[] sourceScales = scales.get(c);
+                for (int i = 0; i < size; i++) {
+                    int row = order[i];
+                    if (source[row] != MISSING) {
+                        column[target[row]] = source[row];
+                        scaleColumn[target[row]] = sourceScales[row];
+                    }
+                }
+                sortedRates[c] = column;
+                sortedScales[c] = scaleColumn;
+            }
+
+            return new ColumnarRateStore(
+                    Arrays.copyOf(sortedDays, days),
+                    CurrencyDictionary.of(currencyCodes.toArray(new String[0])),
+                    sortedRates,
+                    sortedScales,
+                    RATE_SCALE);
+        }
+
+        /**
+         * Sort the rows by date. Rows of the same date stay in insertion
+         * order so that the later ones can be overlaid on the earlier ones.
+         *
+         * @return rows in the order they are stored
+         */
+        private int[] sortedRows() {
+            int[] order = new int[size];
+            boolean ascending = true;
+            // Strictly, as reversing would swap rows of the same date.
+            boolean descending = true;
+            for (int i = 1; i < size; i++) {
+                ascending &= epochDays[i - 1] <= epochDays[i];
+                descending &= epochDays[i - 1] > epochDays[i];
+            }
+            if (ascending || descending) {
+                // The ECB files list the days newest first, so most loads
+                // only need the rows reversed.
+                for (int i = 0; i < size; i++) {
+                    order[i] = ascending ? i : size - 1 - i;
+                }
+                return order;
+            }
+
+            // Sort the days together with their rows as primitives, the row
+            // breaking ties between rows of the same date.
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (long) epochDays[i] << 32 | i;
+            }
+            Arrays.sort(keys);
+            for (int i = 0; i < size; i++) {
+                order[i] = (int) keys[i];
+            }
+            return order;
+        }
+
+        private void grow() {
+            int capacity = epochDays.length * 2;
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            for (int c = 0; c < rates.size(); c++) {
+                long[] column = Arrays.copyOf(rates.get(c), capacity);
+                Arrays.fill(column, size, capacity, MISSING);
+                rates.set(c, column);
+                scales.set(c, Arrays.copyOf(scales.get(c), capacity));
+            }
+        }
+    }
+}
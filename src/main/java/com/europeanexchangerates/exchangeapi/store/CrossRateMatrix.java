@@ -0,0 +1,272 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precomputed source to target conversion factors for the most recent days
+ * of a store and for every day of a few configured currency pairs.
+ *
+ * A factor is the ratio of the target and the source rate as a fixed-point
+ * long with about ten significant digits, rounded down. Converting an amount
+ * is then a single long multiplication. Because the factor is rounded down the
+ * exact converted amount lies between the product and the product plus the
+ * amount, and the result is only given if both bounds round to the same cents.
+ * Otherwise, and for amounts that do not fit in longs, no result is given and
+ * the caller has to divide exactly. Either way the result is the same as
+ * {@code amount * target / source} rounded to two decimal places using
+ * {@link RoundingMode#HALF_UP}.
+ */
+public final class CrossRateMatrix {
+    private static final int FACTOR_DIGITS = 10;
+    private static final int MIN_FACTOR_SCALE = 3;
+    private static final int RESULT_SCALE = 2;
+    private static final long NONE = 0;
+    private static final int MAX_SHIFT = 18;
+
+    private final int currencyCount;
+    private final int windowStart;
+    // Factors of every pair of the days in the window, indexed by day and
+    // source * currencyCount + target.
+    private final long[][] windowFactors;
+    private final byte[][] windowScales;
+    // Slot of each pair in the hot pair columns or -1.
+    private final int[] hotPairSlots;
+    private final long[][] hotFactors;
+    private final byte[][] hotScales;
+
+    private CrossRateMatrix(int currencyCount, int windowStart, long[][] windowFactors, byte[][] windowScales,
+            int[] hotPairSlots, long[][] hotFactors, byte[][] hotScales) {
+        this.currencyCount = currencyCount;
+        this.windowStart = windowStart;
+        this.windowFactors = windowFactors;
+        this.windowScales = windowScales;
+        this.hotPairSlots = hotPairSlots;
+        this.hotFactors = hotFactors;
+        this.hotScales = hotScales;
+    }
+
+    /**
+     * Build the factors of a store.
+     *
+     * @param store    store to build the factors of
+     * @param settings days and pairs to build the factors for
+     * @return new matrix
+     */
+    public static CrossRateMatrix build(RateStore store, Settings settings) {
+        int currencyCount = store.currencyCount();
+        int size = store.size();
+        int windowStart = Math.max(0, size - settings.getWindowDays());
+
+        long[][] windowFactors = new long[size - windowStart][currencyCount * currencyCount];
+        byte[][] windowScales = new byte[size - windowStart][currencyCount * currencyCount];
+        for (int index = windowStart; index < size; index++) {
+            for (int sourceId = 0; sourceId < currencyCount; sourceId++) {
+                for (int targetId = 0; targetId < currencyCount; targetId++) {
+                    int pair = sourceId * currencyCount + targetId;
+                    putFactor(store, index, sourceId, targetId,
+                            windowFactors[index - windowStart], windowScales[index - windowStart], pair);
+                }
+            }
+        }
+
+        int[] hotPairSlots = new int[currencyCount * currencyCount];
+        Arrays.fill(hotPairSlots, -1);
+        List<long[]> hotFactors = new ArrayList<>();
+        List<byte[]> hotScales = new ArrayList<>();
+        for (String[] hotPair : settings.getHotPairs()) {
+            int sourceId = store.currencyId(hotPair[0]);
+            int targetId = store.currencyId(hotPair[1]);
+            if (sourceId < 0 || targetId < 0 || hotPairSlots[sourceId * currencyCount + targetId] >= 0) {
+                continue;
+            }
+            long[] factors = new long[size];
+            byte[] scales = new byte[size];
+            for (int index = 0; index < size; index++) {
+                putFactor(store, index, sourceId, targetId, factors, scales, index);
+            }
+            hotPairSlots[sourceId * currencyCount + targetId] = hotFactors.size();
+            hotFactors.add(factors);
+            hotScales.add(scales);
+        }
+
+        return new CrossRateMatrix(currencyCount, windowStart, windowFactors, windowScales, hotPairSlots,
+                hotFactors.toArray(new long[0][]), hotScales.toArray(new byte[0][]));
+    }
+
+    private static void putFactor(RateStore store, int index, int sourceId, int targetId,
+            long[] factors, byte[] scales, int position) {
+        if (!store.hasRate(sourceId, index) || !store.hasRate(targetId, index)
+                || store.rate(sourceId, index) <= 0 || store.rate(targetId, index) <= 0) {
+            factors[position] = NONE;
+            return;
+        }
+        // Both rates have the same scale so their ratio is the ratio of the
+        // scaled longs.
+        BigInteger source = BigInteger.valueOf(store.rate(sourceId, index));
+        BigInteger target = BigInteger.valueOf(store.rate(targetId, index));
+        BigDecimal ratio = new BigDecimal(target)
+                .divide(new BigDecimal(source), new MathContext(FACTOR_DIGITS, RoundingMode.FLOOR));
+        // Exact ratios like 2 are padded to the same number of digits.
+        int scale = Math.max(MIN_FACTOR_SCALE, ratio.scale() + FACTOR_DIGITS - ratio.precision());
+        factors[position] = target.multiply(BigInteger.TEN.pow(scale)).divide(source).longValueExact();
+        scales[position] = (byte) scale;
+    }
+
+    /**
+     * Compute the factor of a pair on a day, e.g. to reuse it for the amounts
+     * of a batch on days or pairs that are not precomputed.
+     *
+     * @param store    store to compute the factor from
+     * @param index    index of the day in the store
+     * @param sourceId id of the source currency
+     * @param targetId id of the target currency
+     * @return factor of the pair, which converts nothing if either currency
+     *         has no positive rate on the day
+     */
+    public static Factor factor(RateStore store, int index, int sourceId, int targetId) {
+        long[] factors = new long[1];
+        byte[] scales = new byte[1];
+        putFactor(store, index, sourceId, targetId, factors, scales, 0);
+        return new Factor(factors[0], scales[0]);
+    }
+
+    /**
+     * Convert the amount from source to target currency on a day if the
+     * factor of the pair is precomputed for the day and the result can be
+     * determined without dividing.
+     *
+     * @param amount     amount to convert
+     * @param index      index of the day in the store
+     * @param sourceId   id of the source currency
+     * @param targetId   id of the target currency
+     * @return converted amount rounded to two decimal places or null if it has
+     *         to be computed by dividing the rates
+     */
+    public BigDecimal convert(BigDecimal amount, int index, int sourceId, int targetId) {
+        int pair = sourceId * currencyCount + targetId;
+        long factor;
+        int factorScale;
+        if (index >= windowStart) {
+            factor = windowFactors[index - windowStart][pair];
+            factorScale = windowScales[index - windowStart][pair];
+        } else if (hotPairSlots[pair] >= 0) {
+            factor = hotFactors[hotPairSlots[pair]][index];
+            factorScale = hotScales[hotPairSlots[pair]][index];
+        } else {
+            return null;
+        }
+        return convert(amount, factor, factorScale);
+    }
+
+    private static BigDecimal convert(BigDecimal amount, long factor, int factorScale) {
+        if (factor == NONE) {
+            return null;
+        }
+
+        // The product is in units of 10^-(factorScale + amountScale) and has
+        // to be rounded to units of 10^-2.
+        int amountScale = amount.scale();
+        int shift = factorScale + amountScale - RESULT_SCALE;
+        if (amountScale < 0 || shift < 1 || shift > MAX_SHIFT || amount.precision() > 18) {
+            return null;
+        }
+        long unscaledAmount = amount.unscaledValue().longValue();
+        long magnitude = Math.abs(unscaledAmount);
+        long divisor = FixedPoint.powerOfTen(shift);
+        long half = divisor / 2;
+        long product = magnitude * factor;
+        if (Math.multiplyHigh(magnitude, factor) != 0 || product < 0
+                || product > Long.MAX_VALUE - magnitude - half) {
+            return null;
+        }
+        long lower = (product + half) / divisor;
+        long upper = (product + magnitude + half) / divisor;
+        if (lower != upper) {
+            return null;
+        }
+        return BigDecimal.valueOf(unscaledAmount < 0 ? -lower : lower, RESULT_SCALE);
+    }
+
+    /**
+     * @return estimated number of bytes used by the factors
+     */
+    public long memoryBytes() {
+        long bytes = (long) hotPairSlots.length * Integer.BYTES;
+        for (long[] factors : windowFactors) {
+            bytes += (long) factors.length * (Long.BYTES + 1);
+        }
+        for (long[] factors : hotFactors) {
+            bytes += (long) factors.length * (Long.BYTES + 1);
+        }
+        return bytes;
+    }
+
+    /**
+     * Conversion factor of a currency pair on a day.
+     */
+    public static final class Factor {
+        private final long factor;
+        private final int scale;
+
+        private Factor(long factor, int scale) {
+            this.factor = factor;
+            this.scale = scale;
+        }
+
+        /**
+         * Convert the amount if the result can be determined without
+         * dividing.
+         *
+         * @param amount amount to convert
+         * @return converted amount rounded to two decimal places or null if
+         *         it has to be computed by dividing the rates
+         */
+        public BigDecimal convert(BigDecimal amount) {
+            return CrossRateMatrix.convert(amount, factor, scale);
+        }
+    }
+
+    /**
+     * Days and currency pairs to precompute the factors for.
+     */
+    public static final class Settings {
+        private final int windowDays;
+        private final List<String[]> hotPairs;
+
+        /**
+         * @param windowDays number of most recent days to precompute all pairs
+         *                   for
+         * @param hotPairs   pairs to precompute for all days, formatted as
+         *                   source and target code separated by a slash, e.g.
+         *                   "USD/JPY"
+         */
+        public Settings(int windowDays, List<String> hotPairs) {
+            if (windowDays < 0) {
+                throw new IllegalArgumentException("The window cannot be negative.");
+            }
+            this.windowDays = windowDays;
+            this.hotPairs = new ArrayList<>();
+            for (String hotPair : hotPairs) {
+                String[] codes = hotPair.trim().split("/");
+                if (codes.length != 2 || codes[0].isBlank() || codes[1].isBlank()) {
+                    throw new IllegalArgumentException("Invalid currency pair " + hotPair + ".");
+                }
+                this.hotPairs.add(new String[] { codes[0].trim(), codes[1].trim() });
+            }
+        }
+
+        public int getWindowDays() {
+            return windowDays;
+        }
+
+        public List<String[]> getHotPairs() {
+            return hotPairs;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Maps the currency codes of a store to small ids.
+ *
+ * The dictionary is built once from the currencies in the source, e.g. the
+ * CSV header, and does not change afterwards. Codes are three letters like
+ * ISO 4217 codes and are looked up regardless of case. A lookup indexes a
+ * table with one entry for every possible three letter code, so unknown and
+ * invalid codes are rejected without hashing or allocating.
+ */
+public final class CurrencyDictionary {
+    /**
+     * Number of letters in a currency code.
+     */
+    public static final int CODE_LENGTH = 3;
+
+    private static final int LETTERS = 26;
+    private static final short UNKNOWN = -1;
+
+    private final String[] codes;
+    private final short[] ids;
+
+    private CurrencyDictionary(String[] codes, short[] ids) {
+        this.codes = codes;
+        this.ids = ids;
+    }
+
+    /**
+     * Create a dictionary where the id of each currency is its position.
+     *
+     * @param codes currency codes in any case
+     * @return new dictionary
+     * @throws IllegalArgumentException if a code is invalid or appears twice
+     */
+    public static CurrencyDictionary of(String... codes) {
+        if (codes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many currencies.");
+        }
+        String[] normalized = new String[codes.length];
+        short[] ids = new short[LETTERS * LETTERS * LETTERS];
+        Arrays.fill(ids, UNKNOWN);
+        for (int id = 0; id < codes.length; id++) {
+            normalized[id] = normalize(codes[id]);
+            int key = key(normalized[id]);
+            if (ids[key] != UNKNOWN) {
+                throw new IllegalArgumentException("Duplicate currency " + normalized[id] + ".");
+            }
+            ids[key] = (short) id;
+        }
+        return new CurrencyDictionary(normalized, ids);
+    }
+
+    /**
+     * Check a currency code and turn it into upper case.
+     *
+     * @param code currency code in any case
+     * @return currency code in upper case
+     * @throws IllegalArgumentException if the code is not three letters
+     */
+    public static String normalize(String code) {
+        if (key(code) < 0) {
+            throw new IllegalArgumentException("Invalid currency code " + code + ".");
+        }
+        return code.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * @param code currency code in any case
+     * @return whether the code is three letters
+     */
+    public static boolean isValid(CharSequence code) {
+        return key(code) >= 0;
+    }
+
+    /**
+     * @return number of currencies
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @param id id of the currency
+     * @return currency code in upper case
+     */
+    public String code(int id) {
+        return codes[id];
+    }
+
+    /**
+     * @param code currency code in any case
+     * @return id of the currency or -1 if the code is invalid or unknown
+     */
+    public int id(CharSequence code) {
+        int key = key(code);
+        return key < 0 ? -1 : ids[key];
+    }
+
+    // Index of a code in the lookup table or -1 if it is not three letters.
+    private static int key(CharSequence code) {
+        if (code == null || code.length() != CODE_LENGTH) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            int letter = letter(code.charAt(i));
+            if (letter < 0) {
+                return -1;
+            }
+            key = key * LETTERS + letter;
+        }
+        return key;
+    }
+
+    private static int letter(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,173 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic on decimals held in longs as unscaled values of a fixed scale.
+ *
+ * The rates are kept as longs scaled by {@link #SCALE}, which is enough for
+ * the at most six decimal places the ECB publishes. The operations work on
+ * the longs directly and do not allocate. Results are rounded like
+ * {@link RoundingMode#HALF_UP} and intermediate products are kept exactly in
+ * 128 bits, so the results are the same as with {@link BigDecimal}. An
+ * {@link ArithmeticException} is thrown if a result does not fit in a long.
+ * Values are only turned into {@link BigDecimal}s when they leave the service.
+ */
+public final class FixedPoint {
+    /**
+     * Number of decimal places of fixed-point rates.
+     */
+    public static final int SCALE = 6;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * @param exponent exponent from 0 to 18
+     * @return 10 to the power of the exponent
+     */
+    public static long powerOfTen(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    /**
+     * Multiply two values scaled by {@link #SCALE}.
+     *
+     * @return product scaled by {@link #SCALE}
+     */
+    public static long multiply(long a, long b) {
+        return multiplyDivide(a, b, POWERS_OF_TEN[SCALE]);
+    }
+
+    /**
+     * Divide two values scaled by {@link #SCALE}.
+     *
+     * @return quotient scaled by {@link #SCALE}
+     */
+    public static long divide(long dividend, long divisor) {
+        return multiplyDivide(dividend, POWERS_OF_TEN[SCALE], divisor);
+    }
+
+    /**
+     * Change the scale of a value, rounding if decimal places are dropped.
+     *
+     * @param value     unscaled value
+     * @param fromScale scale of the value
+     * @param toScale   scale of the result
+     * @return value with the new scale
+     */
+    public static long rescale(long value, int fromScale, int toScale) {
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(value, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        return multiplyDivide(value, 1, POWERS_OF_TEN[fromScale - toScale]);
+    }
+
+    /**
+     * Turn a value into a {@link BigDecimal} with the given scale.
+     *
+     * @param value     unscaled value
+     * @param fromScale scale of the value
+     * @param toScale   scale of the result
+     * @return value as a {@link BigDecimal}
+     */
+    public static BigDecimal toBigDecimal(long value, int fromScale, int toScale) {
+        return BigDecimal.valueOf(rescale(value, fromScale, toScale), toScale);
+    }
+
+    /**
+     * Compute {@code a * b / c} exactly and round it half up.
+     *
+     * @return rounded quotient
+     * @throws ArithmeticException if c is zero or the quotient does not fit in
+     *                             a long
+     */
+    public static long multiplyDivide(long a, long b, long c) {
+        if (c == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        boolean negative = (a < 0) != (b < 0) != (c < 0);
+        // The magnitudes are treated as unsigned so that Long.MIN_VALUE works.
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+        long divisor = Math.abs(c);
+        // Unsigned high half of the product, the same as
+        // Math.unsignedMultiplyHigh.
+        long high = Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+        long low = x * y;
+
+        long quotient;
+        long remainder;
+        if (high == 0) {
+            quotient = Long.divideUnsigned(low, divisor);
+            remainder = low - quotient * divisor;
+        } else {
+            if (Long.compareUnsigned(high, divisor) >= 0) {
+                throw new ArithmeticException("Overflow");
+            }
+            quotient = divideUnsigned(high, low, divisor);
+            // The remainder is less than the divisor, so the low 64 bits of
+            // the product minus the quotient times the divisor are exact.
+            remainder = low - quotient * divisor;
+        }
+        if (quotient < 0) {
+            throw new ArithmeticException("Overflow");
+        }
+        // Round up if the remainder is at least half of the divisor.
+        if (Long.compareUnsigned(remainder, divisor - remainder) >= 0) {
+            quotient++;
+        }
+        if (quotient < 0) {
+            throw new ArithmeticException("Overflow");
+        }
+        return negative ? -quotient : quotient;
+    }
+
+    /**
+     * Divide the unsigned 128 bit value high:low by an unsigned divisor that
+     * is greater than high, see Hacker's Delight, divlu.
+     */
+    private static long divideUnsigned(long high, long low, long divisor) {
+        final long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long v1 = v >>> 32;
+        long v0 = v & 0xFFFF_FFFFL;
+        long u32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        long u10 = low << shift;
+        long u1 = u10 >>> 32;
+        long u0 = u10 & 0xFFFF_FFFFL;
+
+        long q1 = Long.divideUnsigned(u32, v1);
+        long rhat = u32 - q1 * v1;
+        while (Long.compareUnsigned(q1, base) >= 0 || Long.compareUnsigned(q1 * v0, (rhat << 32) + u1) > 0) {
+            q1--;
+            rhat += v1;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+
+        long u21 = (u32 << 32) + u1 - q1 * v;
+        long q0 = Long.divideUnsigned(u21, v1);
+        rhat = u21 - q0 * v1;
+        while (Long.compareUnsigned(q0, base) >= 0 || Long.compareUnsigned(q0 * v0, (rhat << 32) + u0) > 0) {
+            q0--;
+            rhat += v1;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        return (q1 << 32) + q0;
+    }
+}
@@ -0,0 +1,148 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import java.util.Arrays;
+
+/**
+ * Segment trees over the rates of every currency in a store to find the
+ * highest and the lowest rate of any index range in logarithmic time.
+ *
+ * The trees hold day indices rather than rates so that the rate can be given
+ * back with the scale it was published in. Days without a rate for the
+ * currency are never selected. If several days share the extreme rate then
+ * the earliest one is selected.
+ */
+public final class RangeExtremaIndex {
+    private static final int NONE = -1;
+
+    private final RateStore store;
+    private final int size;
+    private final int[][] highest;
+    private final int[][] lowest;
+
+    private RangeExtremaIndex(RateStore store, int[][] highest, int[][] lowest) {
+        this.store = store;
+        this.size = store.size();
+        this.highest = highest;
+        this.lowest = lowest;
+    }
+
+    /**
+     * Build the index for all the currencies of the store.
+     *
+     * @param store store to index
+     * @return new index
+     */
+    public static RangeExtremaIndex build(RateStore store) {
+        int size = store.size();
+        int[][] highest = new int[store.currencyCount()][];
+        int[][] lowest = new int[store.currencyCount()][];
+        for (int currencyId = 0; currencyId < store.currencyCount(); currencyId++) {
+            int[] highestTree = new int[2 * size];
+            int[] lowestTree = new int[2 * size];
+            Arrays.fill(highestTree, NONE);
+            Arrays.fill(lowestTree, NONE);
+            for (int i = 0; i < size; i++) {
+                if (store.hasRate(currencyId, i)) {
+                    highestTree[size + i] = i;
+                    lowestTree[size + i] = i;
+                }
+            }
+            for (int node = size - 1; node > 0; node--) {
+                highestTree[node] = higher(store, currencyId,
+                        highestTree[2 * node], highestTree[2 * node + 1]);
+                lowestTree[node] = lower(store, currencyId,
+                        lowestTree[2 * node], lowestTree[2 * node + 1]);
+            }
+            highest[currencyId] = highestTree;
+            lowest[currencyId] = lowestTree;
+        }
+        return new RangeExtremaIndex(store, highest, lowest);
+    }
+
+    /**
+     * Find the day with the highest rate for the currency in the inclusive
+     * index range.
+     *
+     * @param currencyId id of the currency
+     * @param fromIndex  first index of the range
+     * @param toIndex    last index of the range
+     * @return index of the day or -1 if there are no rates in the range
+     */
+    public int highestIndex(int currencyId, int fromIndex, int toIndex) {
+        int[] tree = highest[currencyId];
+        int result = NONE;
+        for (int left = fromIndex + size, right = toIndex + size + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                result = higher(store, currencyId, result, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                result = higher(store, currencyId, result, tree[--right]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the day with the lowest rate for the currency in the inclusive
+     * index range.
+     *
+     * @param currencyId id of the currency
+     * @param fromIndex  first index of the range
+     * @param toIndex    last index of the range
+     * @return index of the day or -1 if there are no rates in the range
+     */
+    public int lowestIndex(int currencyId, int fromIndex, int toIndex) {
+        int[] tree = lowest[currencyId];
+        int result = NONE;
+        for (int left = fromIndex + size, right = toIndex + size + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                result = lower(store, currencyId, result, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                result = lower(store, currencyId, result, tree[--right]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return estimated number of bytes used by the trees
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (int currencyId = 0; currencyId < highest.length; currencyId++) {
+            bytes += (long) (highest[currencyId].length + lowest[currencyId].length) * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    private static int higher(RateStore store, int currencyId, int a, int b) {
+        if (a == NONE) {
+            return b;
+        }
+        if (b == NONE) {
+            return a;
+        }
+        long rateA = store.rate(currencyId, a);
+        long rateB = store.rate(currencyId, b);
+        if (rateA != rateB) {
+            return rateA > rateB ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    private static int lower(RateStore store, int currencyId, int a, int b) {
+        if (a == NONE) {
+            return b;
+        }
+        if (b == NONE) {
+            return a;
+        }
+        long rateA = store.rate(currencyId, a);
+        long rateB = store.rate(currencyId, b);
+        if (rateA != rateB) {
+            return rateA < rateB ? a : b;
+        }
+        return Math.min(a, b);
+    }
+}
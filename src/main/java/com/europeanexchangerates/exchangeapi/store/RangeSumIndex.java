@@ -0,0 +1,78 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+/**
+ * Prefix sums and prefix counts of the rates of every currency in a store.
+ *
+ * The sum and the number of rates of any index range are answered with a
+ * subtraction instead of a scan over the range. The sums are kept as exact
+ * fixed-point longs so no precision is lost.
+ */
+public final class RangeSumIndex {
+    private final long[][] prefixSums;
+    private final int[][] prefixCounts;
+
+    private RangeSumIndex(long[][] prefixSums, int[][] prefixCounts) {
+        this.prefixSums = prefixSums;
+        this.prefixCounts = prefixCounts;
+    }
+
+    /**
+     * Build the index for all the currencies of the store.
+     *
+     * @param store store to index
+     * @return new index
+     */
+    public static RangeSumIndex build(RateStore store) {
+        int size = store.size();
+        long[][] prefixSums = new long[store.currencyCount()][];
+        int[][] prefixCounts = new int[store.currencyCount()][];
+        for (int currencyId = 0; currencyId < store.currencyCount(); currencyId++) {
+            long[] sums = new long[size + 1];
+            int[] counts = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                boolean hasRate = store.hasRate(currencyId, i);
+                sums[i + 1] = hasRate ? Math.addExact(sums[i], store.rate(currencyId, i)) : sums[i];
+                counts[i + 1] = hasRate ? counts[i] + 1 : counts[i];
+            }
+            prefixSums[currencyId] = sums;
+            prefixCounts[currencyId] = counts;
+        }
+        return new RangeSumIndex(prefixSums, prefixCounts);
+    }
+
+    /**
+     * Sum the scaled rates of the currency in the inclusive index range.
+     *
+     * @param currencyId id of the currency
+     * @param fromIndex  first index of the range
+     * @param toIndex    last index of the range
+     * @return sum of the rates scaled by {@link RateStore#rateScale()}
+     */
+    public long sum(int currencyId, int fromIndex, int toIndex) {
+        return prefixSums[currencyId][toIndex + 1] - prefixSums[currencyId][fromIndex];
+    }
+
+    /**
+     * Count the days with a rate for the currency in the inclusive index range.
+     *
+     * @param currencyId id of the currency
+     * @param fromIndex  first index of the range
+     * @param toIndex    last index of the range
+     * @return number of days with a rate
+     */
+    public int count(int currencyId, int fromIndex, int toIndex) {
+        return prefixCounts[currencyId][toIndex + 1] - prefixCounts[currencyId][fromIndex];
+    }
+
+    /**
+     * @return estimated number of bytes used by the prefix sums and counts
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (int currencyId = 0; currencyId < prefixSums.length; currencyId++) {
+            bytes += (long) prefixSums[currencyId].length * Long.BYTES
+                    + (long) prefixCounts[currencyId].length * Integer.BYTES;
+        }
+        return bytes;
+    }
+}
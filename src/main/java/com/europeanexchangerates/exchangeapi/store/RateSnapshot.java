@@ -0,0 +1,221 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Immutable view of a loaded data set together with its indexes.
+ *
+ * A snapshot is fully built before it is published so readers holding a
+ * reference to it always see a consistent store and indexes.
+ *
+ * The rates are quoted against the euro. Snapshots of the same data quoted
+ * against another base currency are built from it the first time they are
+ * asked for and kept for the few most recently used bases, so that repeated
+ * queries against a base cost the same as queries against the euro.
+ */
+public final class RateSnapshot {
+    // Number of bases whose snapshots are kept. Each one takes about as much
+    // memory as the euro snapshot without its cross rates.
+    private static final int MAX_REBASED = 8;
+    private static final int EURO = -1;
+
+    private final long version;
+    private final int baseId;
+    private final RateStore store;
+    private final RangeSumIndex rangeSumIndex;
+    private final RangeExtremaIndex rangeExtremaIndex;
+    private final CrossRateMatrix crossRateMatrix;
+    private final Instant loadedAt;
+    private final Duration loadDuration;
+    // Checksum of the data quoted against the euro.
+    private final long checksum;
+    // Snapshots quoted against other bases, or their builds in progress,
+    // keyed by the id of the base in this snapshot's store and ordered from
+    // the least to the most recently used. Guarded by itself.
+    private final LinkedHashMap<Integer, CompletableFuture<RateSnapshot>> rebased =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<RateSnapshot>> eldest) {
+                    return size() > MAX_REBASED;
+                }
+            };
+
+    private RateSnapshot(long version, int baseId, RateStore store, RangeSumIndex rangeSumIndex,
+            RangeExtremaIndex rangeExtremaIndex, CrossRateMatrix crossRateMatrix, Instant loadedAt,
+            Duration loadDuration, long checksum) {
+        this.version = version;
+        this.baseId = baseId;
+        this.store = store;
+        this.rangeSumIndex = rangeSumIndex;
+        this.rangeExtremaIndex = rangeExtremaIndex;
+        this.crossRateMatrix = crossRateMatrix;
+        this.loadedAt = loadedAt;
+        this.loadDuration = loadDuration;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Build the indexes of the store and wrap everything in a snapshot.
+     *
+     * @param version       version of the snapshot
+     * @param store         loaded store
+     * @param loadStartedAt time when loading the store started, used to
+     *                      report how long the whole load took
+     * @return new snapshot
+     */
+    public static RateSnapshot build(long version, RateStore store, Instant loadStartedAt) {
+        return build(version, store, loadStartedAt, null);
+    }
+
+    /**
+     * Build the indexes and the cross rates of the store and wrap everything
+     * in a snapshot.
+     *
+     * @param version           version of the snapshot
+     * @param store             loaded store
+     * @param loadStartedAt     time when loading the store started, used to
+     *                          report how long the whole load took
+     * @param crossRateSettings cross rates to precompute or null to not
+     *                          precompute any
+     * @return new snapshot
+     */
+    public static RateSnapshot build(long version, RateStore store, Instant loadStartedAt,
+            CrossRateMatrix.Settings crossRateSettings) {
+        RangeSumIndex rangeSumIndex = RangeSumIndex.build(store);
+        RangeExtremaIndex rangeExtremaIndex = RangeExtremaIndex.build(store);
+        CrossRateMatrix crossRateMatrix = crossRateSettings == null
+                ? null
+                : CrossRateMatrix.build(store, crossRateSettings);
+        long checksum = RateStoreFile.checksum(store);
+        Instant loadedAt = Instant.now();
+        return new RateSnapshot(version, EURO, store, rangeSumIndex, rangeExtremaIndex, crossRateMatrix,
+                loadedAt, Duration.between(loadStartedAt, loadedAt), checksum);
+    }
+
+    /**
+     * Get the snapshot of the same data quoted against another base
+     * currency, building it if it has not been built yet.
+     *
+     * The rebased snapshot has the same days as this one, so day indexes can
+     * be used with both. Its rates are rounded to a scale that depends on
+     * the base, see {@link ColumnarRateStore#rebase(RateStore, int)}, and it
+     * has no precomputed cross rates.
+     *
+     * @param baseId id of the base currency in the store of this snapshot
+     * @return snapshot quoted against the base
+     */
+    public RateSnapshot rebased(int baseId) {
+        if (isRebased()) {
+            throw new IllegalStateException("Only snapshots quoted against the euro can be rebased.");
+        }
+        CompletableFuture<RateSnapshot> future;
+        boolean build;
+        synchronized (rebased) {
+            future = rebased.get(baseId);
+            build = future == null;
+            if (build) {
+                // Drops the least recently used base once there are too many.
+                future = new CompletableFuture<>();
+                rebased.put(baseId, future);
+            }
+        }
+
+        if (build) {
+            // Built outside the lock so that other bases can be looked up in
+            // the meantime. Concurrent requests for the same base wait for
+            // this build.
+            try {
+                RateStore rebasedStore = ColumnarRateStore.rebase(store, baseId);
+                future.complete(new RateSnapshot(version, baseId, rebasedStore, RangeSumIndex.build(rebasedStore),
+                        RangeExtremaIndex.build(rebasedStore), null, loadedAt, loadDuration, checksum));
+            } catch (RuntimeException e) {
+                synchronized (rebased) {
+                    rebased.remove(baseId, future);
+                }
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * @return whether the rates are quoted against another currency than the
+     *         euro
+     */
+    public boolean isRebased() {
+        return baseId != EURO;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public RateStore getStore() {
+        return store;
+    }
+
+    public RangeSumIndex getRangeSumIndex() {
+        return rangeSumIndex;
+    }
+
+    public RangeExtremaIndex getRangeExtremaIndex() {
+        return rangeExtremaIndex;
+    }
+
+    /**
+     * @return precomputed cross rates or null if they are not precomputed
+     */
+    public CrossRateMatrix getCrossRateMatrix() {
+        return crossRateMatrix;
+    }
+
+    /**
+     * Estimate the heap used by the store, its indexes, the precomputed cross
+     * rates and the snapshots rebased so far. Object headers and the currency
+     * codes are not counted.
+     *
+     * @return estimated number of bytes
+     */
+    public long memoryBytes() {
+        long bytes = store.memoryBytes() + rangeSumIndex.memoryBytes() + rangeExtremaIndex.memoryBytes();
+        List<CompletableFuture<RateSnapshot>> snapshots;
+        synchronized (rebased) {
+            snapshots = new ArrayList<>(rebased.values());
+        }
+        for (CompletableFuture<RateSnapshot> snapshot : snapshots) {
+            // Builds in progress are not counted yet.
+            if (snapshot.isDone() && !snapshot.isCompletedExceptionally()) {
+                bytes += snapshot.join().memoryBytes();
+            }
+        }
+        return crossRateMatrix == null ? bytes : bytes + crossRateMatrix.memoryBytes();
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public Duration getLoadDuration() {
+        return loadDuration;
+    }
+
+    /**
+     * @return CRC32 checksum of the data quoted against the euro, the same
+     *         for the same data regardless of when and where it was loaded
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+}
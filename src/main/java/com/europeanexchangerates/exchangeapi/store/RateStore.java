@@ -0,0 +1,161 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+
+/**
+ * Read-only, date-ordered store of exchange rates.
+ *
+ * Days are addressed by a zero based index in chronological order and
+ * currencies by a small integer id. Rates are exposed as fixed-point longs
+ * scaled by {@link #rateScale()} so that range queries can run over primitive
+ * values without boxing.
+ */
+public interface RateStore {
+    /**
+     * Number of decimal places of the fixed-point rates quoted against the
+     * euro.
+     */
+    int RATE_SCALE = FixedPoint.SCALE;
+
+    /**
+     * Number of decimal places of the fixed-point rate values. Stores quoted
+     * against another currency than the euro may keep more, see
+     * {@link ColumnarRateStore#rebase(RateStore, int)}.
+     *
+     * @return scale of the values returned by {@link #rate(int, int)}
+     */
+    default int rateScale() {
+        return RATE_SCALE;
+    }
+
+    /**
+     * @return number of days in the store
+     */
+    int size();
+
+    /**
+     * @return number of currencies in the store
+     */
+    int currencyCount();
+
+    /**
+     * @return dictionary of the currency codes and their ids
+     */
+    CurrencyDictionary currencies();
+
+    /**
+     * @param currencyId id of the currency
+     * @return currency code for the id
+     */
+    String currencyCode(int currencyId);
+
+    /**
+     * @param currencyCode currency code in any case
+     * @return id of the currency or -1 if the currency is unknown
+     */
+    int currencyId(String currencyCode);
+
+    /**
+     * @param index index of the day
+     * @return date of the day
+     */
+    LocalDate date(int index);
+
+    /**
+     * @param date date to look for
+     * @return index of the date or -1 if there is no data for the date
+     */
+    int indexOf(LocalDate date);
+
+    /**
+     * @param date date to look for
+     * @return index of the first day on or after the date, {@link #size()} if
+     *         there is none
+     */
+    int ceilingIndex(LocalDate date);
+
+    /**
+     * @param date date to look for
+     * @return index of the last day on or before the date, -1 if there is none
+     */
+    int floorIndex(LocalDate date);
+
+    /**
+     * @param currencyId id of the currency
+     * @param index      index of the day
+     * @return true if the currency has a rate on the day
+     */
+    boolean hasRate(int currencyId, int index);
+
+    /**
+     * Get the rate as a fixed-point value scaled by {@link #rateScale()}.
+     *
+     * The result is undefined if the currency has no rate on the day.
+     *
+     * @param currencyId id of the currency
+     * @param index      index of the day
+     * @return scaled rate
+     */
+    long rate(int currencyId, int index);
+
+    /**
+     * @param currencyId id of the currency
+     * @param index      index of the day
+     * @return number of decimal places the rate was published with
+     */
+    int publishedScale(int currencyId, int index);
+
+    /**
+     * Get the rate with the same scale as it was published.
+     *
+     * @param currencyId id of the currency
+     * @param index      index of the day
+     * @return rate or null if the currency has no rate on the day
+     */
+    BigDecimal rateAsBigDecimal(int currencyId, int index);
+
+    /**
+     * Get all the rates of a day keyed by currency code.
+     *
+     * @param index index of the day
+     * @return rates of the day, without the currencies that have no rate
+     */
+    default Map<String, BigDecimal> rates(int index) {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (int currencyId = 0; currencyId < currencyCount(); currencyId++) {
+            BigDecimal rate = rateAsBigDecimal(currencyId, index);
+            if (rate != null) {
+                rates.put(currencyCode(currencyId), rate);
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Copy the whole store into exchange rates keyed by date.
+     *
+     * @return exchange rates
+     */
+    default TreeMap<LocalDate, ExchangeRate> toExchangeRates() {
+        TreeMap<LocalDate, ExchangeRate> exchangeRates = new TreeMap<>();
+        for (int i = 0; i < size(); i++) {
+            exchangeRates.put(date(i), new ExchangeRate(rates(i)));
+        }
+        return exchangeRates;
+    }
+
+    /**
+     * Estimate the heap used by the rates and dates of the store.
+     *
+     * @return estimated number of bytes
+     */
+    default long memoryBytes() {
+        return (long) size() * Integer.BYTES + (long) currencyCount() * size() * (Long.BYTES + 1);
+    }
+}
@@ -0,0 +1,200 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Persists a rate store in a compact binary file so that it can be loaded
+ * again without downloading and parsing the source data.
+ *
+ * The file holds a magic number and a format version, the currency codes, the
+ * epoch days and the fixed-point rate and scale columns. It ends with a CRC32
+ * checksum of everything before it. The file is memory-mapped when read and
+ * rejected if the magic number, the format version or the checksum does not
+ * match.
+ */
+public final class RateStoreFile {
+    private static final int MAGIC = 0x45585253; // "EXRS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int TRAILER_SIZE = Long.BYTES;
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private final Path path;
+
+    public RateStoreFile(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public boolean exists() {
+        return Files.isRegularFile(path);
+    }
+
+    /**
+     * Write the store to the file.
+     *
+     * The data is written to a temporary file first which then replaces the
+     * file so that readers never see a partially written file.
+     *
+     * @param store store to write
+     */
+    public void write(RateStore store) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+                write(store, outputStream);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Write the store in the file format to a stream.
+     *
+     * @param store        store to write
+     * @param outputStream stream to write to, it is not closed
+     */
+    public static void write(RateStore store, OutputStream outputStream) throws IOException {
+        long checksum = writeChecked(store, outputStream);
+        // The checksum itself is written past the checked stream.
+        DataOutputStream trailer = new DataOutputStream(outputStream);
+        trailer.writeLong(checksum);
+        trailer.flush();
+    }
+
+    /**
+     * Compute the checksum that a file of the store ends with. It only depends
+     * on the data, so it identifies the same data across restarts and
+     * instances.
+     *
+     * @param store store to compute the checksum of
+     * @return CRC32 checksum
+     */
+    public static long checksum(RateStore store) {
+        try {
+            return writeChecked(store, OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            // Not thrown by the null stream.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write everything but the trailer.
+     *
+     * @return checksum of the written data
+     */
+    private static long writeChecked(RateStore store, OutputStream outputStream) throws IOException {
+        CRC32 checksum = new CRC32();
+        DataOutputStream data = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(outputStream), checksum));
+        int size = store.size();
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(size);
+        data.writeInt(store.currencyCount());
+        for (int currencyId = 0; currencyId < store.currencyCount(); currencyId++) {
+            byte[] code = store.currencyCode(currencyId).getBytes(StandardCharsets.US_ASCII);
+            data.writeShort(code.length);
+            data.write(code);
+        }
+        for (int i = 0; i < size; i++) {
+            data.writeInt((int) store.date(i).toEpochDay());
+        }
+        for (int currencyId = 0; currencyId < store.currencyCount(); currencyId++) {
+            for (int i = 0; i < size; i++) {
+                data.writeLong(store.hasRate(currencyId, i) ? store.rate(currencyId, i) : MISSING);
+            }
+            for (int i = 0; i < size; i++) {
+                data.writeByte(store.hasRate(currencyId, i) ? store.publishedScale(currencyId, i) : 0);
+            }
+        }
+        data.flush();
+        return checksum.getValue();
+    }
+
+    /**
+     * Read the store from the file.
+     *
+     * @return store with the contents of the file
+     * @throws IOException if the file cannot be read or is not a valid file
+     */
+    public ColumnarRateStore read() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < 4 * Integer.BYTES + TRAILER_SIZE || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid rate store file size " + fileSize + " of " + path + ".");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            int contentSize = (int) fileSize - TRAILER_SIZE;
+
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.slice(0, contentSize));
+            if (checksum.getValue() != buffer.getLong(contentSize)) {
+                throw new IOException("Checksum mismatch in rate store file " + path + ".");
+            }
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("File " + path + " is not a rate store file.");
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported rate store file format version " + formatVersion + ".");
+            }
+            try {
+                return read(buffer.limit(contentSize));
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Invalid rate store file " + path + ".", e);
+            }
+        }
+    }
+
+    private static ColumnarRateStore read(ByteBuffer buffer) throws IOException {
+        int size = buffer.getInt();
+        int currencyCount = buffer.getInt();
+        if (size < 0 || currencyCount < 0) {
+            throw new IOException("Invalid rate store file header.");
+        }
+        String[] currencyCodes = new String[currencyCount];
+        for (int currencyId = 0; currencyId < currencyCount; currencyId++) {
+            byte[] code = new byte[buffer.getShort() & 0xffff];
+            buffer.get(code);
+            currencyCodes[currencyId] = new String(code, StandardCharsets.US_ASCII);
+        }
+        int[] epochDays = new int[size];
+        buffer.asIntBuffer().get(epochDays);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+
+        long[][] rates = new long[currencyCount][size];
+        byte[][] scales = new byte[currencyCount][size];
+        for (int currencyId = 0; currencyId < currencyCount; currencyId++) {
+            buffer.asLongBuffer().get(rates[currencyId]);
+            buffer.position(buffer.position() + size * Long.BYTES);
+            buffer.get(scales[currencyId]);
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Unexpected data at the end of the rate store file.");
+        }
+        return ColumnarRateStore.of(epochDays, currencyCodes, rates, scales);
+    }
+}
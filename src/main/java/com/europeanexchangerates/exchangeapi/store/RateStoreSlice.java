@@ -0,0 +1,130 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * View of the consecutive days and some of the currencies of another store.
+ *
+ * Nothing is copied, so a slice of a snapshot's store can be streamed in any
+ * format that writes a {@link RateStore}, like {@link RateStoreFile}, in
+ * constant memory. Days and currencies are renumbered from zero in the slice.
+ */
+public final class RateStoreSlice implements RateStore {
+    private final RateStore store;
+    private final int fromIndex;
+    private final int size;
+    private final int[] currencyIds;
+    private final CurrencyDictionary currencies;
+
+    private RateStoreSlice(RateStore store, int fromIndex, int size, int[] currencyIds,
+            CurrencyDictionary currencies) {
+        this.store = store;
+        this.fromIndex = fromIndex;
+        this.size = size;
+        this.currencyIds = currencyIds;
+        this.currencies = currencies;
+    }
+
+    /**
+     * Create a view of some days and currencies of a store.
+     *
+     * @param store       store to view
+     * @param fromIndex   index of the first day in the store
+     * @param toIndex     index of the last day in the store, inclusive
+     * @param currencyIds ids of the currencies in the store, in the order they
+     *                    are given in the slice
+     * @return new slice
+     * @throws IllegalArgumentException if a currency appears twice
+     */
+    public static RateStoreSlice of(RateStore store, int fromIndex, int toIndex, int[] currencyIds) {
+        if (fromIndex < 0 || toIndex >= store.size() || toIndex < fromIndex - 1) {
+            throw new IndexOutOfBoundsException("Invalid day range " + fromIndex + " to " + toIndex + ".");
+        }
+        String[] codes = new String[currencyIds.length];
+        for (int i = 0; i < currencyIds.length; i++) {
+            codes[i] = store.currencyCode(currencyIds[i]);
+        }
+        return new RateStoreSlice(store, fromIndex, toIndex - fromIndex + 1, currencyIds.clone(),
+                CurrencyDictionary.of(codes));
+    }
+
+    @Override
+    public int rateScale() {
+        return store.rateScale();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int currencyCount() {
+        return currencyIds.length;
+    }
+
+    @Override
+    public CurrencyDictionary currencies() {
+        return currencies;
+    }
+
+    @Override
+    public String currencyCode(int currencyId) {
+        return currencies.code(currencyId);
+    }
+
+    @Override
+    public int currencyId(String currencyCode) {
+        return currencies.id(currencyCode);
+    }
+
+    @Override
+    public LocalDate date(int index) {
+        return store.date(fromIndex + index);
+    }
+
+    @Override
+    public int indexOf(LocalDate date) {
+        int index = store.indexOf(date) - fromIndex;
+        return index >= 0 && index < size ? index : -1;
+    }
+
+    @Override
+    public int ceilingIndex(LocalDate date) {
+        return Math.min(Math.max(store.ceilingIndex(date) - fromIndex, 0), size);
+    }
+
+    @Override
+    public int floorIndex(LocalDate date) {
+        return Math.max(Math.min(store.floorIndex(date) - fromIndex, size - 1), -1);
+    }
+
+    @Override
+    public boolean hasRate(int currencyId, int index) {
+        return store.hasRate(currencyIds[currencyId], fromIndex + index);
+    }
+
+    @Override
+    public long rate(int currencyId, int index) {
+        return store.rate(currencyIds[currencyId], fromIndex + index);
+    }
+
+    @Override
+    public int publishedScale(int currencyId, int index) {
+        return store.publishedScale(currencyIds[currencyId], fromIndex + index);
+    }
+
+    @Override
+    public BigDecimal rateAsBigDecimal(int currencyId, int index) {
+        return store.rateAsBigDecimal(currencyIds[currencyId], fromIndex + index);
+    }
+
+    /**
+     * The rates stay in the viewed store, so a slice takes no memory for them.
+     */
+    @Override
+    public long memoryBytes() {
+        return 0;
+    }
+}
@@ -0,0 +1,205 @@
+package com.europeanexchangerates.exchangeapi.util.datadownloader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads a stream ahead on a separate thread so that the reader of this stream
+ * does not wait for the source while it works on data that is already read.
+ *
+ * A producer thread reads the source into a fixed set of reusable buffers and
+ * hands the filled buffers over to the reader, which gives them back once it
+ * has consumed them. For a downloaded archive this overlaps downloading and
+ * inflating with parsing. The producer stops when all the buffers are waiting
+ * to be consumed, so no more than the buffers are held in memory however large
+ * the source is.
+ *
+ * This stream is meant to be read by a single thread. Closing it stops the
+ * producer but does not close the source.
+ */
+public class PipelinedInputStream extends InputStream {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+
+    // Marks the end of the source, or the failure to read it.
+    private static final Chunk END = new Chunk(0);
+
+    private final InputStream source;
+    private final BlockingQueue<Chunk> filled;
+    private final BlockingQueue<Chunk> free;
+    private final Thread producer;
+    // Set by the producer before it queues END.
+    private volatile IOException failure;
+
+    private Chunk current;
+    private int position;
+    private boolean ended;
+    private long bytes;
+    private long waitNanos;
+
+    public PipelinedInputStream(InputStream source) {
+        this(source, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+    }
+
+    /**
+     * @param source      stream to read ahead
+     * @param bufferSize  size of each buffer in bytes
+     * @param bufferCount number of buffers, at least two so that the producer
+     *                    can fill one while the other is being read
+     */
+    public PipelinedInputStream(InputStream source, int bufferSize, int bufferCount) {
+        if (bufferSize < 1 || bufferCount < 2) {
+            throw new IllegalArgumentException("At least two non-empty buffers are needed.");
+        }
+        this.source = source;
+        // One more slot than buffers so that END always fits.
+        this.filled = new ArrayBlockingQueue<>(bufferCount + 1);
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(new Chunk(bufferSize));
+        }
+        this.producer = new Thread(this::produce, "exchange-rate-reader");
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    private void produce() {
+        try {
+            while (true) {
+                Chunk chunk = free.take();
+                // Fill the whole buffer so that the reader is handed fewer,
+                // larger chunks.
+                int length = 0;
+                int read = 0;
+                while (length < chunk.data.length
+                        && (read = source.read(chunk.data, length, chunk.data.length - length)) >= 0) {
+                    length += read;
+                }
+                if (length > 0) {
+                    chunk.length = length;
+                    filled.put(chunk);
+                }
+                if (read < 0) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed before the end of the source was reached.
+            return;
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException(e);
+        }
+        filled.add(END);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        int b = current.data[position++] & 0xff;
+        bytes++;
+        releaseIfConsumed();
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current.data, position, b, off, count);
+        position += count;
+        bytes += count;
+        releaseIfConsumed();
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - position;
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (current != null) {
+            return true;
+        }
+        if (ended) {
+            return false;
+        }
+        long startedAt = System.nanoTime();
+        Chunk chunk;
+        try {
+            chunk = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for data.");
+        } finally {
+            waitNanos += System.nanoTime() - startedAt;
+        }
+        if (chunk == END) {
+            ended = true;
+            if (failure != null) {
+                throw new IOException("Reading the source failed.", failure);
+            }
+            return false;
+        }
+        current = chunk;
+        position = 0;
+        return true;
+    }
+
+    private void releaseIfConsumed() {
+        if (position == current.length) {
+            free.add(current);
+            current = null;
+        }
+    }
+
+    /**
+     * Stop the producer and wait for it to finish. A read of the source that
+     * is in progress is completed first.
+     */
+    @Override
+    public void close() throws IOException {
+        producer.interrupt();
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while stopping the producer.");
+        }
+    }
+
+    /**
+     * @return number of bytes read from this stream
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return nanoseconds the reader spent waiting for the producer
+     */
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    private static final class Chunk {
+        private final byte[] data;
+        private int length;
+
+        private Chunk(int size) {
+            this.data = new byte[size];
+        }
+    }
+}
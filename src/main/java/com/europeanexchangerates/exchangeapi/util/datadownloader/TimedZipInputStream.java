@@ -0,0 +1,109 @@
+package com.europeanexchangerates.exchangeapi.util.datadownloader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * ZIP input stream that keeps track of the time spent reading it.
+ *
+ * The archive is downloaded, inflated and parsed at the same time, so the
+ * time of each stage cannot be measured around a single call. Instead the
+ * time spent waiting for compressed data from the underlying stream is counted
+ * as download time and the rest of the time spent reading entries is counted
+ * as inflate time. Whatever else the reader spends is its own time.
+ */
+public class TimedZipInputStream extends ZipInputStream {
+    private final TimedInputStream compressed;
+    private final long openNanos;
+    private long readNanos;
+
+    /**
+     * @param in        compressed data
+     * @param openNanos time it took to open the compressed data, counted as
+     *                  download time
+     */
+    public TimedZipInputStream(InputStream in, long openNanos) {
+        this(new TimedInputStream(in), openNanos);
+    }
+
+    private TimedZipInputStream(TimedInputStream compressed, long openNanos) {
+        super(compressed);
+        this.compressed = compressed;
+        this.openNanos = openNanos;
+    }
+
+    @Override
+    public ZipEntry getNextEntry() throws IOException {
+        long startedAt = System.nanoTime();
+        try {
+            return super.getNextEntry();
+        } finally {
+            readNanos += System.nanoTime() - startedAt;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long startedAt = System.nanoTime();
+        try {
+            return super.read(b, off, len);
+        } finally {
+            readNanos += System.nanoTime() - startedAt;
+        }
+    }
+
+    /**
+     * @return nanoseconds spent opening and waiting for the compressed data
+     */
+    public long getDownloadNanos() {
+        return openNanos + compressed.nanos;
+    }
+
+    /**
+     * @return nanoseconds spent inflating the compressed data
+     */
+    public long getInflateNanos() {
+        return Math.max(0, readNanos - compressed.nanos);
+    }
+
+    private static final class TimedInputStream extends FilterInputStream {
+        private long nanos;
+
+        private TimedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long startedAt = System.nanoTime();
+            try {
+                return super.read();
+            } finally {
+                nanos += System.nanoTime() - startedAt;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long startedAt = System.nanoTime();
+            try {
+                return in.read(b, off, len);
+            } finally {
+                nanos += System.nanoTime() - startedAt;
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long startedAt = System.nanoTime();
+            try {
+                return super.skip(n);
+            } finally {
+                nanos += System.nanoTime() - startedAt;
+            }
+        }
+    }
+}
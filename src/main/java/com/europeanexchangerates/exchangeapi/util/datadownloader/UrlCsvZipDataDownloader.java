@@ -1,13 +1,16 @@
 package com.europeanexchangerates.exchangeapi.util.datadownloader;
 
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.net.URL;
-import java.util.zip.ZipInputStream;
 
 public class UrlCsvZipDataDownloader implements DataDownloader {
+    // ZipInputStream reads the compressed data in small pieces.
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     public InputStream downloadData(String url) throws Exception {
-        ZipInputStream zipInputStream = new ZipInputStream(
-                (new URL(url)).openStream());
-        return zipInputStream;
+        long startedAt = System.nanoTime();
+        InputStream compressed = new BufferedInputStream((new URL(url)).openStream(), BUFFER_SIZE);
+        return new TimedZipInputStream(compressed, System.nanoTime() - startedAt);
     }
 }
@@ -0,0 +1,292 @@
+package com.europeanexchangerates.exchangeapi.util.dataparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.exception.MalformedDataException;
+import com.europeanexchangerates.exchangeapi.store.ColumnarRateStore;
+import com.europeanexchangerates.exchangeapi.store.CurrencyDictionary;
+import com.europeanexchangerates.exchangeapi.store.FixedPoint;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+/**
+ * Parses the ECB CSV file straight from the bytes of the stream into a
+ * columnar store.
+ *
+ * Dates and rates are parsed by hand into primitives so that no Strings,
+ * LocalDates, BigDecimals or maps are created per row. Only the currency codes
+ * of the header are turned into Strings. The empty column after the trailing
+ * comma of the ECB file is ignored and "N/A" cells are skipped.
+ */
+public class ByteCsvDataParser implements DataParser {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int EOF = -1;
+    private static final int MAX_DIGITS = 18;
+
+    // Number of days from 0000-01-01 to 1970-01-01, see LocalDate.toEpochDay.
+    private static final int DAYS_0000_TO_1970 = 719_528;
+
+    public TreeMap<LocalDate, ExchangeRate> parseData(InputStream inputStream) throws Exception {
+        return parseToStore(inputStream).toExchangeRates();
+    }
+
+    @Override
+    public TreeMap<LocalDate, ExchangeRate> parseDataSince(InputStream inputStream, LocalDate after)
+            throws Exception {
+        return parse(inputStream, after.toEpochDay()).toExchangeRates();
+    }
+
+    @Override
+    public RateStore parseToStore(InputStream inputStream) throws Exception {
+        return parse(inputStream, Long.MIN_VALUE);
+    }
+
+    private RateStore parse(InputStream inputStream, long afterEpochDay) throws IOException {
+        Reader reader = new Reader(inputStream);
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int[] columns = parseHeader(reader, builder);
+
+        int previousEpochDay = Integer.MAX_VALUE;
+        boolean newestFirst = true;
+        int line = 1;
+        while (reader.peek() != EOF) {
+            line++;
+            if (reader.skipLineEnd()) {
+                continue;
+            }
+            int epochDay = parseDate(reader, line);
+            if (epochDay >= previousEpochDay) {
+                newestFirst = false;
+            }
+            previousEpochDay = epochDay;
+            if (epochDay <= afterEpochDay) {
+                // The ECB file lists the newest date first so no newer rows
+                // can follow.
+                if (newestFirst) {
+                    break;
+                }
+                reader.skipLine();
+                continue;
+            }
+
+            int row = builder.addEpochDay(epochDay);
+            for (int column = 0; column < columns.length; column++) {
+                if (reader.read() != ',') {
+                    throw new MalformedDataException("Missing rates on line " + line + ".");
+                }
+                parseRate(reader, builder, row, columns[column], line);
+            }
+            // Ignore the trailing empty column and anything after the known
+            // columns like the String based parser does.
+            reader.skipLine();
+        }
+
+        return builder.build();
+    }
+
+    private static int[] parseHeader(Reader reader, ColumnarRateStore.Builder builder) throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        int b;
+        while ((b = reader.read()) != EOF && b != '\n') {
+            if (b == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (b != '\r') {
+                cell.append((char) b);
+            }
+        }
+        cells.add(cell.toString());
+        if (cells.size() < 2 || cells.get(0).isEmpty()) {
+            throw new MalformedDataException("The header line is missing.");
+        }
+
+        // The first column holds the dates and the ECB file ends every line
+        // with a comma which results in an empty last column.
+        if (cells.get(cells.size() - 1).isBlank()) {
+            cells.remove(cells.size() - 1);
+        }
+        int[] columns = new int[cells.size() - 1];
+        for (int i = 1; i < cells.size(); i++) {
+            String currency = cells.get(i).trim();
+            if (!CurrencyDictionary.isValid(currency)) {
+                throw new MalformedDataException("Invalid currency " + currency + " in the header.");
+            }
+            columns[i - 1] = builder.currency(currency);
+        }
+        return columns;
+    }
+
+    private static int parseDate(Reader reader, int line) throws IOException {
+        int year = parseDigits(reader, 4, line);
+        expect(reader, '-', line);
+        int month = parseDigits(reader, 2, line);
+        expect(reader, '-', line);
+        int day = parseDigits(reader, 2, line);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new MalformedDataException("Invalid date on line " + line + ".");
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    private static void parseRate(Reader reader, ColumnarRateStore.Builder builder, int row,
+            int currencyId, int line) throws IOException {
+        if (reader.peek() == 'N') {
+            reader.read();
+            expect(reader, '/', line);
+            expect(reader, 'A', line);
+            return;
+        }
+
+        long value = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        int b;
+        while ((b = reader.peek()) != EOF) {
+            if (b >= '0' && b <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    throw new MalformedDataException("Rate is too long on line " + line + ".");
+                }
+                value = value * 10 + (b - '0');
+                if (fraction) {
+                    scale++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            reader.read();
+        }
+        if (digits == 0) {
+            throw new MalformedDataException("Missing rate on line " + line + ".");
+        }
+        if (scale > RateStore.RATE_SCALE) {
+            throw new MalformedDataException("Rate has more than " + RateStore.RATE_SCALE
+                    + " decimal places on line " + line + ".");
+        }
+        // Every rate has to fit into a long once it is scaled to RATE_SCALE.
+        if (digits - scale + RateStore.RATE_SCALE > MAX_DIGITS) {
+            throw new MalformedDataException("Rate is too large on line " + line + ".");
+        }
+        builder.putRate(row, currencyId, FixedPoint.rescale(value, scale, RateStore.RATE_SCALE), scale);
+    }
+
+    private static int parseDigits(Reader reader, int count, int line) throws IOException {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int b = reader.read();
+            if (b < '0' || b > '9') {
+                throw new MalformedDataException("Invalid date on line " + line + ".");
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static void expect(Reader reader, char expected, int line) throws IOException {
+        if (reader.read() != expected) {
+            throw new MalformedDataException("Expected '" + expected + "' on line " + line + ".");
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Same computation as LocalDate.toEpochDay for years from 0 onwards.
+    private static int toEpochDay(int year, int month, int day) {
+        int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Reads the stream through a reusable byte buffer.
+     */
+    private static final class Reader {
+        private final InputStream inputStream;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        private Reader(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        int peek() throws IOException {
+            if (position == limit && !fill()) {
+                return EOF;
+            }
+            return buffer[position] & 0xff;
+        }
+
+        int read() throws IOException {
+            if (position == limit && !fill()) {
+                return EOF;
+            }
+            return buffer[position++] & 0xff;
+        }
+
+        /**
+         * Consume a line end if one is next.
+         *
+         * @return true if a line end was consumed
+         */
+        boolean skipLineEnd() throws IOException {
+            int b = peek();
+            if (b == '\r' || b == '\n') {
+                read();
+                return true;
+            }
+            return false;
+        }
+
+        void skipLine() throws IOException {
+            int b;
+            while ((b = read()) != EOF && b != '\n') {
+                // Skip until the end of the line.
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int read = inputStream.read(buffer, 0, buffer.length);
+            while (read == 0) {
+                read = inputStream.read(buffer, 0, buffer.length);
+            }
+            if (read < 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+    }
+}
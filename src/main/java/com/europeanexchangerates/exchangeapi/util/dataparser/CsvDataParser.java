@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
@@ -13,22 +14,47 @@ import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
 
 public class CsvDataParser implements DataParser {
     public TreeMap<LocalDate, ExchangeRate> parseData(InputStream inputStream) throws Exception {
+        return parseDataSince(inputStream, LocalDate.MIN);
+    }
+
+    /**
+     * Parse the exchange rates of the dates after the given date.
+     * 
+     * The ECB file lists the newest date first. As long as the rows are in
+     * that order, parsing stops at the first row that is not after the given
+     * date so that the rest of the stream does not have to be read.
+     */
+    @Override
+    public TreeMap<LocalDate, ExchangeRate> parseDataSince(InputStream inputStream, LocalDate after)
+            throws Exception {
         TreeMap<LocalDate, ExchangeRate> exchangeRates = new TreeMap<>();
         BufferedReader bufferedReader = new BufferedReader(
-                new InputStreamReader(inputStream));
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8));
 
         // Iterate over each entry in the zip file
         // Skip header line
         String[] headers = bufferedReader.readLine().split(",");
         String line;
+        LocalDate previousDate = null;
+        boolean newestFirst = true;
         while ((line = bufferedReader.readLine()) != null) {
             String[] data = line.split(",");
             LocalDate date = LocalDate.parse(data[0]);
+            if (previousDate != null && !date.isBefore(previousDate)) {
+                newestFirst = false;
+            }
+            previousDate = date;
+            if (!date.isAfter(after)) {
+                if (newestFirst) {
+                    break;
+                }
+                continue;
+            }
 
             Map<String, BigDecimal> rates = new HashMap<>();
             for (int i = 1; i < headers.length; i++) {
                 if (!data[i].equals("N/A")) {
-                    rates.put(headers[i], new BigDecimal(data[i]));
+                    rates.put(headers[i].trim(), new BigDecimal(data[i]));
                 }
             }
             exchangeRates.put(date, new ExchangeRate(rates));
@@ -5,7 +5,34 @@ import java.time.LocalDate;
 import java.util.TreeMap;
 
 import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.store.ColumnarRateStore;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
 
 public interface DataParser {
     public TreeMap<LocalDate, ExchangeRate> parseData(InputStream inputStream) throws Exception;
+
+    /**
+     * Parse only the exchange rates of the dates after the given date.
+     * 
+     * Implementations may stop reading the input stream once no newer dates
+     * can follow.
+     * 
+     * @param inputStream data to parse
+     * @param after       only dates after this date are returned
+     * @return exchange rates after the date
+     */
+    public default TreeMap<LocalDate, ExchangeRate> parseDataSince(InputStream inputStream, LocalDate after)
+            throws Exception {
+        return new TreeMap<>(parseData(inputStream).tailMap(after, false));
+    }
+
+    /**
+     * Parse the data into a columnar rate store.
+     * 
+     * @param inputStream data to parse
+     * @return parsed rates
+     */
+    public default RateStore parseToStore(InputStream inputStream) throws Exception {
+        return ColumnarRateStore.of(parseData(inputStream));
+    }
 }
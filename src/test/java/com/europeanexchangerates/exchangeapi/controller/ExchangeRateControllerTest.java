@@ -1,32 +1,70 @@
 package com.europeanexchangerates.exchangeapi.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.europeanexchangerates.exchangeapi.dto.CurrencyAverageRate;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyConversion;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyHighestRate;
+import com.europeanexchangerates.exchangeapi.dto.CurrencyLowestRate;
 import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.dto.RateSummary;
+import com.europeanexchangerates.exchangeapi.dto.SnapshotStatus;
 import com.europeanexchangerates.exchangeapi.exception.InvalidDateRangeException;
+import com.europeanexchangerates.exchangeapi.exception.UnknownCurrencyException;
+import com.europeanexchangerates.exchangeapi.service.BatchCurrencyConverter;
+import com.europeanexchangerates.exchangeapi.service.DateFallback;
 import com.europeanexchangerates.exchangeapi.service.ExchangeRateService;
+import com.europeanexchangerates.exchangeapi.service.RollingSeries;
+import com.europeanexchangerates.exchangeapi.service.RollingStatistic;
+import com.europeanexchangerates.exchangeapi.service.TimeSeries;
+import com.europeanexchangerates.exchangeapi.store.ColumnarRateStore;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+import com.europeanexchangerates.exchangeapi.store.RateStoreFile;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @WebMvcTest(ExchangeRateController.class)
+@Import({ RatesResponseCache.class, RangeQueryCache.class })
 public class ExchangeRateControllerTest {
 
     @Autowired
@@ -38,6 +76,15 @@ public class ExchangeRateControllerTest {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    private RangeQueryCache rangeQueryCache;
+
+    @BeforeEach
+    void setUp() {
+        // The cache outlives the mocked service between the tests.
+        rangeQueryCache.clear();
+    }
+
     @Test
     public void testGetRatesEndpoint() throws Exception {
         Optional<ExchangeRate> exchangeRate = Optional.of(new ExchangeRate(
@@ -50,7 +97,7 @@ public class ExchangeRateControllerTest {
                     }
                 }));
 
-        when(service.getRatesForDate(any())).thenReturn(exchangeRate);
+        when(service.getRatesForDate(any(), any(), any())).thenReturn(exchangeRate);
 
         mockMvc.perform(get("/rates")
                 .param("date", "2023-05-30")
@@ -59,11 +106,43 @@ public class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$.rates").exists());
     }
 
+    @Test
+    public void getRates_acceptsGzip_returnsGzipEncodedJson() throws Exception {
+        when(service.getRatesForDate(any(), any(), any())).thenReturn(Optional.of(new ExchangeRate(
+                Map.of("USD", new BigDecimal("1.0744")))));
+
+        byte[] body = mockMvc.perform(get("/rates")
+                .param("date", "2023-05-30")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(new BigDecimal("1.0744"),
+                    objectMapper.readTree(gzip).get("rates").get("USD").decimalValue());
+        }
+    }
+
+    @Test
+    public void getRates_gzipNotAcceptable_returnsPlainJson() throws Exception {
+        when(service.getRatesForDate(any(), any(), any())).thenReturn(Optional.of(new ExchangeRate(
+                Map.of("USD", new BigDecimal("1.0744")))));
+
+        mockMvc.perform(get("/rates")
+                .param("date", "2023-05-30")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.rates.USD").value(1.0744));
+    }
+
     @Test
     public void testGetRatesEndpoint_NoContent() throws Exception {
         LocalDate date = LocalDate.parse("2022-01-01");
 
-        when(service.getRatesForDate(date)).thenReturn(Optional.empty());
+        when(service.getRatesForDate(date, DateFallback.NONE, null)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/rates")
                 .param("date", "2022-01-01"))
@@ -71,6 +150,57 @@ public class ExchangeRateControllerTest {
                 .andReturn();
     }
 
+    @Test
+    public void getRates_fallbackPrevious_returnsRatesOfResolvedDate() throws Exception {
+        LocalDate sunday = LocalDate.of(2023, 5, 28);
+        LocalDate friday = LocalDate.of(2023, 5, 26);
+        when(service.resolveDate(sunday, DateFallback.PREVIOUS)).thenReturn(Optional.of(friday));
+        when(service.getRatesForDate(friday, DateFallback.NONE, null)).thenReturn(Optional.of(
+                new ExchangeRate(friday, Map.of("USD", new BigDecimal("1.0751")))));
+
+        mockMvc.perform(get("/rates")
+                .param("date", "2023-05-28")
+                .param("fallback", "previous"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.date").value("2023-05-26"))
+                .andExpect(jsonPath("$.rates.USD").value(1.0751));
+    }
+
+    @Test
+    public void getRates_base_returnsRatesQuotedAgainstBase() throws Exception {
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        when(service.resolveBase("USD")).thenReturn(0);
+        when(service.getRatesForDate(date, DateFallback.NONE, "USD")).thenReturn(Optional.of(
+                new ExchangeRate(date, "USD", Map.of("USD", new BigDecimal("1.000000"),
+                        "JPY", new BigDecimal("139.621184")))));
+
+        mockMvc.perform(get("/rates")
+                .param("date", "2023-05-30")
+                .param("base", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.base").value("USD"))
+                .andExpect(jsonPath("$.rates.JPY").value(139.621184));
+    }
+
+    @Test
+    public void getRates_unknownBase_returnsBadRequest() throws Exception {
+        when(service.resolveBase("EEK")).thenThrow(new UnknownCurrencyException("Unknown currency EEK."));
+
+        mockMvc.perform(get("/rates")
+                .param("date", "2023-05-30")
+                .param("base", "EEK"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unknown currency EEK."));
+    }
+
+    @Test
+    public void getRates_unsupportedFallback_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/rates")
+                .param("date", "2023-05-28")
+                .param("fallback", "next"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testConvertCurrencyEndpoint() throws Exception {
         Optional<CurrencyConversion> conversion = Optional.of(new CurrencyConversion(
@@ -80,7 +210,7 @@ public class ExchangeRateControllerTest {
                 LocalDate.of(2023, 5, 30),
                 BigDecimal.valueOf(50)));
 
-        when(service.convertCurrency(any(), any(), any(), any())).thenReturn(conversion);
+        when(service.convertCurrency(any(), any(), any(), any(), any())).thenReturn(conversion);
 
         mockMvc.perform(get("/convert")
                 .param("date", "2023-05-30")
@@ -92,10 +222,27 @@ public class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$.convertedAmount").exists());
     }
 
+    @Test
+    public void convertCurrency_fallbackPrevious_reportsResolvedDate() throws Exception {
+        when(service.convertCurrency(LocalDate.of(2023, 5, 28), "USD", "EUR", BigDecimal.valueOf(100),
+                DateFallback.PREVIOUS)).thenReturn(Optional.of(new CurrencyConversion("USD", "EUR",
+                        BigDecimal.valueOf(100), LocalDate.of(2023, 5, 26), BigDecimal.valueOf(93.01))));
+
+        mockMvc.perform(get("/convert")
+                .param("date", "2023-05-28")
+                .param("source", "USD")
+                .param("target", "EUR")
+                .param("amount", "100")
+                .param("fallback", "PREVIOUS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conversionDate").value("2023-05-26"));
+    }
+
     @Test
     public void testConvertCurrencyEndpoint_NoContent() throws Exception {
         LocalDate date = LocalDate.parse("2022-01-01");
-        when(service.convertCurrency(date, "USD", "EUR", BigDecimal.valueOf(100))).thenReturn(Optional.empty());
+        when(service.convertCurrency(date, "USD", "EUR", BigDecimal.valueOf(100), DateFallback.NONE))
+                .thenReturn(Optional.empty());
 
         mockMvc.perform(get("/convert")
                 .param("date", date.toString())
@@ -106,6 +253,402 @@ public class ExchangeRateControllerTest {
                 .andReturn();
     }
 
+    @Test
+    public void convertCurrencies_jsonArray_streamsConversionsInOrder() throws Exception {
+        BatchCurrencyConverter converter = mock(BatchCurrencyConverter.class);
+        when(service.newBatchConverter()).thenReturn(converter);
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        when(converter.convert(date, "USD", "JPY", new BigDecimal("100")))
+                .thenReturn(new CurrencyConversion("USD", "JPY", new BigDecimal("100"), date,
+                        new BigDecimal("13962.21")));
+        LocalDate sunday = LocalDate.of(2023, 5, 28);
+        when(converter.convert(sunday, "USD", "GBP", new BigDecimal("5")))
+                .thenReturn(new CurrencyConversion("USD", "GBP", new BigDecimal("5"), sunday, null));
+
+        MvcResult result = mockMvc.perform(post("/convert/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"date\":\"2023-05-30\",\"source\":\"USD\",\"target\":\"JPY\",\"amount\":100},"
+                        + "{\"date\":\"2023-05-28\",\"source\":\"USD\",\"target\":\"GBP\",\"amount\":5}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].targetCurrency").value("JPY"))
+                .andExpect(jsonPath("$[0].convertedAmount").value(13962.21))
+                .andExpect(jsonPath("$[1].targetCurrency").value("GBP"))
+                .andExpect(jsonPath("$[1].convertedAmount").isEmpty());
+        verify(service, times(1)).newBatchConverter();
+    }
+
+    @Test
+    public void convertCurrencies_unknownCurrency_answersItWithError() throws Exception {
+        BatchCurrencyConverter converter = mock(BatchCurrencyConverter.class);
+        when(service.newBatchConverter()).thenReturn(converter);
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        when(converter.convert(date, "USD", "JPY", new BigDecimal("100")))
+                .thenReturn(new CurrencyConversion("USD", "JPY", new BigDecimal("100"), date,
+                        new BigDecimal("13962.21")));
+        when(converter.convert(date, "USD", "EEK", new BigDecimal("5")))
+                .thenThrow(new UnknownCurrencyException("Unknown currency EEK."));
+
+        MvcResult result = mockMvc.perform(post("/convert/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"date\":\"2023-05-30\",\"source\":\"USD\",\"target\":\"EEK\",\"amount\":5},"
+                        + "{\"date\":\"2023-05-30\",\"source\":\"USD\",\"target\":\"JPY\",\"amount\":100}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].error").value("Unknown currency EEK."))
+                .andExpect(jsonPath("$[1].convertedAmount").value(13962.21));
+    }
+
+    @Test
+    public void convertCurrencies_lowerCaseCurrency_returnsUpperCaseCode() throws Exception {
+        BatchCurrencyConverter converter = mock(BatchCurrencyConverter.class);
+        when(service.newBatchConverter()).thenReturn(converter);
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        when(converter.convert(date, "usd", "jpy", new BigDecimal("100")))
+                .thenReturn(new CurrencyConversion("USD", "JPY", new BigDecimal("100"), date,
+                        new BigDecimal("13962.21")));
+
+        MvcResult result = mockMvc.perform(post("/convert/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"date\":\"2023-05-30\",\"source\":\"usd\",\"target\":\"jpy\",\"amount\":100}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sourceCurrency").value("USD"))
+                .andExpect(jsonPath("$.targetCurrency").value("JPY"))
+                .andExpect(jsonPath("$.convertedAmount").value(13962.21));
+    }
+
+    @Test
+    public void convertCurrencies_ndjson_streamsNdjson() throws Exception {
+        BatchCurrencyConverter converter = mock(BatchCurrencyConverter.class);
+        when(service.newBatchConverter()).thenReturn(converter);
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        when(converter.convert(date, "USD", "JPY", new BigDecimal("100")))
+                .thenReturn(new CurrencyConversion("USD", "JPY", new BigDecimal("100"), date,
+                        new BigDecimal("13962.21")));
+
+        MvcResult result = mockMvc.perform(post("/convert/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"date\":\"2023-05-30\",\"source\":\"USD\",\"target\":\"JPY\",\"amount\":100}\n"
+                        + "{\"date\":\"2023-05-30\",\"source\":\"USD\",\"target\":\"JPY\",\"amount\":100}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        for (String line : lines) {
+            assertEquals(new BigDecimal("13962.21"),
+                    objectMapper.readTree(line).get("convertedAmount").decimalValue());
+        }
+    }
+
+    @Test
+    public void convertCurrencies_jsonArrayWithInvalidRequests_answersThemWithErrors() throws Exception {
+        BatchCurrencyConverter converter = mock(BatchCurrencyConverter.class);
+        when(service.newBatchConverter()).thenReturn(converter);
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        when(converter.convert(date, "USD", "JPY", new BigDecimal("100")))
+                .thenReturn(new CurrencyConversion("USD", "JPY", new BigDecimal("100"), date,
+                        new BigDecimal("13962.21")));
+        String conversion = "{\"date\":\"2023-05-30\",\"source\":\"USD\",\"target\":\"JPY\",\"amount\":100}";
+
+        MvcResult result = mockMvc.perform(post("/convert/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + conversion + ",{\"date\":\"2023-13-45\",\"amount\":1}," + conversion
+                        + ",{\"amount\":abc}," + conversion + "]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // The request that cannot be mapped is skipped, while malformed JSON
+        // ends the batch.
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].convertedAmount").value(13962.21))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].error").isNotEmpty())
+                .andExpect(jsonPath("$[2].convertedAmount").value(13962.21))
+                .andExpect(jsonPath("$[3].index").value(3))
+                .andExpect(jsonPath("$[3].error").isNotEmpty());
+    }
+
+    @Test
+    public void convertCurrencies_ndjsonWithMalformedLine_answersItWithErrorAndContinues() throws Exception {
+        BatchCurrencyConverter converter = mock(BatchCurrencyConverter.class);
+        when(service.newBatchConverter()).thenReturn(converter);
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        when(converter.convert(date, "USD", "JPY", new BigDecimal("100")))
+                .thenReturn(new CurrencyConversion("USD", "JPY", new BigDecimal("100"), date,
+                        new BigDecimal("13962.21")));
+
+        MvcResult result = mockMvc.perform(post("/convert/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"date\":\"2023-05-30\",\"source\":\"USD\",\"target\":\"JPY\",\"amount\":100}\n"
+                        + "{\"date\":\"2023-05-30\",\"amount\":abc}\n"
+                        + "\n"
+                        + "{\"date\":\"2023-05-30\",\"source\":\"USD\",\"target\":\"JPY\",\"amount\":100}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(new BigDecimal("13962.21"), objectMapper.readTree(lines[0]).get("convertedAmount").decimalValue());
+        assertEquals(1, objectMapper.readTree(lines[1]).get("index").intValue());
+        assertTrue(objectMapper.readTree(lines[1]).hasNonNull("error"));
+        assertEquals(new BigDecimal("13962.21"), objectMapper.readTree(lines[2]).get("convertedAmount").decimalValue());
+    }
+
+    private TimeSeries mockTimeSeries() {
+        TimeSeries timeSeries = mock(TimeSeries.class);
+        when(timeSeries.size()).thenReturn(2);
+        when(timeSeries.getCurrencies()).thenReturn(List.of("USD", "GBP"));
+        when(timeSeries.date(0)).thenReturn(LocalDate.of(2023, 5, 29));
+        when(timeSeries.date(1)).thenReturn(LocalDate.of(2023, 5, 30));
+        when(timeSeries.rate(0, 0)).thenReturn(new BigDecimal("1.0715"));
+        when(timeSeries.rate(0, 1)).thenReturn(new BigDecimal("1.0744"));
+        when(timeSeries.rate(1, 1)).thenReturn(new BigDecimal("0.86365"));
+        return timeSeries;
+    }
+
+    @Test
+    public void getTimeSeries_json_streamsColumns() throws Exception {
+        TimeSeries timeSeries = mockTimeSeries();
+        when(service.getTimeSeries(LocalDate.of(2023, 5, 29), LocalDate.of(2023, 5, 30), List.of("USD", "GBP"), null))
+                .thenReturn(Optional.of(timeSeries));
+
+        MvcResult result = mockMvc.perform(get("/timeseries")
+                .param("start_date", "2023-05-29")
+                .param("end_date", "2023-05-30")
+                .param("currency", "USD,GBP"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dates[0]").value("2023-05-29"))
+                .andExpect(jsonPath("$.dates[1]").value("2023-05-30"))
+                .andExpect(jsonPath("$.rates.USD[1]").value(1.0744))
+                .andExpect(jsonPath("$.rates.GBP[0]").isEmpty())
+                .andExpect(jsonPath("$.rates.GBP[1]").value(0.86365));
+    }
+
+    @Test
+    public void getTimeSeries_csv_streamsRows() throws Exception {
+        TimeSeries timeSeries = mockTimeSeries();
+        when(service.getTimeSeries(any(), any(), any(), any())).thenReturn(Optional.of(timeSeries));
+
+        MvcResult result = mockMvc.perform(get("/timeseries")
+                .param("start_date", "2023-05-29")
+                .param("end_date", "2023-05-30")
+                .param("currency", "USD", "GBP")
+                .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("Date,USD,GBP\n2023-05-29,1.0715,\n2023-05-30,1.0744,0.86365\n"));
+    }
+
+    @Test
+    public void getTimeSeries_NoContent() throws Exception {
+        when(service.getTimeSeries(any(), any(), any(), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/timeseries")
+                .param("start_date", "2023-05-29")
+                .param("end_date", "2023-05-30")
+                .param("currency", "EEK"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void getTimeSeries_unsupportedFormat_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/timeseries")
+                .param("start_date", "2023-05-29")
+                .param("end_date", "2023-05-30")
+                .param("currency", "USD")
+                .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getTimeSeries_endDateBeforeStartDate_returnsUnprocessableEntity() throws Exception {
+        when(service.getTimeSeries(any(), any(), any(), any()))
+                .thenThrow(new InvalidDateRangeException("End date cannot be before start date."));
+
+        mockMvc.perform(get("/timeseries")
+                .param("start_date", "2023-05-30")
+                .param("end_date", "2023-05-29")
+                .param("currency", "USD"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    private static RateStore exportStore() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "USD", new BigDecimal("1.0715"));
+        row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0744"));
+        builder.putRate(row, "GBP", new BigDecimal("0.86365"));
+        return builder.build();
+    }
+
+    @Test
+    public void exportRates_csv_streamsRows() throws Exception {
+        when(service.exportRates(LocalDate.of(2023, 5, 29), null, List.of("USD", "GBP"), null))
+                .thenReturn(Optional.of(exportStore()));
+
+        MvcResult result = mockMvc.perform(get("/export")
+                .param("start_date", "2023-05-29")
+                .param("currency", "USD,GBP"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("Date,USD,GBP\n2023-05-29,1.0715,\n2023-05-30,1.0744,0.86365\n"));
+    }
+
+    @Test
+    public void exportRates_ndjson_streamsLinePerDate() throws Exception {
+        when(service.exportRates(any(), any(), any(), any())).thenReturn(Optional.of(exportStore()));
+
+        MvcResult result = mockMvc.perform(get("/export")
+                .param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"date\":\"2023-05-29\",\"rates\":{\"USD\":1.0715}}\n"
+                        + "{\"date\":\"2023-05-30\",\"rates\":{\"USD\":1.0744,\"GBP\":0.86365}}\n"));
+    }
+
+    @Test
+    public void exportRates_binaryAcceptsGzip_streamsCompressedRateStoreFile(@TempDir Path directory)
+            throws Exception {
+        when(service.exportRates(any(), any(), any(), any())).thenReturn(Optional.of(exportStore()));
+
+        MvcResult result = mockMvc.perform(get("/export")
+                .param("format", "binary")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Path path = directory.resolve("export.snapshot");
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            Files.write(path, gzip.readAllBytes());
+        }
+        RateStore export = new RateStoreFile(path).read();
+        assertEquals(2, export.size());
+        assertEquals(new BigDecimal("0.86365"), export.rateAsBigDecimal(export.currencyId("GBP"), 1));
+    }
+
+    @Test
+    public void exportRates_unsupportedFormat_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/export")
+                .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportRates_NoContent() throws Exception {
+        when(service.exportRates(any(), any(), any(), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/export")
+                .param("start_date", "2023-05-27")
+                .param("end_date", "2023-05-28"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void getRollingSeries_streamsValues() throws Exception {
+        RollingSeries rollingSeries = mock(RollingSeries.class);
+        when(rollingSeries.getCurrency()).thenReturn("USD");
+        when(rollingSeries.getStatistic()).thenReturn(RollingStatistic.MAX);
+        when(rollingSeries.getWindow()).thenReturn(2);
+        doAnswer(invocation -> {
+            RollingSeries.ValueConsumer consumer = invocation.getArgument(0);
+            consumer.accept(LocalDate.of(2023, 5, 29), null);
+            consumer.accept(LocalDate.of(2023, 5, 30), new BigDecimal("1.0744"));
+            return null;
+        }).when(rollingSeries).forEach(any());
+        when(service.getRollingSeries(LocalDate.of(2023, 5, 29), LocalDate.of(2023, 5, 30), "USD", 2,
+                RollingStatistic.MAX, null)).thenReturn(Optional.of(rollingSeries));
+
+        MvcResult result = mockMvc.perform(get("/rolling")
+                .param("start_date", "2023-05-29")
+                .param("end_date", "2023-05-30")
+                .param("currency", "USD")
+                .param("window", "2")
+                .param("statistic", "max"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statistic").value("max"))
+                .andExpect(jsonPath("$.window").value(2))
+                .andExpect(jsonPath("$.values[0].date").value("2023-05-29"))
+                .andExpect(jsonPath("$.values[0].value").isEmpty())
+                .andExpect(jsonPath("$.values[1].value").value(1.0744));
+    }
+
+    @Test
+    public void getRollingSeries_NoContent() throws Exception {
+        when(service.getRollingSeries(any(), any(), any(), anyInt(), any(), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/rolling")
+                .param("start_date", "2023-05-27")
+                .param("end_date", "2023-05-28")
+                .param("currency", "USD")
+                .param("window", "30"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void getRollingSeries_unsupportedStatisticOrWindow_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/rolling")
+                .param("start_date", "2023-05-29")
+                .param("end_date", "2023-05-30")
+                .param("currency", "USD")
+                .param("window", "30")
+                .param("statistic", "median"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rolling")
+                .param("start_date", "2023-05-29")
+                .param("end_date", "2023-05-30")
+                .param("currency", "USD")
+                .param("window", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testGetHighestRateEndpoint() throws Exception {
         Optional<CurrencyHighestRate> highestRate = Optional.of(new CurrencyHighestRate(
@@ -114,7 +657,7 @@ public class ExchangeRateControllerTest {
                 LocalDate.of(2023, 5, 30),
                 BigDecimal.valueOf(1.0744)));
 
-        when(service.getHighestRate(any(), any(), any())).thenReturn(highestRate);
+        when(service.getHighestRate(any(), any(), any(), any(), any())).thenReturn(highestRate);
 
         mockMvc.perform(get("/highest_rate")
                 .param("start_date", "2023-05-01")
@@ -129,7 +672,7 @@ public class ExchangeRateControllerTest {
     public void testGetHighestRateEndpoint_NoContent() throws Exception {
         LocalDate startDate = LocalDate.parse("2022-01-01");
         LocalDate endDate = LocalDate.parse("2022-01-31");
-        when(service.getHighestRate(startDate, endDate, "USD")).thenReturn(Optional.empty());
+        when(service.getHighestRate(startDate, endDate, "USD", DateFallback.NONE, null)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/highest_rate")
                 .param("start_date", startDate.toString())
@@ -139,13 +682,156 @@ public class ExchangeRateControllerTest {
                 .andReturn();
     }
 
+    @Test
+    public void getHighestRate_fallbackPrevious_passesFallbackToService() throws Exception {
+        LocalDate saturday = LocalDate.of(2023, 5, 27);
+        LocalDate sunday = LocalDate.of(2023, 5, 28);
+        when(service.getHighestRate(saturday, sunday, "USD", DateFallback.PREVIOUS, null))
+                .thenReturn(Optional.of(new CurrencyHighestRate("USD", LocalDate.of(2023, 5, 26),
+                        LocalDate.of(2023, 5, 26), new BigDecimal("1.0751"))));
+
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", saturday.toString())
+                .param("end_date", sunday.toString())
+                .param("currency", "USD")
+                .param("fallback", "previous"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.startDate").value("2023-05-26"))
+                .andExpect(jsonPath("$.highestRate").value(1.0751));
+    }
+
+    @Test
+    public void getHighestRate_base_passesBaseToService() throws Exception {
+        LocalDate startDate = LocalDate.of(2013, 5, 30);
+        LocalDate endDate = LocalDate.of(2023, 5, 30);
+        when(service.getHighestRate(startDate, endDate, "JPY", DateFallback.NONE, "USD"))
+                .thenReturn(Optional.of(new CurrencyHighestRate("JPY", startDate, endDate,
+                        new BigDecimal("151.824953"))));
+
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", startDate.toString())
+                .param("end_date", endDate.toString())
+                .param("currency", "JPY")
+                .param("base", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.highestRate").value(151.824953));
+    }
+
+    @Test
+    public void getHighestRate_repeatedQuery_isComputedOnce() throws Exception {
+        LocalDate startDate = LocalDate.of(2023, 5, 24);
+        LocalDate endDate = LocalDate.of(2023, 5, 29);
+        when(service.getHighestRate(startDate, endDate, "USD", DateFallback.NONE, null))
+                .thenReturn(Optional.of(new CurrencyHighestRate("USD", startDate, endDate,
+                        new BigDecimal("1.0785"))));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/highest_rate")
+                    .param("start_date", startDate.toString())
+                    .param("end_date", endDate.toString())
+                    .param("currency", "USD"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.highestRate").value(1.0785));
+        }
+
+        verify(service, times(1)).getHighestRate(startDate, endDate, "USD", DateFallback.NONE, null);
+    }
+
+    @Test
+    public void getHighestRate_queryInOtherCase_sharesCachedResult() throws Exception {
+        LocalDate startDate = LocalDate.of(2023, 5, 24);
+        LocalDate endDate = LocalDate.of(2023, 5, 29);
+        when(service.getHighestRate(startDate, endDate, "jpy", DateFallback.NONE, "usd"))
+                .thenReturn(Optional.of(new CurrencyHighestRate("JPY", startDate, endDate,
+                        new BigDecimal("140.261316"))));
+
+        for (String[] codes : List.of(new String[] { "jpy", "usd" }, new String[] { "JPY", "USD" },
+                new String[] { "Jpy", "uSD" })) {
+            mockMvc.perform(get("/highest_rate")
+                    .param("start_date", startDate.toString())
+                    .param("end_date", endDate.toString())
+                    .param("currency", codes[0])
+                    .param("base", codes[1]))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.highestRate").value(140.261316));
+        }
+
+        verify(service, times(1)).getHighestRate(any(), any(), any(), any(), any());
+    }
+
     @Test
     public void getHighestRate_endDateBeforeStartDate_returnsUnprocessableEntity() throws Exception {
         when(service.getHighestRate(
             LocalDate.of(2023, 5, 30),
             LocalDate.of(2023, 5, 29),
-            "USD")).thenThrow(new InvalidDateRangeException("End date cannot be before start date."));
+            "USD",
+            DateFallback.NONE,
+            null)).thenThrow(new InvalidDateRangeException("End date cannot be before start date."));
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-30")
+                .param("end_date", "2023-05-29")
+                .param("currency", "USD"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void getHighestRate_unknownCurrency_returnsBadRequest() throws Exception {
+        when(service.getHighestRate(
+            LocalDate.of(2023, 5, 24),
+            LocalDate.of(2023, 5, 30),
+            "EEK",
+            DateFallback.NONE,
+            null)).thenThrow(new UnknownCurrencyException("Unknown currency EEK."));
         mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-24")
+                .param("end_date", "2023-05-30")
+                .param("currency", "EEK"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unknown currency EEK."));
+    }
+
+    @Test
+    public void testGetLowestRateEndpoint() throws Exception {
+        Optional<CurrencyLowestRate> lowestRate = Optional.of(new CurrencyLowestRate(
+                "USD",
+                LocalDate.of(2023, 5, 1),
+                LocalDate.of(2023, 5, 30),
+                BigDecimal.valueOf(1.0715)));
+
+        when(service.getLowestRate(any(), any(), any(), any(), any())).thenReturn(lowestRate);
+
+        mockMvc.perform(get("/lowest_rate")
+                .param("start_date", "2023-05-01")
+                .param("end_date", "2023-05-30")
+                .param("currency", "USD")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lowestRate").exists());
+    }
+
+    @Test
+    public void testGetLowestRateEndpoint_NoContent() throws Exception {
+        LocalDate startDate = LocalDate.parse("2022-01-01");
+        LocalDate endDate = LocalDate.parse("2022-01-31");
+        when(service.getLowestRate(startDate, endDate, "USD", DateFallback.NONE, null)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/lowest_rate")
+                .param("start_date", startDate.toString())
+                .param("end_date", endDate.toString())
+                .param("currency", "USD"))
+                .andExpect(status().isNoContent())
+                .andReturn();
+    }
+
+    @Test
+    public void getLowestRate_endDateBeforeStartDate_returnsUnprocessableEntity() throws Exception {
+        when(service.getLowestRate(
+            LocalDate.of(2023, 5, 30),
+            LocalDate.of(2023, 5, 29),
+            "USD",
+            DateFallback.NONE,
+            null)).thenThrow(new InvalidDateRangeException("End date cannot be before start date."));
+        mockMvc.perform(get("/lowest_rate")
                 .param("start_date", "2023-05-30")
                 .param("end_date", "2023-05-29")
                 .param("currency", "USD"))
@@ -160,7 +846,7 @@ public class ExchangeRateControllerTest {
                 LocalDate.of(2023, 5, 30),
                 BigDecimal.valueOf(1.081)));
 
-        when(service.getAverageRate(any(), any(), any())).thenReturn(averageRate);
+        when(service.getAverageRate(any(), any(), any(), any(), any())).thenReturn(averageRate);
 
         mockMvc.perform(get("/average_rate")
                 .param("start_date", "2023-05-01")
@@ -175,7 +861,7 @@ public class ExchangeRateControllerTest {
     public void testGetAverageRateEndpoint_NoContent() throws Exception {
         LocalDate startDate = LocalDate.parse("2022-01-01");
         LocalDate endDate = LocalDate.parse("2022-01-31");
-        when(service.getAverageRate(startDate, endDate, "USD")).thenReturn(Optional.empty());
+        when(service.getAverageRate(startDate, endDate, "USD", DateFallback.NONE, null)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/average_rate")
                 .param("start_date", startDate.toString())
@@ -190,11 +876,113 @@ public class ExchangeRateControllerTest {
         when(service.getAverageRate(
             LocalDate.of(2023, 5, 30),
             LocalDate.of(2023, 5, 29),
-            "USD")).thenThrow(new InvalidDateRangeException("End date cannot be before start date."));
+            "USD",
+            DateFallback.NONE,
+            null)).thenThrow(new InvalidDateRangeException("End date cannot be before start date."));
         mockMvc.perform(get("/average_rate")
                 .param("start_date", "2023-05-30")
                 .param("end_date", "2023-05-29")
                 .param("currency", "USD"))
                 .andExpect(status().isUnprocessableEntity());
     }
+
+    @Test
+    public void getSummary_returnsStatisticsByCurrency() throws Exception {
+        LocalDate startDate = LocalDate.of(2023, 5, 24);
+        LocalDate endDate = LocalDate.of(2023, 5, 30);
+        Map<String, RateSummary.Statistics> currencies = new LinkedHashMap<>();
+        currencies.put("USD", new RateSummary.Statistics(5, new BigDecimal("1.0715"), new BigDecimal("1.0785"),
+                new BigDecimal("1.07"), new BigDecimal("0.002565"), startDate, new BigDecimal("1.0785"), endDate,
+                new BigDecimal("1.0744"), new BigDecimal("-0.3802")));
+        currencies.put("GBP", new RateSummary.Statistics(0, null, null, null, null, null, null, null, null, null));
+        when(service.getSummary(startDate, endDate, List.of("USD", "GBP"), DateFallback.NONE, null))
+                .thenReturn(Optional.of(new RateSummary(startDate, endDate, null, currencies)));
+
+        mockMvc.perform(get("/summary")
+                .param("start_date", startDate.toString())
+                .param("end_date", endDate.toString())
+                .param("currency", "USD,GBP"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.base").doesNotExist())
+                .andExpect(jsonPath("$.currencies.USD.count").value(5))
+                .andExpect(jsonPath("$.currencies.USD.minRate").value(1.0715))
+                .andExpect(jsonPath("$.currencies.USD.standardDeviation").value(0.002565))
+                .andExpect(jsonPath("$.currencies.USD.firstDate").value("2023-05-24"))
+                .andExpect(jsonPath("$.currencies.USD.changePercent").value(-0.3802))
+                .andExpect(jsonPath("$.currencies.GBP.count").value(0))
+                .andExpect(jsonPath("$.currencies.GBP.minRate").doesNotExist());
+    }
+
+    @Test
+    public void getSummary_currenciesInOtherCase_shareCachedResult() throws Exception {
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        when(service.getSummary(date, date, List.of("usd", "GBP"), DateFallback.NONE, null))
+                .thenReturn(Optional.of(new RateSummary(date, date, null, new LinkedHashMap<>())));
+
+        for (String currency : List.of("usd,GBP", "USD,gbp")) {
+            mockMvc.perform(get("/summary")
+                    .param("start_date", date.toString())
+                    .param("end_date", date.toString())
+                    .param("currency", currency))
+                    .andExpect(status().isOk());
+        }
+
+        verify(service, times(1)).getSummary(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void getSummary_noCurrency_summarizesAllCurrencies() throws Exception {
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        when(service.getSummary(date, date, null, DateFallback.NONE, "USD"))
+                .thenReturn(Optional.of(new RateSummary(date, date, "USD", new LinkedHashMap<>())));
+
+        mockMvc.perform(get("/summary")
+                .param("start_date", date.toString())
+                .param("end_date", date.toString())
+                .param("base", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.base").value("USD"));
+    }
+
+    @Test
+    public void getSummary_NoContent() throws Exception {
+        LocalDate startDate = LocalDate.parse("2022-01-01");
+        LocalDate endDate = LocalDate.parse("2022-01-31");
+        when(service.getSummary(startDate, endDate, List.of("USD"), DateFallback.NONE, null))
+                .thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/summary")
+                .param("start_date", startDate.toString())
+                .param("end_date", endDate.toString())
+                .param("currency", "USD"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void getSummary_unsupportedFallback_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/summary")
+                .param("start_date", "2023-05-24")
+                .param("end_date", "2023-05-30")
+                .param("fallback", "next"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetStatusEndpoint() throws Exception {
+        when(service.getSnapshotStatus()).thenReturn(new SnapshotStatus(
+                3,
+                Instant.parse("2023-05-30T16:00:00Z"),
+                1200,
+                6000,
+                41,
+                LocalDate.of(1999, 1, 4),
+                LocalDate.of(2023, 5, 30),
+                0,
+                0x1c291ca3L));
+
+        mockMvc.perform(get("/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3))
+                .andExpect(jsonPath("$.lastDate").value("2023-05-30"));
+    }
 }
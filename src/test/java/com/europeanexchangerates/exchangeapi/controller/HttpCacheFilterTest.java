@@ -0,0 +1,221 @@
+package com.europeanexchangerates.exchangeapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.europeanexchangerates.exchangeapi.dto.CurrencyHighestRate;
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.dto.SnapshotStatus;
+import com.europeanexchangerates.exchangeapi.exception.InvalidDateRangeException;
+import com.europeanexchangerates.exchangeapi.service.ExchangeRateService;
+
+@WebMvcTest(ExchangeRateController.class)
+@Import({ RatesResponseCache.class, RangeQueryCache.class })
+public class HttpCacheFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExchangeRateService service;
+
+    @Autowired
+    private RangeQueryCache rangeQueryCache;
+
+    @BeforeEach
+    void setUp() {
+        rangeQueryCache.clear();
+        when(service.getSnapshotStatus()).thenReturn(new SnapshotStatus(3, Instant.parse("2023-05-30T16:00:00Z"),
+                100, 5, 4, LocalDate.of(2023, 5, 24), LocalDate.of(2023, 5, 30), 0, 0x1c291ca3L));
+        when(service.getHighestRate(any(), any(), any(), any(), any())).thenAnswer(invocation -> Optional.of(
+                new CurrencyHighestRate(invocation.getArgument(2), invocation.getArgument(0),
+                        invocation.getArgument(1), BigDecimal.valueOf(1.0785))));
+    }
+
+    private String eTag(String endDate) throws Exception {
+        return mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-24")
+                .param("end_date", endDate)
+                .param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    public void historicalRange_isCacheableForLong() throws Exception {
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-24")
+                .param("end_date", "2023-05-29")
+                .param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Tue, 30 May 2023 00:00:00 GMT"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=2592000, public"));
+    }
+
+    @Test
+    public void rangeUpToLatestDate_mustBeRevalidated() throws Exception {
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-24")
+                .param("end_date", "2023-05-30")
+                .param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    public void eTag_dependsOnQuery() throws Exception {
+        assertNotEquals(eTag("2023-05-29"), eTag("2023-05-30"));
+    }
+
+    @Test
+    public void ifNoneMatch_matchingETag_returnsNotModifiedWithoutCallingService() throws Exception {
+        String eTag = eTag("2023-05-29");
+
+        mockMvc.perform(get("/highest_rate")
+                .param("currency", "USD")
+                .param("end_date", "2023-05-29")
+                .param("start_date", "2023-05-24")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        // Only the first request reached the service.
+        verify(service).getHighestRate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void ifNoneMatch_any_returnsResponse() throws Exception {
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-24")
+                .param("end_date", "2023-05-29")
+                .param("currency", "USD")
+                .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void ifNoneMatch_anyForInvalidQuery_returnsError() throws Exception {
+        when(service.getHighestRate(any(), any(), any(), any(), any()))
+                .thenThrow(new InvalidDateRangeException("End date cannot be before start date."));
+
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-30")
+                .param("end_date", "2023-05-29")
+                .param("currency", "USD")
+                .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void ifNoneMatch_eTagOfPreviousSnapshot_returnsResponse() throws Exception {
+        String eTag = eTag("2023-05-29");
+        when(service.getSnapshotStatus()).thenReturn(new SnapshotStatus(4, Instant.parse("2023-05-31T16:00:00Z"),
+                100, 6, 4, LocalDate.of(2023, 5, 24), LocalDate.of(2023, 5, 31), 0, 0x5e0a1b27L));
+
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-24")
+                .param("end_date", "2023-05-29")
+                .param("currency", "USD")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void ifNoneMatch_sameDataReloaded_returnsNotModified() throws Exception {
+        String eTag = eTag("2023-05-29");
+        // Another instance or a restart serving the same data under another
+        // version.
+        when(service.getSnapshotStatus()).thenReturn(new SnapshotStatus(1, Instant.parse("2023-05-31T08:00:00Z"),
+                100, 5, 4, LocalDate.of(2023, 5, 24), LocalDate.of(2023, 5, 30), 0, 0x1c291ca3L));
+
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-24")
+                .param("end_date", "2023-05-29")
+                .param("currency", "USD")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Tue, 30 May 2023 00:00:00 GMT"));
+    }
+
+    @Test
+    public void ifNoneMatch_sameLatestDateWithChangedData_returnsResponse() throws Exception {
+        String eTag = eTag("2023-05-29");
+        when(service.getSnapshotStatus()).thenReturn(new SnapshotStatus(4, Instant.parse("2023-05-31T08:00:00Z"),
+                100, 5, 4, LocalDate.of(2023, 5, 24), LocalDate.of(2023, 5, 30), 0, 0x77d3e0c1L));
+
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-24")
+                .param("end_date", "2023-05-29")
+                .param("currency", "USD")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void gzipResponse_hasOwnETag() throws Exception {
+        when(service.getRatesForDate(any(), any(), any())).thenReturn(Optional.of(new ExchangeRate(
+                Map.of("USD", new BigDecimal("1.0744")))));
+
+        String eTag = mockMvc.perform(get("/rates").param("date", "2023-05-29"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipETag = mockMvc.perform(get("/rates").param("date", "2023-05-29")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(eTag, gzipETag);
+        mockMvc.perform(get("/rates").param("date", "2023-05-29")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, gzipETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, gzipETag));
+    }
+
+    @Test
+    public void errorResponse_hasNoCachingHeaders() throws Exception {
+        when(service.getHighestRate(any(), any(), any(), any(), any()))
+                .thenThrow(new InvalidDateRangeException("End date cannot be before start date."));
+
+        mockMvc.perform(get("/highest_rate")
+                .param("start_date", "2023-05-29")
+                .param("end_date", "2023-05-24")
+                .param("currency", "USD"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    public void statusEndpoint_isNotCached() throws Exception {
+        mockMvc.perform(get("/status"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        verify(service, never()).getHighestRate(any(), any(), any(), any(), any());
+    }
+}
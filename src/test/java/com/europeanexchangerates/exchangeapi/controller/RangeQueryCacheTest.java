@@ -0,0 +1,193 @@
+package com.europeanexchangerates.exchangeapi.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.europeanexchangerates.exchangeapi.exception.UnknownCurrencyException;
+import com.europeanexchangerates.exchangeapi.service.ExchangeRateService;
+
+class RangeQueryCacheTest {
+    private static final List<String> USD = List.of("2023-05-24", "2023-05-30", "USD");
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final AtomicInteger computations = new AtomicInteger();
+    private ExchangeRateService service;
+
+    @BeforeEach
+    void setUp() {
+        service = mock(ExchangeRateService.class);
+        when(service.getSnapshotVersion()).thenReturn(1L);
+    }
+
+    private RangeQueryCache cache(int maxEntries) {
+        return new RangeQueryCache(service, maxEntries, Duration.ofMinutes(5), nanoTime::get);
+    }
+
+    private Supplier<Optional<String>> compute(String result) {
+        return () -> {
+            computations.incrementAndGet();
+            return Optional.of(result);
+        };
+    }
+
+    @Test
+    void get_sameQuery_computesOnce() {
+        RangeQueryCache cache = cache(10);
+
+        assertEquals(Optional.of("1.0785"), cache.get("/highest_rate", USD, compute("1.0785")));
+        assertEquals(Optional.of("1.0785"), cache.get("/highest_rate", USD, compute("1.0785")));
+        assertEquals(Optional.of("1.0715"), cache.get("/lowest_rate", USD, compute("1.0715")));
+
+        assertEquals(2, computations.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void get_concurrentSameQuery_sharesComputation() throws Exception {
+        RangeQueryCache cache = cache(10);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Optional<String>> slow = () -> {
+            computations.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of("1.0785");
+        };
+        int requests = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            Future<Optional<String>> first = executor.submit(() -> cache.get("/highest_rate", USD, slow));
+            while (computations.get() == 0) {
+                Thread.onSpinWait();
+            }
+            List<Future<Optional<String>>> others = List.of(
+                    executor.submit(() -> cache.get("/highest_rate", USD, slow)),
+                    executor.submit(() -> cache.get("/highest_rate", USD, slow)),
+                    executor.submit(() -> cache.get("/highest_rate", USD, slow)));
+            while (cache.getCoalesced() < requests - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals(Optional.of("1.0785"), first.get(10, TimeUnit.SECONDS));
+            for (Future<Optional<String>> other : others) {
+                assertEquals(Optional.of("1.0785"), other.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(3, cache.getCoalesced());
+    }
+
+    @Test
+    void get_failedQuery_isNotCached() {
+        RangeQueryCache cache = cache(10);
+        Supplier<Optional<String>> unknown = () -> {
+            computations.incrementAndGet();
+            throw new UnknownCurrencyException("Unknown currency EEK.");
+        };
+
+        assertThrows(UnknownCurrencyException.class, () -> cache.get("/highest_rate", USD, unknown));
+        assertThrows(UnknownCurrencyException.class, () -> cache.get("/highest_rate", USD, unknown));
+
+        assertEquals(2, computations.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_newSnapshotVersion_dropsAllEntries() {
+        RangeQueryCache cache = cache(10);
+        cache.get("/highest_rate", USD, compute("1.0785"));
+        cache.get("/lowest_rate", USD, compute("1.0715"));
+
+        when(service.getSnapshotVersion()).thenReturn(2L);
+
+        assertEquals(Optional.of("1.0801"), cache.get("/highest_rate", USD, compute("1.0801")));
+        assertEquals(3, computations.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_expiredEntry_isComputedAgain() {
+        RangeQueryCache cache = cache(10);
+        cache.get("/highest_rate", USD, compute("1.0785"));
+
+        nanoTime.addAndGet(Duration.ofMinutes(5).minusNanos(1).toNanos());
+        cache.get("/highest_rate", USD, compute("1.0785"));
+        assertEquals(1, computations.get());
+
+        nanoTime.incrementAndGet();
+        cache.get("/highest_rate", USD, compute("1.0785"));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void get_overMaxEntries_evictsLeastRecentlyUsed() {
+        RangeQueryCache cache = cache(2);
+        cache.get("/highest_rate", USD, compute("1.0785"));
+        cache.get("/lowest_rate", USD, compute("1.0715"));
+        // Use the oldest entry so that the middle one is evicted.
+        cache.get("/highest_rate", USD, compute("1.0785"));
+        cache.get("/average_rate", USD, compute("1.0746"));
+
+        assertEquals(2, cache.size());
+        cache.get("/highest_rate", USD, compute("1.0785"));
+        assertEquals(3, computations.get());
+        cache.get("/lowest_rate", USD, compute("1.0715"));
+        assertEquals(4, computations.get());
+    }
+
+    @Test
+    void get_nullParameters_areDistinguished() {
+        RangeQueryCache cache = cache(10);
+        cache.get("/highest_rate", Arrays.asList("USD", null), compute("1.0785"));
+        cache.get("/highest_rate", Arrays.asList("USD", "JPY"), compute("0.007185"));
+        cache.get("/highest_rate", Arrays.asList("USD", null), compute("1.0785"));
+
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void bindTo_publishesHitsMissesAndCoalesced() {
+        RangeQueryCache cache = cache(10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get("/highest_rate", USD, compute("1.0785"));
+        cache.get("/highest_rate", USD, compute("1.0785"));
+        cache.get("/highest_rate", USD, compute("1.0785"));
+
+        assertEquals(2.0, registry.get("exchangeapi.range.cache.requests").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("exchangeapi.range.cache.requests").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(0.0, registry.get("exchangeapi.range.cache.requests").tag("result", "coalesced")
+                .functionCounter().count());
+    }
+}
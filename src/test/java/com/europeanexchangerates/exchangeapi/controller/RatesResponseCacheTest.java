@@ -0,0 +1,130 @@
+package com.europeanexchangerates.exchangeapi.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.service.DateFallback;
+import com.europeanexchangerates.exchangeapi.service.ExchangeRateService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RatesResponseCacheTest {
+    private static final LocalDate DATE = LocalDate.of(2023, 5, 30);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExchangeRateService service;
+
+    @BeforeEach
+    void setUp() {
+        service = mock(ExchangeRateService.class);
+        when(service.getSnapshotVersion()).thenReturn(1L);
+        when(service.getRatesForDate(any(), any(), any())).thenAnswer(invocation -> Optional.of(
+                new ExchangeRate(Map.of("USD", new BigDecimal("1.0744")))));
+    }
+
+    @Test
+    void get_sameDate_rendersOnce() throws IOException {
+        RatesResponseCache cache = new RatesResponseCache(service, objectMapper, 1 << 20);
+
+        RatesResponseCache.Entry first = cache.get(DATE).get();
+        RatesResponseCache.Entry second = cache.get(DATE).get();
+
+        assertSame(first, second);
+        verify(service, times(1)).getRatesForDate(DATE, DateFallback.NONE, null);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals("{\"rates\":{\"USD\":1.0744}}", new String(first.getJson()));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.getGzip()))) {
+            assertArrayEquals(first.getJson(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void get_newSnapshotVersion_dropsAllEntries() throws IOException {
+        RatesResponseCache cache = new RatesResponseCache(service, objectMapper, 1 << 20);
+        cache.get(DATE);
+        cache.get(DATE.minusDays(1));
+        assertEquals(2, cache.size());
+
+        when(service.getSnapshotVersion()).thenReturn(2L);
+        cache.get(DATE);
+
+        assertEquals(1, cache.size());
+        verify(service, times(2)).getRatesForDate(DATE, DateFallback.NONE, null);
+    }
+
+    @Test
+    void get_overMaxBytes_evictsLeastRecentlyUsed() throws IOException {
+        RatesResponseCache unbounded = new RatesResponseCache(service, objectMapper, 1 << 20);
+        unbounded.get(DATE);
+        long entryBytes = unbounded.getBytes();
+        RatesResponseCache cache = new RatesResponseCache(service, objectMapper, 2 * entryBytes);
+
+        cache.get(DATE.minusDays(2));
+        cache.get(DATE.minusDays(1));
+        // Use the oldest entry so that the middle one is evicted.
+        cache.get(DATE.minusDays(2));
+        cache.get(DATE);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getBytes() <= 2 * entryBytes);
+        cache.get(DATE.minusDays(2));
+        verify(service, times(1)).getRatesForDate(DATE.minusDays(2), DateFallback.NONE, null);
+        cache.get(DATE.minusDays(1));
+        verify(service, times(2)).getRatesForDate(DATE.minusDays(1), DateFallback.NONE, null);
+    }
+
+    @Test
+    void get_differentBases_areCachedSeparately() throws IOException {
+        when(service.resolveBase(null)).thenReturn(-1);
+        when(service.resolveBase("USD")).thenReturn(0);
+        RatesResponseCache cache = new RatesResponseCache(service, objectMapper, 1 << 20);
+
+        RatesResponseCache.Entry euro = cache.get(DATE);
+        RatesResponseCache.Entry dollar = cache.get(DATE, "USD");
+        cache.get(DATE, "USD");
+
+        assertNotSame(euro, dollar);
+        assertEquals(2, cache.size());
+        verify(service, times(1)).getRatesForDate(DATE, DateFallback.NONE, null);
+        verify(service, times(1)).getRatesForDate(DATE, DateFallback.NONE, "USD");
+    }
+
+    @Test
+    void get_noRates_returnsEmpty() throws IOException {
+        when(service.getRatesForDate(DATE, DateFallback.NONE, null)).thenReturn(Optional.empty());
+        RatesResponseCache cache = new RatesResponseCache(service, objectMapper, 1 << 20);
+
+        assertEquals(Optional.empty(), cache.get(DATE));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void bindTo_publishesHitsAndMisses() throws IOException {
+        RatesResponseCache cache = new RatesResponseCache(service, objectMapper, 1 << 20);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get(DATE);
+        cache.get(DATE);
+        cache.get(DATE);
+
+        assertEquals(2.0, registry.get("exchangeapi.rates.cache.requests").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("exchangeapi.rates.cache.requests").tag("result", "miss")
+                .functionCounter().count());
+    }
+}
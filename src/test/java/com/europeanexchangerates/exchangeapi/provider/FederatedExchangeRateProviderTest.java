@@ -0,0 +1,194 @@
+package com.europeanexchangerates.exchangeapi.provider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.exception.NoDataFromSource;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+class FederatedExchangeRateProviderTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path directory;
+
+    private String zipUrl(String name, String csv) throws IOException {
+        Path file = directory.resolve(name);
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("eurofxref-hist.csv"));
+            zip.write(csv.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return file.toUri().toString();
+    }
+
+    private static FederatedExchangeRateProvider.Source source(String url, Duration timeout) {
+        return new FederatedExchangeRateProvider.Source(url, new UrlCsvZipExchangeRateProvider(url), timeout);
+    }
+
+    private static BigDecimal rate(RateStore store, String date, String currency) {
+        return store.rateAsBigDecimal(store.currencyId(currency), store.indexOf(LocalDate.parse(date)));
+    }
+
+    private static ExchangeRateProvider delayed(String url, long millis) {
+        UrlCsvZipExchangeRateProvider provider = new UrlCsvZipExchangeRateProvider(url);
+        return () -> {
+            Thread.sleep(millis);
+            return provider.getExchangeRates();
+        };
+    }
+
+    @Test
+    void getRateStore_mergesSourcesByDate() throws Exception {
+        String first = zipUrl("first.zip", "Date,USD,JPY,\n2023-05-30,1.0744,150.01,\n2023-05-29,1.0715,149.71,\n");
+        String second = zipUrl("second.zip", "Date,USD,GBP,\n2023-05-31,1.0700,0.86000,\n2023-05-30,1.0800,0.86365,\n");
+        // The second source delivers before the first one wins.
+        FederatedExchangeRateProvider provider = new FederatedExchangeRateProvider(List.of(
+                new FederatedExchangeRateProvider.Source(first, delayed(first, 300), TIMEOUT),
+                source(second, TIMEOUT)), ConflictPolicy.PRIORITY);
+
+        RateStore store = provider.getRateStore();
+
+        assertEquals(3, store.size());
+        assertEquals(3, store.currencyCount());
+        assertEquals(new BigDecimal("1.0715"), rate(store, "2023-05-29", "USD"));
+        assertEquals(new BigDecimal("1.0700"), rate(store, "2023-05-31", "USD"));
+        // The rates of a date that is in both come from the first source only.
+        assertEquals(new BigDecimal("1.0744"), rate(store, "2023-05-30", "USD"));
+        assertEquals(new BigDecimal("150.01"), rate(store, "2023-05-30", "JPY"));
+        assertNull(rate(store, "2023-05-30", "GBP"));
+    }
+
+    @Test
+    void getExchangeRates_firstCompleted_returnsWithoutWaitingForSlowerSource() throws Exception {
+        ExchangeRateProvider slow = () -> {
+            Thread.sleep(5_000);
+            TreeMap<LocalDate, ExchangeRate> rates = new TreeMap<>();
+            rates.put(LocalDate.of(2023, 5, 30), new ExchangeRate(Map.of("USD", new BigDecimal("1.0800"))));
+            return rates;
+        };
+        String fast = zipUrl("fast.zip", "Date,USD,\n2023-05-30,1.0744,\n");
+        FederatedExchangeRateProvider provider = new FederatedExchangeRateProvider(List.of(
+                new FederatedExchangeRateProvider.Source("slow", slow, TIMEOUT), source(fast, TIMEOUT)),
+                ConflictPolicy.FIRST_COMPLETED);
+
+        long startedAt = System.nanoTime();
+        TreeMap<LocalDate, ExchangeRate> rates = provider.getExchangeRates();
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        assertTrue(elapsedMillis < 2_000, "took " + elapsedMillis + " ms");
+        assertEquals(new BigDecimal("1.0744"), rates.get(LocalDate.of(2023, 5, 30)).getRates().get("USD"));
+    }
+
+    @Test
+    void getRateStore_priority_returnsWithoutWaitingForLowerPrioritySource() throws Exception {
+        String first = zipUrl("first.zip", "Date,USD,\n2023-05-30,1.0744,\n");
+        String second = zipUrl("second.zip", "Date,USD,\n2023-05-31,1.0700,\n");
+        FederatedExchangeRateProvider provider = new FederatedExchangeRateProvider(List.of(
+                new FederatedExchangeRateProvider.Source(first, delayed(first, 100), TIMEOUT),
+                new FederatedExchangeRateProvider.Source(second, delayed(second, 5_000), TIMEOUT)),
+                ConflictPolicy.PRIORITY);
+
+        long startedAt = System.nanoTime();
+        RateStore store = provider.getRateStore();
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        assertTrue(elapsedMillis < 2_000, "took " + elapsedMillis + " ms");
+        assertEquals(1, store.size());
+        assertEquals(new BigDecimal("1.0744"), rate(store, "2023-05-30", "USD"));
+    }
+
+    @Test
+    void getRateStore_priority_waitsForHigherPrioritySource() throws Exception {
+        String first = zipUrl("first.zip", "Date,USD,\n2023-05-30,1.0744,\n");
+        String second = zipUrl("second.zip", "Date,USD,\n2023-05-30,1.0800,\n");
+        FederatedExchangeRateProvider provider = new FederatedExchangeRateProvider(List.of(
+                new FederatedExchangeRateProvider.Source(first, delayed(first, 300), TIMEOUT),
+                source(second, TIMEOUT)), ConflictPolicy.PRIORITY);
+
+        RateStore store = provider.getRateStore();
+
+        assertEquals(new BigDecimal("1.0744"), rate(store, "2023-05-30", "USD"));
+    }
+
+    @Test
+    void getRateStore_failingSource_usesOtherSources() throws Exception {
+        String missing = directory.resolve("missing.zip").toUri().toString();
+        String valid = zipUrl("valid.zip", "Date,USD,\n2023-05-30,1.0744,\n");
+        FederatedExchangeRateProvider provider = new FederatedExchangeRateProvider(
+                List.of(source(missing, TIMEOUT), source(valid, TIMEOUT)), ConflictPolicy.PRIORITY);
+
+        RateStore store = provider.getRateStore();
+
+        assertEquals(1, store.size());
+        assertEquals(new BigDecimal("1.0744"), rate(store, "2023-05-30", "USD"));
+    }
+
+    @Test
+    void getRateStore_slowSource_isAbandonedAfterItsTimeout() throws Exception {
+        // A mirror that answers after much longer than its timeout.
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/eurofxref-hist.zip", exchange -> {
+            try {
+                Thread.sleep(5_000);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        try {
+            String slow = "http://localhost:" + server.getAddress().getPort() + "/eurofxref-hist.zip";
+            String valid = zipUrl("valid.zip", "Date,USD,\n2023-05-30,1.0744,\n");
+            FederatedExchangeRateProvider provider = new FederatedExchangeRateProvider(
+                    List.of(source(slow, Duration.ofMillis(200)), source(valid, TIMEOUT)), ConflictPolicy.PRIORITY);
+
+            long startedAt = System.nanoTime();
+            RateStore store = provider.getRateStore();
+            long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+            assertTrue(elapsedMillis < 2_000, "took " + elapsedMillis + " ms");
+            assertEquals(new BigDecimal("1.0744"), rate(store, "2023-05-30", "USD"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void getRateStore_allSourcesFail_throwsNoDataFromSource() {
+        FederatedExchangeRateProvider provider = new FederatedExchangeRateProvider(List.of(
+                source(directory.resolve("missing.zip").toUri().toString(), TIMEOUT),
+                source(directory.resolve("other.zip").toUri().toString(), TIMEOUT)), ConflictPolicy.PRIORITY);
+
+        NoDataFromSource exception = assertThrows(NoDataFromSource.class, provider::getRateStore);
+        assertEquals(2, exception.getSuppressed().length);
+    }
+
+    @Test
+    void ofUrls_timeoutsDoNotMatchUrls_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> FederatedExchangeRateProvider
+                .ofUrls(List.of("file:/a.zip", "file:/b.zip", "file:/c.zip"), List.of(1L, 2L),
+                        ConflictPolicy.PRIORITY));
+    }
+}
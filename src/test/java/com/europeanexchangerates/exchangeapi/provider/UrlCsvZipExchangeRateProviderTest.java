@@ -6,9 +6,19 @@ import static org.mockito.Mockito.*;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -26,7 +36,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
 import com.europeanexchangerates.exchangeapi.exception.NoDataFromSource;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
 import com.europeanexchangerates.exchangeapi.util.datadownloader.DataDownloader;
+import com.europeanexchangerates.exchangeapi.util.datadownloader.TimedZipInputStream;
+import com.europeanexchangerates.exchangeapi.util.dataparser.ByteCsvDataParser;
+import com.europeanexchangerates.exchangeapi.util.dataparser.CsvDataParser;
 import com.europeanexchangerates.exchangeapi.util.dataparser.DataParser;
 
 @ExtendWith(MockitoExtension.class)
@@ -113,4 +127,158 @@ public class UrlCsvZipExchangeRateProviderTest {
         assertEquals("The contents of the zip archive has changed. Please check the data source.",
                 logsList.get(0).getFormattedMessage());
     }
+
+    @Test
+    void getExchangeRatesSince_withFixtureFile_returnsOnlyNewerDates() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ZipOutputStream zos = new ZipOutputStream(baos);
+        zos.putNextEntry(new ZipEntry("eurofxref-hist.csv"));
+        try (InputStream fixture = getClass().getResourceAsStream("/fixtures/eurofxref-hist.csv")) {
+            fixture.transferTo(zos);
+        }
+        zos.closeEntry();
+        zos.close();
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(baos.toByteArray()));
+
+        when(dataDownloader.downloadData(anyString())).thenReturn(zis);
+        UrlCsvZipExchangeRateProvider provider = new UrlCsvZipExchangeRateProvider(dataDownloader, new CsvDataParser());
+
+        TreeMap<LocalDate, ExchangeRate> resultRates = provider.getExchangeRatesSince(LocalDate.of(2023, 5, 29));
+
+        assertEquals(1, resultRates.size());
+        assertEquals(new BigDecimal("1.0744"), resultRates.get(LocalDate.of(2023, 5, 30)).getRates().get("USD"));
+    }
+
+    @Test
+    void getRateStore_withFixtureFile_parsesIntoStore() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ZipOutputStream zos = new ZipOutputStream(baos);
+        zos.putNextEntry(new ZipEntry("eurofxref-hist.csv"));
+        try (InputStream fixture = getClass().getResourceAsStream("/fixtures/eurofxref-hist.csv")) {
+            fixture.transferTo(zos);
+        }
+        zos.closeEntry();
+        zos.close();
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(baos.toByteArray()));
+
+        when(dataDownloader.downloadData(anyString())).thenReturn(zis);
+        UrlCsvZipExchangeRateProvider provider = new UrlCsvZipExchangeRateProvider(dataDownloader, new ByteCsvDataParser());
+
+        RateStore store = provider.getRateStore();
+
+        assertEquals(6, store.size());
+        assertEquals(new BigDecimal("1.0744"), store.rateAsBigDecimal(store.currencyId("USD"), 5));
+    }
+
+    @Test
+    void getRateStore_withEmptyData_throwsException() throws Exception {
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(new byte[0]));
+
+        when(dataDownloader.downloadData(anyString())).thenReturn(zis);
+
+        assertThrows(NoDataFromSource.class, () -> exchangeRateProvider.getRateStore());
+    }
+
+    /**
+     * Stream that stops at the given position until the latch is released or
+     * a few seconds have passed, recording whether it was released.
+     */
+    private static InputStream holdAt(InputStream in, long position, CountDownLatch latch, AtomicBoolean released) {
+        return new FilterInputStream(in) {
+            private long read;
+            private boolean held;
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (read < position) {
+                    len = (int) Math.min(len, position - read);
+                } else if (!held) {
+                    held = true;
+                    try {
+                        released.set(latch.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                int count = super.read(b, off, len);
+                if (count > 0) {
+                    read += count;
+                }
+                return count;
+            }
+        };
+    }
+
+    @Test
+    void getRateStore_sourceHeldBack_parsesWhileReading() throws Exception {
+        StringBuilder csv = new StringBuilder("Date,USD,JPY,GBP,\n");
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        for (int i = 0; i < 10_000; i++) {
+            csv.append(String.format("%s,1.%04d,%d.%02d,0.%05d,\n", date.minusDays(i), i % 1000, 150 + i % 7,
+                    i % 97, 80_000 + i % 991));
+        }
+        // Stored rather than deflated, so that the first half of the archive
+        // holds several buffers of rows.
+        byte[] data = csv.toString().getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        ZipEntry entry = new ZipEntry("eurofxref-hist.csv");
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(archive)) {
+            zos.putNextEntry(entry);
+            zos.write(data);
+            zos.closeEntry();
+        }
+        // The second half of the archive is only read once the parser has
+        // received rows, which it can only if the archive is read ahead
+        // while the rows are parsed.
+        CountDownLatch parsing = new CountDownLatch(1);
+        AtomicBoolean parsedBeforeEnd = new AtomicBoolean();
+        DataDownloader fileDownloader = url -> new TimedZipInputStream(holdAt(
+                new ByteArrayInputStream(archive.toByteArray()), archive.size() / 2, parsing, parsedBeforeEnd), 0);
+        ByteCsvDataParser byteCsvDataParser = new ByteCsvDataParser();
+        DataParser signallingParser = new DataParser() {
+            @Override
+            public TreeMap<LocalDate, ExchangeRate> parseData(InputStream inputStream) throws Exception {
+                return parseToStore(inputStream).toExchangeRates();
+            }
+
+            @Override
+            public RateStore parseToStore(InputStream inputStream) throws Exception {
+                return byteCsvDataParser.parseToStore(new FilterInputStream(inputStream) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        parsing.countDown();
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int count = super.read(b, off, len);
+                        parsing.countDown();
+                        return count;
+                    }
+                });
+            }
+        };
+        UrlCsvZipExchangeRateProvider provider = new UrlCsvZipExchangeRateProvider(fileDownloader, signallingParser);
+
+        RateStore store = provider.getRateStore();
+
+        assertEquals(10_000, store.size());
+        assertEquals(new BigDecimal("1.0000"), store.rateAsBigDecimal(store.currencyId("USD"), store.size() - 1));
+        assertTrue(parsedBeforeEnd.get(), "The parser did not receive any rows before the whole archive was read.");
+    }
 }
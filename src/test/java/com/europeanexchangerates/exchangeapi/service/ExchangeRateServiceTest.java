@@ -1,15 +1,22 @@
 package com.europeanexchangerates.exchangeapi.service;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
 import java.util.TreeMap;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.converter.ConvertWith;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -24,9 +31,18 @@ import static org.mockito.Mockito.*;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyAverageRate;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyConversion;
 import com.europeanexchangerates.exchangeapi.dto.CurrencyHighestRate;
+import com.europeanexchangerates.exchangeapi.dto.CurrencyLowestRate;
 import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.dto.RateSummary;
+import com.europeanexchangerates.exchangeapi.dto.SnapshotStatus;
 import com.europeanexchangerates.exchangeapi.exception.InvalidDateRangeException;
+import com.europeanexchangerates.exchangeapi.exception.NoDataFromSource;
+import com.europeanexchangerates.exchangeapi.exception.UnknownCurrencyException;
 import com.europeanexchangerates.exchangeapi.provider.UrlCsvZipExchangeRateProvider;
+import com.europeanexchangerates.exchangeapi.store.ColumnarRateStore;
+import com.europeanexchangerates.exchangeapi.store.CrossRateMatrix;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+import com.europeanexchangerates.exchangeapi.store.RateStoreFile;
 import com.europeanexchangerates.exchangeapi.util.NullableConverter;
 
 @SpringBootTest
@@ -82,7 +98,7 @@ public class ExchangeRateServiceTest {
                 }));
             }
         };
-        when(exchangeRateProvider.getExchangeRates()).thenReturn(dummyData);
+        when(exchangeRateProvider.getRateStore()).thenReturn(ColumnarRateStore.of(dummyData));
 
         exchangeRateService = new ExchangeRateService(exchangeRateProvider);
     }
@@ -106,18 +122,59 @@ public class ExchangeRateServiceTest {
         }
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            // published date
+            "2023-05-30, 2023-05-30",
+            // weekend
+            "2023-05-28, 2023-05-26",
+            "2023-05-27, 2023-05-26",
+            // after the latest date
+            "2023-06-15, 2023-05-30",
+            // before the first date
+            "2023-05-23, null"
+    })
+    void getRatesForDate_fallbackPrevious_usesNearestEarlierDate(String dateString, String expectedDateString) {
+        Optional<ExchangeRate> result = exchangeRateService.getRatesForDate(LocalDate.parse(dateString),
+                DateFallback.PREVIOUS);
+        if ("null".equals(expectedDateString)) {
+            assertEquals(Optional.empty(), result);
+            assertEquals(Optional.empty(), exchangeRateService.resolveDate(LocalDate.parse(dateString),
+                    DateFallback.PREVIOUS));
+        } else {
+            LocalDate expectedDate = LocalDate.parse(expectedDateString);
+            assertEquals(expectedDate, result.get().getDate());
+            assertEquals(exchangeRateService.getRatesForDate(expectedDate).get().getRates(),
+                    result.get().getRates());
+            assertEquals(Optional.of(expectedDate), exchangeRateService.resolveDate(LocalDate.parse(dateString),
+                    DateFallback.PREVIOUS));
+        }
+    }
+
+    @Test
+    void getRatesForDate_noFallback_weekendReturnsEmpty() {
+        assertEquals(Optional.empty(), exchangeRateService.getRatesForDate(LocalDate.of(2023, 5, 28),
+                DateFallback.NONE));
+    }
+
+    @Test
+    void convertCurrency_fallbackPrevious_reportsResolvedDate() {
+        CurrencyConversion result = exchangeRateService.convertCurrency(LocalDate.of(2023, 5, 28), "USD", "JPY",
+                BigDecimal.valueOf(100), DateFallback.PREVIOUS).get();
+
+        assertEquals(LocalDate.of(2023, 5, 26), result.getConversionDate());
+        assertEquals(exchangeRateService.convertCurrency(LocalDate.of(2023, 5, 26), "USD", "JPY",
+                BigDecimal.valueOf(100)).get().getConvertedAmount(), result.getConvertedAmount());
+    }
+
     @ParameterizedTest
     @CsvSource({
             // rounded down
             "2023-05-30, USD, JPY, 100, 13962.21",
             // rounded up
             "2023-05-30, BGN, GBP, 100, 44.16",
-            // target is missing
-            "2023-05-30, BGN, EEK, 100, null",
-            // source is missing
-            "2023-05-30, EEK, BGN, 100, null",
-            // both source and target are missing
-            "2023-05-30, EEK, TRL, 100, null"
+            // no rates on the date
+            "2023-05-28, USD, JPY, 100, null"
     })
     void testConvertCurrency(String dateString, String sourceCurrency,
             String targetCurrency, BigDecimal amount,
@@ -133,6 +190,71 @@ public class ExchangeRateServiceTest {
         }
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            "2023-05-30, USD, JPY, 100, 13962.21",
+            "2023-05-30, BGN, GBP, 100, 44.16",
+            "2022-01-01, USD, JPY, 100, null"
+    })
+    void testBatchConverter_matchesConvertCurrency(String dateString, String sourceCurrency,
+            String targetCurrency, BigDecimal amount,
+            @ConvertWith(NullableConverter.class) BigDecimal expected) {
+        LocalDate inputDate = LocalDate.parse(dateString, DateTimeFormatter.ISO_DATE);
+        BatchCurrencyConverter converter = exchangeRateService.newBatchConverter();
+
+        // The second conversion is served from the converter's cache.
+        for (int i = 0; i < 2; i++) {
+            CurrencyConversion result = converter.convert(inputDate, sourceCurrency, targetCurrency, amount);
+            assertEquals(expected, result.getConvertedAmount());
+            assertEquals(amount, result.getSourceAmount());
+            assertEquals(inputDate, result.getConversionDate());
+        }
+    }
+
+    @Test
+    void testBatchConverter_repeatedPair_matchesConvertCurrency() {
+        BatchCurrencyConverter converter = exchangeRateService.newBatchConverter();
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        Random random = new Random(42);
+
+        // All but the first conversion reuse the factor of the day and pair.
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong() % 100_000_000, 2);
+            assertEquals(exchangeRateService.convertCurrency(date, "GBP", "JPY", amount).get().getConvertedAmount(),
+                    converter.convert(date, "GBP", "JPY", amount).getConvertedAmount(), amount.toPlainString());
+        }
+    }
+
+    @Test
+    void testBatchConverter_currencyInLowerCase_returnsUpperCaseCode() {
+        CurrencyConversion result = exchangeRateService.newBatchConverter().convert(LocalDate.of(2023, 5, 30),
+                "usd", "jPy", BigDecimal.valueOf(100));
+
+        assertEquals("USD", result.getSourceCurrency());
+        assertEquals("JPY", result.getTargetCurrency());
+        assertEquals(new BigDecimal("13962.21"), result.getConvertedAmount());
+    }
+
+    @Test
+    void testBatchConverter_unknownCurrency_throwsUnknownCurrencyException() {
+        BatchCurrencyConverter converter = exchangeRateService.newBatchConverter();
+
+        assertThrows(UnknownCurrencyException.class,
+                () -> converter.convert(LocalDate.of(2023, 5, 30), "BGN", "EEK", BigDecimal.valueOf(100)));
+        assertThrows(UnknownCurrencyException.class,
+                () -> converter.convert(LocalDate.of(2023, 5, 30), "US", "JPY", BigDecimal.valueOf(100)));
+    }
+
+    @Test
+    void testBatchConverter_missingFields_returnsNoConvertedAmount() {
+        BatchCurrencyConverter converter = exchangeRateService.newBatchConverter();
+
+        assertNull(converter.convert(null, "USD", "JPY", BigDecimal.ONE).getConvertedAmount());
+        assertNull(converter.convert(LocalDate.of(2023, 5, 30), "USD", null, BigDecimal.ONE)
+                .getConvertedAmount());
+        assertNull(converter.convert(LocalDate.of(2023, 5, 30), "USD", "JPY", null).getConvertedAmount());
+    }
+
     @ParameterizedTest
     @CsvSource({
             // includes a weekend - should be processed properly
@@ -142,7 +264,6 @@ public class ExchangeRateServiceTest {
             // make sure it works if it's given a wide range
             "1995-05-24, 2040-05-30, GBP, 0.86993",
             // no data for the currency
-            "2023-05-24, 2023-05-30, EEK, null",
             "1995-05-24, 2000-05-30, GBP, null",
     })
     void testGetHighestRate(String startDateString, String endDateString,
@@ -171,6 +292,43 @@ public class ExchangeRateServiceTest {
         });
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            // includes a weekend - should be processed properly
+            "2023-05-26, 2023-05-30, USD, 1.0715",
+            // includes days without data for the currency
+            "2023-05-24, 2023-05-30, GBP, 0.86365",
+            // make sure it works if it's given a wide range
+            "1995-05-24, 2040-05-30, JPY, 149.3",
+            // no data for the currency
+            "1995-05-24, 2000-05-30, GBP, null",
+    })
+    void testGetLowestRate(String startDateString, String endDateString,
+            String currency,
+            @ConvertWith(NullableConverter.class) BigDecimal expected) {
+        LocalDate startDate = LocalDate
+                .parse(startDateString, DateTimeFormatter.ISO_DATE);
+        LocalDate endDate = LocalDate
+                .parse(endDateString, DateTimeFormatter.ISO_DATE);
+        Optional<CurrencyLowestRate> result = exchangeRateService
+                .getLowestRate(startDate, endDate, currency);
+        if (expected == null) {
+            assertEquals(Optional.empty(), result);
+        } else {
+            assertEquals(expected, result.get().getLowestRate());
+        }
+    }
+
+    @Test
+    public void getLowestRate_endDateBeforeStartDate_throwsInvalidDateRangeException() {
+        LocalDate startDate = LocalDate.of(2023, 5, 30);
+        LocalDate endDate = LocalDate.of(2023, 5, 29);
+
+        assertThrows(InvalidDateRangeException.class, () -> {
+            exchangeRateService.getLowestRate(startDate, endDate, "USD");
+        });
+    }
+
     @ParameterizedTest
     @CsvSource({
             // includes a weekend - should be processed properly
@@ -178,7 +336,6 @@ public class ExchangeRateServiceTest {
             // includes days without data for the currency
             "2023-05-24, 2023-05-30, GBP, 0.87",
             // no data for the currency
-            "2023-05-24, 2023-05-30, EEK, null",
             "1995-05-24, 2000-05-30, GBP, null"
     })
     void testGetAverageRate(String startDateString, String endDateString,
@@ -206,4 +363,500 @@ public class ExchangeRateServiceTest {
             exchangeRateService.getAverageRate(startDate, endDate, "USD");
         });
     }
+
+    @Test
+    public void rangeQueries_fallbackPrevious_snapDatesToNearestEarlierDate() {
+        LocalDate saturday = LocalDate.of(2023, 5, 27);
+        LocalDate sunday = LocalDate.of(2023, 5, 28);
+        LocalDate friday = LocalDate.of(2023, 5, 26);
+
+        // Without a fallback there are no days in the range.
+        assertEquals(Optional.empty(), exchangeRateService.getHighestRate(saturday, sunday, "USD"));
+
+        CurrencyHighestRate highestRate = exchangeRateService
+                .getHighestRate(saturday, sunday, "USD", DateFallback.PREVIOUS).get();
+        assertEquals(friday, highestRate.getStartDate());
+        assertEquals(friday, highestRate.getEndDate());
+        assertEquals(BigDecimal.valueOf(1.0751), highestRate.getHighestRate());
+
+        CurrencyLowestRate lowestRate = exchangeRateService
+                .getLowestRate(saturday, LocalDate.of(2023, 5, 29), "USD", DateFallback.PREVIOUS).get();
+        assertEquals(friday, lowestRate.getStartDate());
+        assertEquals(LocalDate.of(2023, 5, 29), lowestRate.getEndDate());
+        assertEquals(BigDecimal.valueOf(1.0715), lowestRate.getLowestRate());
+
+        CurrencyAverageRate averageRate = exchangeRateService
+                .getAverageRate(saturday, sunday, "USD", DateFallback.PREVIOUS).get();
+        assertEquals(new BigDecimal("1.08"), averageRate.getAverageRate());
+    }
+
+    @Test
+    public void getTimeSeries_returnsRatesOfEveryDayInRange() {
+        Optional<TimeSeries> result = exchangeRateService.getTimeSeries(LocalDate.of(2023, 5, 25),
+                LocalDate.of(2023, 5, 29), List.of("GBP", "USD"));
+
+        TimeSeries timeSeries = result.get();
+        assertEquals(List.of("GBP", "USD"), timeSeries.getCurrencies());
+        assertEquals(3, timeSeries.size());
+        assertEquals(LocalDate.of(2023, 5, 25), timeSeries.date(0));
+        assertEquals(LocalDate.of(2023, 5, 29), timeSeries.date(2));
+        // GBP has no rate on 2023-05-25.
+        assertNull(timeSeries.rate(0, 0));
+        assertEquals(BigDecimal.valueOf(0.86813), timeSeries.rate(0, 1));
+        assertEquals(BigDecimal.valueOf(1.0715), timeSeries.rate(1, 2));
+    }
+
+    @Test
+    void getTimeSeries_noData_returnsEmpty() {
+        // No days in the range.
+        assertEquals(Optional.empty(), exchangeRateService.getTimeSeries(LocalDate.of(2023, 5, 27),
+                LocalDate.of(2023, 5, 28), List.of("USD", "GBP")));
+    }
+
+    @Test
+    public void getTimeSeries_endDateBeforeStartDate_throwsInvalidDateRangeException() {
+        assertThrows(InvalidDateRangeException.class, () -> exchangeRateService
+                .getTimeSeries(LocalDate.of(2023, 5, 30), LocalDate.of(2023, 5, 29), List.of("USD")));
+    }
+
+    private List<BigDecimal> rollingValues(String startDate, String currency, int window,
+            RollingStatistic statistic) throws Exception {
+        List<BigDecimal> values = new ArrayList<>();
+        exchangeRateService.getRollingSeries(LocalDate.parse(startDate), LocalDate.of(2023, 5, 30), currency,
+                window, statistic).get().forEach((date, value) -> values.add(value));
+        return values;
+    }
+
+    @Test
+    public void exportRates_filtersDatesAndCurrencies() {
+        RateStore export = exchangeRateService.exportRates(LocalDate.of(2023, 5, 25), LocalDate.of(2023, 5, 28),
+                List.of("gbp", "USD", "GBP"), null).get();
+
+        assertEquals(2, export.size());
+        assertEquals(LocalDate.of(2023, 5, 25), export.date(0));
+        assertEquals(LocalDate.of(2023, 5, 26), export.date(1));
+        assertEquals(2, export.currencyCount());
+        assertEquals("GBP", export.currencyCode(0));
+        assertNull(export.rateAsBigDecimal(0, 0));
+        assertEquals(BigDecimal.valueOf(1.0751), export.rateAsBigDecimal(1, 1));
+    }
+
+    @Test
+    public void exportRates_noFilters_exportsEverything() {
+        RateStore export = exchangeRateService.exportRates(null, null, null, null).get();
+
+        assertEquals(5, export.size());
+        assertEquals(4, export.currencyCount());
+        assertEquals(LocalDate.of(2023, 5, 30), export.date(4));
+        assertEquals(Optional.empty(), exchangeRateService.exportRates(LocalDate.of(2023, 5, 27),
+                LocalDate.of(2023, 5, 28), null, null));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService.exportRates(null, null,
+                List.of("EEK"), null));
+        assertThrows(InvalidDateRangeException.class, () -> exchangeRateService.exportRates(
+                LocalDate.of(2023, 5, 30), LocalDate.of(2023, 5, 29), null, null));
+    }
+
+    @Test
+    public void getRollingSeries_computesStatisticOverSlidingWindow() throws Exception {
+        // The first window is incomplete.
+        assertEquals(Arrays.asList(null, new BigDecimal("1.0735"), new BigDecimal("1.0735"),
+                new BigDecimal("1.0715"), new BigDecimal("1.0715")),
+                rollingValues("2023-05-24", "USD", 2, RollingStatistic.MIN));
+        // The windows reach back before the start date.
+        assertEquals(List.of(new BigDecimal("1.0785"), new BigDecimal("1.0751"), new BigDecimal("1.0751")),
+                rollingValues("2023-05-26", "USD", 3, RollingStatistic.MAX));
+        assertEquals(List.of(new BigDecimal("1.08"), new BigDecimal("1.07"), new BigDecimal("1.07")),
+                rollingValues("2023-05-26", "USD", 3, RollingStatistic.MEAN));
+        assertEquals(new BigDecimal("0.003536"), rollingValues("2023-05-25", "USD", 2, RollingStatistic.STDDEV)
+                .get(0));
+    }
+
+    @Test
+    public void getRollingSeries_missingRates_areSkipped() throws Exception {
+        List<BigDecimal> values = rollingValues("2023-05-26", "GBP", 2, RollingStatistic.STDDEV);
+
+        // Only one rate in the window of 2023-05-26.
+        assertNull(values.get(0));
+        assertEquals(new BigDecimal("0.86813"), rollingValues("2023-05-26", "GBP", 2, RollingStatistic.MIN)
+                .get(0));
+    }
+
+    @Test
+    public void getRollingSeries_noData_returnsEmpty() {
+        assertEquals(Optional.empty(), exchangeRateService.getRollingSeries(LocalDate.of(2023, 5, 27),
+                LocalDate.of(2023, 5, 28), "USD", 2, RollingStatistic.MEAN));
+    }
+
+    @Test
+    public void getSummary_computesStatisticsOfEachCurrency() {
+        RateSummary summary = exchangeRateService.getSummary(LocalDate.of(2023, 5, 24),
+                LocalDate.of(2023, 5, 30), List.of("usd", "GBP", "USD"), DateFallback.NONE, null).get();
+
+        assertEquals(List.of("USD", "GBP"), new ArrayList<>(summary.getCurrencies().keySet()));
+        assertNull(summary.getBase());
+        RateSummary.Statistics usd = summary.getCurrencies().get("USD");
+        assertEquals(5, usd.getCount());
+        assertEquals(BigDecimal.valueOf(1.0715), usd.getMinRate());
+        assertEquals(BigDecimal.valueOf(1.0785), usd.getMaxRate());
+        assertEquals(new BigDecimal("1.07"), usd.getAverageRate());
+        assertEquals(new BigDecimal("0.002565"), usd.getStandardDeviation());
+        assertEquals(LocalDate.of(2023, 5, 24), usd.getFirstDate());
+        assertEquals(BigDecimal.valueOf(1.0785), usd.getFirstRate());
+        assertEquals(LocalDate.of(2023, 5, 30), usd.getLastDate());
+        assertEquals(BigDecimal.valueOf(1.0744), usd.getLastRate());
+        assertEquals(new BigDecimal("-0.3802"), usd.getChangePercent());
+        // GBP has no rate on 2023-05-25.
+        RateSummary.Statistics gbp = summary.getCurrencies().get("GBP");
+        assertEquals(4, gbp.getCount());
+        assertEquals(new BigDecimal("0.002672"), gbp.getStandardDeviation());
+        assertEquals(new BigDecimal("-0.7219"), gbp.getChangePercent());
+    }
+
+    @Test
+    public void getSummary_noCurrencies_summarizesAllCurrencies() {
+        RateSummary summary = exchangeRateService.getSummary(LocalDate.of(2023, 5, 25),
+                LocalDate.of(2023, 5, 25), null, DateFallback.NONE, null).get();
+
+        assertEquals(4, summary.getCurrencies().size());
+        RateSummary.Statistics usd = summary.getCurrencies().get("USD");
+        assertEquals(1, usd.getCount());
+        assertNull(usd.getStandardDeviation());
+        assertEquals(new BigDecimal("0.0000"), usd.getChangePercent());
+        RateSummary.Statistics gbp = summary.getCurrencies().get("GBP");
+        assertEquals(0, gbp.getCount());
+        assertNull(gbp.getMinRate());
+        assertNull(gbp.getChangePercent());
+    }
+
+    @Test
+    public void getSummary_fallbackPrevious_reportsResolvedDates() {
+        RateSummary summary = exchangeRateService.getSummary(LocalDate.of(2023, 5, 27),
+                LocalDate.of(2023, 5, 28), List.of("USD"), DateFallback.PREVIOUS, null).get();
+
+        assertEquals(LocalDate.of(2023, 5, 26), summary.getStartDate());
+        assertEquals(LocalDate.of(2023, 5, 26), summary.getEndDate());
+        assertEquals(1, summary.getCurrencies().get("USD").getCount());
+        assertEquals(Optional.empty(), exchangeRateService.getSummary(LocalDate.of(2023, 5, 27),
+                LocalDate.of(2023, 5, 28), List.of("USD"), DateFallback.NONE, null));
+        assertThrows(InvalidDateRangeException.class, () -> exchangeRateService.getSummary(
+                LocalDate.of(2023, 5, 30), LocalDate.of(2023, 5, 29), null, DateFallback.NONE, null));
+    }
+
+    @Test
+    public void getSummary_firstRateZero_leavesOutChange() throws Exception {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "USD", BigDecimal.ZERO);
+        row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0744"));
+        when(exchangeRateProvider.getRateStore()).thenReturn(builder.build());
+        ExchangeRateService service = new ExchangeRateService(exchangeRateProvider);
+
+        RateSummary.Statistics usd = service.getSummary(LocalDate.of(2023, 5, 29), LocalDate.of(2023, 5, 30),
+                List.of("USD"), DateFallback.NONE, null).get().getCurrencies().get("USD");
+
+        assertEquals(2, usd.getCount());
+        assertEquals(BigDecimal.ZERO, usd.getFirstRate());
+        assertEquals(new BigDecimal("1.0744"), usd.getLastRate());
+        assertNull(usd.getChangePercent());
+    }
+
+    @Test
+    public void getSummary_largeRequest_matchesSummaryOfEachCurrency() throws Exception {
+        // Large enough to be computed in parallel, while each currency alone
+        // is not.
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        LocalDate startDate = LocalDate.of(1950, 1, 1);
+        int days = 40_000;
+        for (int day = 0; day < days; day++) {
+            int row = builder.addDay(startDate.plusDays(day));
+            builder.putRate(row, "USD", BigDecimal.valueOf(10_000 + day % 997, 4));
+            if (day % 3 != 0) {
+                builder.putRate(row, "JPY", BigDecimal.valueOf(1_500_000 + day % 1009 * 7, 4));
+            }
+        }
+        when(exchangeRateProvider.getRateStore()).thenReturn(builder.build());
+        ExchangeRateService service = new ExchangeRateService(exchangeRateProvider);
+        LocalDate endDate = startDate.plusDays(days - 1);
+
+        RateSummary summary = service.getSummary(startDate, endDate, null, DateFallback.NONE, null).get();
+
+        for (String currency : List.of("USD", "JPY")) {
+            RateSummary.Statistics expected = service.getSummary(startDate, endDate, List.of(currency),
+                    DateFallback.NONE, null).get().getCurrencies().get(currency);
+            RateSummary.Statistics actual = summary.getCurrencies().get(currency);
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getMinRate(), actual.getMinRate());
+            assertEquals(expected.getMaxRate(), actual.getMaxRate());
+            assertEquals(expected.getAverageRate(), actual.getAverageRate());
+            assertEquals(expected.getStandardDeviation(), actual.getStandardDeviation());
+            assertEquals(expected.getChangePercent(), actual.getChangePercent());
+        }
+        assertEquals(service.getAverageRate(startDate, endDate, "JPY").get().getAverageRate(),
+                summary.getCurrencies().get("JPY").getAverageRate());
+        assertEquals(service.getHighestRate(startDate, endDate, "USD").get().getHighestRate(),
+                summary.getCurrencies().get("USD").getMaxRate());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // not in the data
+            "EEK",
+            // not a currency code
+            "US",
+            "US1",
+            "USDX"
+    })
+    void queries_unknownCurrency_throwUnknownCurrencyException(String currency) {
+        LocalDate startDate = LocalDate.of(2023, 5, 24);
+        LocalDate endDate = LocalDate.of(2023, 5, 30);
+
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .convertCurrency(endDate, "USD", currency, BigDecimal.ONE));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .convertCurrency(endDate, currency, "USD", BigDecimal.ONE));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getHighestRate(startDate, endDate, currency));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getLowestRate(startDate, endDate, currency));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getAverageRate(startDate, endDate, currency));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getTimeSeries(startDate, endDate, List.of("USD", currency)));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getRollingSeries(startDate, endDate, currency, 2, RollingStatistic.MEAN));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getSummary(startDate, endDate, List.of("USD", currency), DateFallback.NONE, null));
+        // Also when there are no days in the range.
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getHighestRate(LocalDate.of(2023, 5, 27), LocalDate.of(2023, 5, 28), currency));
+    }
+
+    @Test
+    void queries_lowerCaseCurrency_areNormalized() {
+        CurrencyConversion conversion = exchangeRateService.convertCurrency(LocalDate.of(2023, 5, 30), "usd",
+                "Jpy", BigDecimal.valueOf(100)).get();
+        assertEquals("USD", conversion.getSourceCurrency());
+        assertEquals("JPY", conversion.getTargetCurrency());
+        assertEquals(new BigDecimal("13962.21"), conversion.getConvertedAmount());
+
+        CurrencyHighestRate highestRate = exchangeRateService.getHighestRate(LocalDate.of(2023, 5, 26),
+                LocalDate.of(2023, 5, 30), "usd").get();
+        assertEquals("USD", highestRate.getCurrency());
+        assertEquals(BigDecimal.valueOf(1.0751), highestRate.getHighestRate());
+    }
+
+    @Test
+    void rangeQueries_base_areQuotedAgainstBase() {
+        LocalDate startDate = LocalDate.of(2023, 5, 24);
+        LocalDate endDate = LocalDate.of(2023, 5, 30);
+
+        assertEquals(new BigDecimal("140.261316"), exchangeRateService
+                .getHighestRate(startDate, endDate, "JPY", DateFallback.NONE, "USD").get().getHighestRate());
+        assertEquals(new BigDecimal("138.433009"), exchangeRateService
+                .getLowestRate(startDate, endDate, "JPY", DateFallback.NONE, "usd").get().getLowestRate());
+        assertEquals(new BigDecimal("139.489354"), exchangeRateService
+                .getAverageRate(startDate, endDate, "JPY", DateFallback.NONE, "USD").get().getAverageRate());
+        RateSummary.Statistics summary = exchangeRateService.getSummary(startDate, endDate, List.of("JPY"),
+                DateFallback.NONE, "USD").get().getCurrencies().get("JPY");
+        assertEquals(new BigDecimal("140.261316"), summary.getMaxRate());
+        assertEquals(new BigDecimal("138.433009"), summary.getMinRate());
+        assertEquals(new BigDecimal("139.489354"), summary.getAverageRate());
+        // The euro is quoted against the base as well.
+        assertEquals(new BigDecimal("0.930752"), exchangeRateService
+                .getHighestRate(endDate, endDate, "EUR", DateFallback.NONE, "USD").get().getHighestRate());
+        // EUR as base is the same as no base.
+        assertEquals(BigDecimal.valueOf(150.29), exchangeRateService
+                .getHighestRate(startDate, endDate, "JPY", DateFallback.NONE, "EUR").get().getHighestRate());
+    }
+
+    @Test
+    void getRatesForDate_base_quotesRatesAgainstBase() {
+        ExchangeRate rates = exchangeRateService.getRatesForDate(LocalDate.of(2023, 5, 25), DateFallback.NONE,
+                "usd").get();
+
+        assertEquals("USD", rates.getBase());
+        assertEquals(new BigDecimal("1.000000"), rates.getRates().get("USD"));
+        assertEquals(new BigDecimal("139.385189"), rates.getRates().get("JPY"));
+        assertEquals(new BigDecimal("0.931532"), rates.getRates().get("EUR"));
+        assertFalse(rates.getRates().containsKey("GBP"));
+        assertNull(exchangeRateService.getRatesForDate(LocalDate.of(2023, 5, 25)).get().getBase());
+    }
+
+    @Test
+    void queries_base_reuseRebasedSnapshotUntilRefresh() throws Exception {
+        LocalDate date = LocalDate.of(2023, 5, 30);
+        long euroBytes = exchangeRateService.getSnapshotMemoryBytes();
+        exchangeRateService.getHighestRate(date, date, "JPY", DateFallback.NONE, "USD");
+        long rebasedBytes = exchangeRateService.getSnapshotMemoryBytes();
+
+        exchangeRateService.getLowestRate(date, date, "GBP", DateFallback.NONE, "USD");
+        exchangeRateService.getTimeSeries(date, date, List.of("JPY"), "USD");
+
+        assertTrue(rebasedBytes > euroBytes);
+        assertEquals(rebasedBytes, exchangeRateService.getSnapshotMemoryBytes());
+        exchangeRateService.refresh();
+        assertEquals(euroBytes, exchangeRateService.getSnapshotMemoryBytes());
+    }
+
+    @Test
+    void queries_unknownBase_throwUnknownCurrencyException() {
+        LocalDate date = LocalDate.of(2023, 5, 30);
+
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getRatesForDate(date, DateFallback.NONE, "EEK"));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getHighestRate(date, date, "USD", DateFallback.NONE, "EEK"));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService
+                .getRollingSeries(date, date, "USD", 2, RollingStatistic.MEAN, "US"));
+        assertThrows(UnknownCurrencyException.class, () -> exchangeRateService.resolveBase("EEK"));
+        assertEquals(-1, exchangeRateService.resolveBase(null));
+        assertEquals(-1, exchangeRateService.resolveBase("eur"));
+    }
+
+    @Test
+    public void getRollingSeries_endDateBeforeStartDate_throwsInvalidDateRangeException() {
+        assertThrows(InvalidDateRangeException.class, () -> exchangeRateService.getRollingSeries(
+                LocalDate.of(2023, 5, 30), LocalDate.of(2023, 5, 29), "USD", 2, RollingStatistic.MEAN));
+    }
+
+    @Test
+    public void refresh_publishesNewSnapshot() throws Exception {
+        long version = exchangeRateService.getSnapshotStatus().getVersion();
+        TreeMap<LocalDate, ExchangeRate> newData = new TreeMap<>();
+        newData.put(LocalDate.of(2023, 5, 31), new ExchangeRate(new HashMap<>() {
+            {
+                put("USD", BigDecimal.valueOf(1.0700));
+            }
+        }));
+        when(exchangeRateProvider.getRateStore()).thenReturn(ColumnarRateStore.of(newData));
+
+        exchangeRateService.refresh();
+
+        SnapshotStatus status = exchangeRateService.getSnapshotStatus();
+        assertEquals(version + 1, status.getVersion());
+        assertEquals(1, status.getDayCount());
+        assertEquals(LocalDate.of(2023, 5, 31), status.getLastDate());
+        assertEquals(Optional.empty(), exchangeRateService.getRatesForDate(LocalDate.of(2023, 5, 30)));
+        assertEquals(BigDecimal.valueOf(1.0700),
+                exchangeRateService.getRatesForDate(LocalDate.of(2023, 5, 31)).get().getRates().get("USD"));
+    }
+
+    @Test
+    public void refresh_providerFails_keepsPreviousSnapshot() throws Exception {
+        long version = exchangeRateService.getSnapshotStatus().getVersion();
+        when(exchangeRateProvider.getRateStore()).thenThrow(new NoDataFromSource("No files found from the zip file"));
+
+        assertThrows(NoDataFromSource.class, () -> exchangeRateService.refresh());
+
+        assertEquals(version, exchangeRateService.getSnapshotStatus().getVersion());
+        assertTrue(exchangeRateService.getRatesForDate(LocalDate.of(2023, 5, 30)).isPresent());
+    }
+
+    @Test
+    public void refreshIncrementally_mergesNewRates() throws Exception {
+        long version = exchangeRateService.getSnapshotStatus().getVersion();
+        TreeMap<LocalDate, ExchangeRate> newData = new TreeMap<>();
+        newData.put(LocalDate.of(2023, 5, 31), new ExchangeRate(new HashMap<>() {
+            {
+                put("USD", BigDecimal.valueOf(1.0700));
+                put("GBP", BigDecimal.valueOf(0.86));
+            }
+        }));
+        when(exchangeRateProvider.getExchangeRatesSince(LocalDate.of(2023, 5, 30))).thenReturn(newData);
+
+        assertTrue(exchangeRateService.refreshIncrementally());
+
+        SnapshotStatus status = exchangeRateService.getSnapshotStatus();
+        assertEquals(version + 1, status.getVersion());
+        assertEquals(6, status.getDayCount());
+        assertEquals(BigDecimal.valueOf(1.0744),
+                exchangeRateService.getRatesForDate(LocalDate.of(2023, 5, 30)).get().getRates().get("USD"));
+        assertEquals(BigDecimal.valueOf(1.0700),
+                exchangeRateService.getRatesForDate(LocalDate.of(2023, 5, 31)).get().getRates().get("USD"));
+        assertEquals(BigDecimal.valueOf(0.86),
+                exchangeRateService.getLowestRate(LocalDate.of(2023, 5, 24), LocalDate.of(2023, 5, 31), "GBP")
+                        .get().getLowestRate());
+    }
+
+    @Test
+    public void refreshIncrementally_noNewRates_keepsSnapshot() throws Exception {
+        long version = exchangeRateService.getSnapshotStatus().getVersion();
+        when(exchangeRateProvider.getExchangeRatesSince(LocalDate.of(2023, 5, 30))).thenReturn(new TreeMap<>());
+
+        assertFalse(exchangeRateService.refreshIncrementally());
+
+        assertEquals(version, exchangeRateService.getSnapshotStatus().getVersion());
+    }
+
+    @Test
+    public void snapshotFile_savedOnRefreshAndLoadedOnStartup(@TempDir Path directory) throws Exception {
+        RateStoreFile snapshotFile = new RateStoreFile(directory.resolve("rates.snapshot"));
+        new ExchangeRateService(exchangeRateProvider, snapshotFile);
+        assertTrue(snapshotFile.exists());
+
+        ExchangeRateService restarted = new ExchangeRateService(exchangeRateProvider, snapshotFile);
+
+        // Only the set-up and the first service loaded from the provider.
+        verify(exchangeRateProvider, times(2)).getRateStore();
+        assertTrue(restarted.isServingSnapshotFile());
+        assertEquals(new BigDecimal("1.0744"),
+                restarted.getRatesForDate(LocalDate.of(2023, 5, 30)).get().getRates().get("USD"));
+        assertEquals(exchangeRateService.getSnapshotStatus().getDayCount(),
+                restarted.getSnapshotStatus().getDayCount());
+    }
+
+    @Test
+    public void snapshotFile_corrupt_loadsFromProvider(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("rates.snapshot");
+        Files.write(path, new byte[] { 1, 2, 3 });
+
+        ExchangeRateService service = new ExchangeRateService(exchangeRateProvider, new RateStoreFile(path));
+
+        assertFalse(service.isServingSnapshotFile());
+        assertTrue(service.getRatesForDate(LocalDate.of(2023, 5, 30)).isPresent());
+        assertTrue(new RateStoreFile(path).read().size() > 0);
+    }
+
+    @Test
+    public void refreshIncrementally_afterSnapshotFile_clearsServingSnapshotFile(@TempDir Path directory)
+            throws Exception {
+        RateStoreFile snapshotFile = new RateStoreFile(directory.resolve("rates.snapshot"));
+        new ExchangeRateService(exchangeRateProvider, snapshotFile);
+        ExchangeRateService restarted = new ExchangeRateService(exchangeRateProvider, snapshotFile);
+        when(exchangeRateProvider.getExchangeRatesSince(LocalDate.of(2023, 5, 30))).thenReturn(new TreeMap<>());
+
+        assertFalse(restarted.refreshIncrementally());
+
+        assertFalse(restarted.isServingSnapshotFile());
+    }
+
+    @Test
+    public void crossRates_giveSameConversionsAsDividing() throws Exception {
+        ExchangeRateService crossRateService = new ExchangeRateService(exchangeRateProvider, null,
+                new CrossRateMatrix.Settings(2, List.of("USD/JPY")));
+        List<String> currencies = List.of("USD", "JPY", "BGN", "GBP");
+        List<BigDecimal> amounts = List.of(new BigDecimal("100"), new BigDecimal("0.005"),
+                new BigDecimal("-12345.678"), new BigDecimal("99999999999.99"));
+        BatchCurrencyConverter converter = crossRateService.newBatchConverter();
+
+        for (LocalDate date = LocalDate.of(2023, 5, 24); !date.isAfter(LocalDate.of(2023, 5, 30)); date = date
+                .plusDays(1)) {
+            for (String source : currencies) {
+                for (String target : currencies) {
+                    for (BigDecimal amount : amounts) {
+                        Optional<CurrencyConversion> expected = exchangeRateService.convertCurrency(date, source,
+                                target, amount);
+                        assertEquals(expected.map(CurrencyConversion::getConvertedAmount),
+                                crossRateService.convertCurrency(date, source, target, amount)
+                                        .map(CurrencyConversion::getConvertedAmount));
+                        assertEquals(expected.map(CurrencyConversion::getConvertedAmount).orElse(null),
+                                converter.convert(date, source, target, amount).getConvertedAmount());
+                    }
+                }
+            }
+        }
+        assertTrue(crossRateService.getSnapshotStatus().getCrossRateBytes() > 0);
+        assertEquals(0, exchangeRateService.getSnapshotStatus().getCrossRateBytes());
+    }
 }
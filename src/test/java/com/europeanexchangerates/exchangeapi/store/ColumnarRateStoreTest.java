@@ -0,0 +1,198 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+
+class ColumnarRateStoreTest {
+    private ColumnarRateStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Rows are added newest first like in the ECB file.
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0744"));
+        builder.putRate(row, "GBP", new BigDecimal("0.86365"));
+        row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "USD", new BigDecimal("1.0715"));
+        row = builder.addDay(LocalDate.of(2023, 5, 26));
+        builder.putRate(row, "USD", new BigDecimal("1.0800"));
+        builder.putRate(row, "GBP", new BigDecimal("0.86813"));
+        store = builder.build();
+    }
+
+    @Test
+    void build_sortsDaysChronologically() {
+        assertEquals(3, store.size());
+        assertEquals(LocalDate.of(2023, 5, 26), store.date(0));
+        assertEquals(LocalDate.of(2023, 5, 29), store.date(1));
+        assertEquals(LocalDate.of(2023, 5, 30), store.date(2));
+    }
+
+    @Test
+    void rateAsBigDecimal_keepsPublishedScale() {
+        int usd = store.currencyId("USD");
+        assertEquals(new BigDecimal("1.0800"), store.rateAsBigDecimal(usd, 0));
+        assertEquals(1_080_000L, store.rate(usd, 0));
+    }
+
+    @Test
+    void rateAsBigDecimal_missingRate_returnsNull() {
+        int gbp = store.currencyId("GBP");
+        assertFalse(store.hasRate(gbp, 1));
+        assertNull(store.rateAsBigDecimal(gbp, 1));
+    }
+
+    @Test
+    void currencyId_unknownCurrency_returnsMinusOne() {
+        assertEquals(-1, store.currencyId("EEK"));
+    }
+
+    @Test
+    void currencyId_lowerCase_returnsSameId() {
+        assertEquals(store.currencyId("USD"), store.currencyId("usd"));
+        assertEquals("USD", store.currencyCode(store.currencyId("usd")));
+    }
+
+    @Test
+    void builder_invalidCurrencyCode_throwsException() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 30));
+
+        assertThrows(IllegalArgumentException.class, () -> builder.putRate(row, "US", BigDecimal.ONE));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "2023-05-26, 0, 0, 0",
+            "2023-05-27, -1, 1, 0",
+            "2023-05-01, -1, 0, -1",
+            "2023-06-01, -1, 3, 2",
+    })
+    void lookups(String date, int index, int ceiling, int floor) {
+        LocalDate localDate = LocalDate.parse(date);
+        assertEquals(index, store.indexOf(localDate));
+        assertEquals(ceiling, store.ceilingIndex(localDate));
+        assertEquals(floor, store.floorIndex(localDate));
+    }
+
+    @Test
+    void build_duplicateDate_laterRowWins() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0744"));
+        builder.putRate(row, "GBP", new BigDecimal("0.86365"));
+        row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0745"));
+        ColumnarRateStore merged = builder.build();
+
+        assertEquals(1, merged.size());
+        assertEquals(new BigDecimal("1.0745"), merged.rateAsBigDecimal(merged.currencyId("USD"), 0));
+        assertEquals(new BigDecimal("0.86365"), merged.rateAsBigDecimal(merged.currencyId("GBP"), 0));
+    }
+
+    @Test
+    void build_unorderedDaysWithDuplicate_sortsAndLaterRowWins() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "USD", new BigDecimal("1.0715"));
+        row = builder.addDay(LocalDate.of(1969, 12, 31));
+        builder.putRate(row, "USD", new BigDecimal("1.2"));
+        row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0744"));
+        row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "USD", new BigDecimal("1.0716"));
+        row = builder.addDay(LocalDate.of(2023, 5, 26));
+        builder.putRate(row, "USD", new BigDecimal("1.0800"));
+        ColumnarRateStore sorted = builder.build();
+
+        int usd = sorted.currencyId("USD");
+        assertEquals(4, sorted.size());
+        assertEquals(LocalDate.of(1969, 12, 31), sorted.date(0));
+        assertEquals(LocalDate.of(2023, 5, 26), sorted.date(1));
+        assertEquals(LocalDate.of(2023, 5, 29), sorted.date(2));
+        assertEquals(LocalDate.of(2023, 5, 30), sorted.date(3));
+        assertEquals(new BigDecimal("1.2"), sorted.rateAsBigDecimal(usd, 0));
+        assertEquals(new BigDecimal("1.0716"), sorted.rateAsBigDecimal(usd, 2));
+        assertEquals(new BigDecimal("1.0744"), sorted.rateAsBigDecimal(usd, 3));
+    }
+
+    @Test
+    void putRate_tooManyDecimals_throwsException() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 30));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.putRate(row, "USD", new BigDecimal("1.07441234")));
+    }
+
+    @Test
+    void merge_addsNewerDaysAndKeepsPublishedScale() {
+        TreeMap<LocalDate, ExchangeRate> newer = new TreeMap<>();
+        newer.put(LocalDate.of(2023, 5, 31), new ExchangeRate(Map.of(
+                "USD", new BigDecimal("1.0700"),
+                "JPY", new BigDecimal("150.53"))));
+
+        ColumnarRateStore merged = ColumnarRateStore.merge(store, newer);
+
+        assertEquals(4, merged.size());
+        assertEquals(LocalDate.of(2023, 5, 31), merged.date(3));
+        assertEquals(new BigDecimal("1.0800"), merged.rateAsBigDecimal(merged.currencyId("USD"), 0));
+        assertEquals(new BigDecimal("1.0700"), merged.rateAsBigDecimal(merged.currencyId("USD"), 3));
+        assertEquals(new BigDecimal("150.53"), merged.rateAsBigDecimal(merged.currencyId("JPY"), 3));
+        assertFalse(merged.hasRate(merged.currencyId("JPY"), 0));
+    }
+
+    @Test
+    void rebase_quotesRatesAgainstBaseAndAddsEuro() {
+        ColumnarRateStore rebased = ColumnarRateStore.rebase(store, store.currencyId("GBP"));
+        int usd = rebased.currencyId("USD");
+        int gbp = rebased.currencyId("GBP");
+        int eur = rebased.currencyId("EUR");
+
+        assertEquals(store.size(), rebased.size());
+        assertEquals(store.currencyCount() + 1, rebased.currencyCount());
+        assertEquals(store.currencyId("USD"), usd);
+        assertEquals(new BigDecimal("1.244053"), rebased.rateAsBigDecimal(usd, 0));
+        assertEquals(new BigDecimal("1.244022"), rebased.rateAsBigDecimal(usd, 2));
+        assertEquals(new BigDecimal("1.000000"), rebased.rateAsBigDecimal(gbp, 0));
+        assertEquals(new BigDecimal("1.151901"), rebased.rateAsBigDecimal(eur, 0));
+        // No rate for the base on the day, so there are no rates at all.
+        assertFalse(rebased.hasRate(usd, 1));
+        assertFalse(rebased.hasRate(eur, 1));
+    }
+
+    @Test
+    void rebase_highValuedBase_keepsSignificantDigits() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0744"));
+        builder.putRate(row, "IDR", new BigDecimal("16039.53"));
+        row = builder.addDay(LocalDate.of(2023, 5, 26));
+        builder.putRate(row, "USD", new BigDecimal("1.0800"));
+        builder.putRate(row, "IDR", new BigDecimal("16106.85"));
+        ColumnarRateStore idr = builder.build();
+
+        ColumnarRateStore rebased = ColumnarRateStore.rebase(idr, idr.currencyId("IDR"));
+
+        // Four more decimal places for the five digits of the rupiah.
+        assertEquals(10, rebased.rateScale());
+        assertEquals(new BigDecimal("0.0000670522"), rebased.rateAsBigDecimal(rebased.currencyId("USD"), 0));
+        assertEquals(new BigDecimal("0.0000669845"), rebased.rateAsBigDecimal(rebased.currencyId("USD"), 1));
+        assertEquals(new BigDecimal("0.0000620854"), rebased.rateAsBigDecimal(rebased.currencyId("EUR"), 0));
+        assertEquals(new BigDecimal("1.0000000000"), rebased.rateAsBigDecimal(rebased.currencyId("IDR"), 0));
+        assertEquals(670522, rebased.rate(rebased.currencyId("USD"), 0));
+        // A base below ten keeps the scale of the euro rates.
+        assertEquals(RateStore.RATE_SCALE, ColumnarRateStore.rebase(idr, idr.currencyId("USD")).rateScale());
+    }
+}
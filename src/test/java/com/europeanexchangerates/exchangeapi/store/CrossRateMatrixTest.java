@@ -0,0 +1,133 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CrossRateMatrixTest {
+    private ColumnarRateStore store;
+    private int usd;
+    private int jpy;
+    private int gbp;
+
+    @BeforeEach
+    void setUp() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 26));
+        builder.putRate(row, "USD", new BigDecimal("1.0751"));
+        builder.putRate(row, "JPY", new BigDecimal("150.24"));
+        builder.putRate(row, "GBP", new BigDecimal("0.86813"));
+        row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "USD", new BigDecimal("1.0715"));
+        builder.putRate(row, "JPY", new BigDecimal("150.29"));
+        row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0744"));
+        builder.putRate(row, "JPY", new BigDecimal("150.01"));
+        builder.putRate(row, "GBP", new BigDecimal("0.86365"));
+        store = builder.build();
+        usd = store.currencyId("USD");
+        jpy = store.currencyId("JPY");
+        gbp = store.currencyId("GBP");
+    }
+
+    private BigDecimal divide(BigDecimal amount, int index, int sourceId, int targetId) {
+        return amount.multiply(store.rateAsBigDecimal(targetId, index))
+                .divide(store.rateAsBigDecimal(sourceId, index), 2, RoundingMode.HALF_UP);
+    }
+
+    @Test
+    void convert_matchesDividing() {
+        CrossRateMatrix matrix = CrossRateMatrix.build(store, new CrossRateMatrix.Settings(3, List.of()));
+        Random random = new Random(42);
+        int precomputed = 0;
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong() % 1_000_000, 2);
+            int[] ids = { usd, jpy };
+            int sourceId = ids[random.nextInt(2)];
+            int targetId = ids[random.nextInt(2)];
+            int index = 1 + random.nextInt(2);
+            BigDecimal converted = matrix.convert(amount, index, sourceId, targetId);
+            if (converted != null) {
+                precomputed++;
+                assertEquals(divide(amount, index, sourceId, targetId), converted, amount.toPlainString());
+            }
+        }
+        // Only results that are close to a rounding boundary relative to the
+        // precision of the factor are left to the division.
+        assertTrue(precomputed > 90_000);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "0.005", "0.015", "1", "12.345", "-100", "123456.12" })
+    void convert_roundsHalfUp(String amount) {
+        CrossRateMatrix matrix = CrossRateMatrix.build(store, new CrossRateMatrix.Settings(3, List.of()));
+        BigDecimal converted = matrix.convert(new BigDecimal(amount), 2, usd, usd);
+
+        assertEquals(new BigDecimal(amount).setScale(2, RoundingMode.HALF_UP), converted);
+    }
+
+    @Test
+    void convert_outsideWindow_onlyHotPairs() {
+        CrossRateMatrix matrix = CrossRateMatrix.build(store, new CrossRateMatrix.Settings(1, List.of("USD/JPY")));
+
+        assertNotNull(matrix.convert(new BigDecimal("100"), 2, jpy, gbp));
+        assertEquals(divide(new BigDecimal("100"), 0, usd, jpy), matrix.convert(new BigDecimal("100"), 0, usd, jpy));
+        assertNull(matrix.convert(new BigDecimal("100"), 0, jpy, usd));
+        assertNull(matrix.convert(new BigDecimal("100"), 0, usd, gbp));
+    }
+
+    @Test
+    void convert_missingRate_returnsNull() {
+        CrossRateMatrix matrix = CrossRateMatrix.build(store, new CrossRateMatrix.Settings(3, List.of()));
+
+        assertNull(matrix.convert(new BigDecimal("100"), 1, usd, gbp));
+        assertNull(matrix.convert(new BigDecimal("100"), 1, gbp, usd));
+    }
+
+    @Test
+    void factor_convertsLikeMatrix() {
+        CrossRateMatrix matrix = CrossRateMatrix.build(store, new CrossRateMatrix.Settings(3, List.of()));
+        CrossRateMatrix.Factor factor = CrossRateMatrix.factor(store, 0, gbp, jpy);
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong() % 1_000_000, 2);
+            assertEquals(matrix.convert(amount, 0, gbp, jpy), factor.convert(amount), amount.toPlainString());
+        }
+        // No rate for the pound on the day.
+        assertNull(CrossRateMatrix.factor(store, 1, usd, gbp).convert(new BigDecimal("100")));
+    }
+
+    @Test
+    void convert_amountTooLarge_returnsNull() {
+        CrossRateMatrix matrix = CrossRateMatrix.build(store, new CrossRateMatrix.Settings(3, List.of()));
+
+        assertNull(matrix.convert(new BigDecimal("1E+30"), 2, usd, jpy));
+        assertNull(matrix.convert(new BigDecimal("123456789012345678901"), 2, usd, jpy));
+    }
+
+    @Test
+    void memoryBytes_growsWithWindowAndHotPairs() {
+        long empty = CrossRateMatrix.build(store, new CrossRateMatrix.Settings(0, List.of())).memoryBytes();
+        long window = CrossRateMatrix.build(store, new CrossRateMatrix.Settings(2, List.of())).memoryBytes();
+        long hotPair = CrossRateMatrix.build(store, new CrossRateMatrix.Settings(2, List.of("USD/JPY")))
+                .memoryBytes();
+
+        assertTrue(empty < window);
+        assertTrue(window < hotPair);
+    }
+
+    @Test
+    void settings_invalidPair_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new CrossRateMatrix.Settings(30, List.of("USDJPY")));
+        assertThrows(IllegalArgumentException.class, () -> new CrossRateMatrix.Settings(-1, List.of()));
+    }
+}
@@ -0,0 +1,43 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CurrencyDictionaryTest {
+    private final CurrencyDictionary dictionary = CurrencyDictionary.of("USD", "jpy", "GBP");
+
+    @Test
+    void of_assignsIdsInOrder() {
+        assertEquals(3, dictionary.size());
+        assertEquals(0, dictionary.id("USD"));
+        assertEquals(1, dictionary.id("JPY"));
+        assertEquals(2, dictionary.id("GBP"));
+        assertEquals("JPY", dictionary.code(1));
+    }
+
+    @Test
+    void id_ignoresCase() {
+        assertEquals(0, dictionary.id("usd"));
+        assertEquals(2, dictionary.id("gBp"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "EUR", "", "US", "USDX", "US1", "\u00DCSD", " USD" })
+    void id_unknownOrInvalidCode_returnsMinusOne(String code) {
+        assertEquals(-1, dictionary.id(code));
+    }
+
+    @Test
+    void id_null_returnsMinusOne() {
+        assertEquals(-1, dictionary.id(null));
+    }
+
+    @Test
+    void of_invalidOrDuplicateCode_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> CurrencyDictionary.of("USD", "U5D"));
+        assertThrows(IllegalArgumentException.class, () -> CurrencyDictionary.of("USD", "usd"));
+    }
+}
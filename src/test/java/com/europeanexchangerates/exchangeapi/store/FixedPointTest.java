@@ -0,0 +1,85 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class FixedPointTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "7, 1, 2, 4",
+            "5, 1, 2, 3",
+            "-5, 1, 2, -3",
+            "5, -1, 2, -3",
+            "5, 1, -2, -3",
+            "4, 1, 3, 1",
+            "-4, 1, 3, -1",
+            "0, 5, 3, 0",
+            // Products that do not fit in a long.
+            "9223372036854775807, 10, 100, 922337203685477581",
+            "-9223372036854775808, 3, 6, -4611686018427387904",
+            "3037000500, 3037000500, 3037000499, 3037000501",
+    })
+    void multiplyDivide_roundsHalfUp(long a, long b, long c, long expected) {
+        assertEquals(expected, FixedPoint.multiplyDivide(a, b, c));
+    }
+
+    @Test
+    void multiplyDivide_sameAsBigDecimal() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long a = random.nextLong() >> random.nextInt(64);
+            long b = random.nextLong() >> random.nextInt(64);
+            long c = random.nextLong() >> random.nextInt(64);
+            if (c == 0) {
+                continue;
+            }
+            BigInteger exact = new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+                    .divide(BigDecimal.valueOf(c), 0, RoundingMode.HALF_UP).toBigIntegerExact();
+            if (exact.bitLength() < 64 && !exact.equals(BigInteger.valueOf(Long.MIN_VALUE))) {
+                assertEquals(exact.longValueExact(), FixedPoint.multiplyDivide(a, b, c), a + " * " + b + " / " + c);
+            } else {
+                assertThrows(ArithmeticException.class, () -> FixedPoint.multiplyDivide(a, b, c));
+            }
+        }
+    }
+
+    @Test
+    void multiplyDivide_overflowOrZero_throws() {
+        assertThrows(ArithmeticException.class, () -> FixedPoint.multiplyDivide(Long.MAX_VALUE, 2, 1));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.multiplyDivide(1, 1, 0));
+    }
+
+    @Test
+    void multiplyAndDivide_keepScale() {
+        // 1.5 * 2.5 = 3.75 and 1 / 3 = 0.333333
+        assertEquals(3_750_000, FixedPoint.multiply(1_500_000, 2_500_000));
+        assertEquals(333_333, FixedPoint.divide(1_000_000, 3_000_000));
+        // 2 / 3 = 0.6666666... rounds up.
+        assertEquals(666_667, FixedPoint.divide(2_000_000, 3_000_000));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1234565, 6, 2, 123",
+            "1234565, 6, 4, 12346",
+            "-1234565, 6, 4, -12346",
+            "10744, 4, 6, 1074400",
+    })
+    void rescale_roundsHalfUp(long value, int fromScale, int toScale, long expected) {
+        assertEquals(expected, FixedPoint.rescale(value, fromScale, toScale));
+    }
+
+    @Test
+    void toBigDecimal_usesTargetScale() {
+        assertEquals(new BigDecimal("1.0744"), FixedPoint.toBigDecimal(1_074_400, 6, 4));
+    }
+}
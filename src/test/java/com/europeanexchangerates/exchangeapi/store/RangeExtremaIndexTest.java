@@ -0,0 +1,46 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RangeExtremaIndexTest {
+    private RangeExtremaIndex index;
+    private int usd;
+
+    @BeforeEach
+    void setUp() {
+        String[] rates = { "1.0785", "N/A", "1.0751", "1.0715", "1.0785", "N/A", "1.0744" };
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        usd = builder.currency("USD");
+        for (int i = 0; i < rates.length; i++) {
+            int row = builder.addDay(LocalDate.of(2023, 5, 1).plusDays(i));
+            if (!rates[i].equals("N/A")) {
+                builder.putRate(row, "USD", new BigDecimal(rates[i]));
+            }
+        }
+        index = RangeExtremaIndex.build(builder.build());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // ties resolve to the earliest day
+            "0, 6, 0, 3",
+            "1, 6, 4, 3",
+            "4, 6, 4, 6",
+            // days without a rate are skipped
+            "1, 2, 2, 2",
+            "5, 6, 6, 6",
+            // no rate in the range
+            "5, 5, -1, -1",
+    })
+    void highestAndLowestIndex(int fromIndex, int toIndex, int expectedHighest, int expectedLowest) {
+        assertEquals(expectedHighest, index.highestIndex(usd, fromIndex, toIndex));
+        assertEquals(expectedLowest, index.lowestIndex(usd, fromIndex, toIndex));
+    }
+}
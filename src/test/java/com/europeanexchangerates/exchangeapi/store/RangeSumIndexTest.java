@@ -0,0 +1,47 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RangeSumIndexTest {
+    private RangeSumIndex index;
+    private int gbp;
+
+    @BeforeEach
+    void setUp() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 24));
+        builder.putRate(row, "GBP", new BigDecimal("0.86993"));
+        row = builder.addDay(LocalDate.of(2023, 5, 25));
+        builder.putRate(row, "USD", new BigDecimal("1.0735"));
+        row = builder.addDay(LocalDate.of(2023, 5, 26));
+        builder.putRate(row, "GBP", new BigDecimal("0.86813"));
+        row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "GBP", new BigDecimal("0.86805"));
+        ColumnarRateStore store = builder.build();
+
+        index = RangeSumIndex.build(store);
+        gbp = store.currencyId("GBP");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // whole range, skipping the day without a rate
+            "0, 3, 2606110, 3",
+            // single day
+            "2, 2, 868130, 1",
+            // only the day without a rate
+            "1, 1, 0, 0",
+            "1, 2, 868130, 1",
+    })
+    void sumAndCount(int fromIndex, int toIndex, long expectedSum, int expectedCount) {
+        assertEquals(expectedSum, index.sum(gbp, fromIndex, toIndex));
+        assertEquals(expectedCount, index.count(gbp, fromIndex, toIndex));
+    }
+}
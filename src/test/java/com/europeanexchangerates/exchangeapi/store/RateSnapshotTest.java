@@ -0,0 +1,85 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RateSnapshotTest {
+    private static final String[] CURRENCIES = { "USD", "JPY", "BGN", "CZK", "DKK", "GBP", "HUF", "PLN", "RON",
+            "SEK" };
+
+    private RateSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 30));
+        for (int i = 0; i < CURRENCIES.length; i++) {
+            builder.putRate(row, CURRENCIES[i], BigDecimal.valueOf(i + 1));
+        }
+        snapshot = RateSnapshot.build(1, builder.build(), Instant.now());
+    }
+
+    @Test
+    void rebased_sameBase_returnsSameSnapshot() {
+        RateSnapshot rebased = snapshot.rebased(0);
+
+        assertTrue(rebased.isRebased());
+        assertSame(rebased, snapshot.rebased(0));
+    }
+
+    @Test
+    void rebased_tooManyBases_dropsLeastRecentlyUsed() {
+        RateSnapshot first = snapshot.rebased(0);
+        RateSnapshot second = snapshot.rebased(1);
+        for (int baseId = 2; baseId < 8; baseId++) {
+            snapshot.rebased(baseId);
+        }
+        // Using the first base again makes the second the least recently used.
+        assertSame(first, snapshot.rebased(0));
+
+        snapshot.rebased(8);
+
+        assertSame(first, snapshot.rebased(0));
+        assertNotSame(second, snapshot.rebased(1));
+    }
+
+    @Test
+    void rebased_concurrentRequests_buildEachBaseOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<RateSnapshot>> requests = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                requests.add(() -> snapshot.rebased(3));
+            }
+            List<Future<RateSnapshot>> results = executor.invokeAll(requests);
+
+            RateSnapshot rebased = snapshot.rebased(3);
+            for (Future<RateSnapshot> result : results) {
+                assertSame(rebased, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void memoryBytes_countsRebasedSnapshots() {
+        long bytes = snapshot.memoryBytes();
+
+        RateSnapshot rebased = snapshot.rebased(0);
+
+        assertEquals(bytes + rebased.memoryBytes(), snapshot.memoryBytes());
+    }
+}
@@ -0,0 +1,105 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RateStoreFileTest {
+    @TempDir
+    Path directory;
+
+    private RateStore store;
+    private RateStoreFile file;
+
+    @BeforeEach
+    void setUp() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0744"));
+        builder.putRate(row, "GBP", new BigDecimal("0.86365"));
+        row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "USD", new BigDecimal("1.0800"));
+        store = builder.build();
+        file = new RateStoreFile(directory.resolve("snapshots").resolve("rates.snapshot"));
+    }
+
+    @Test
+    void read_returnsWrittenStore() throws IOException {
+        file.write(store);
+
+        RateStore read = file.read();
+
+        assertEquals(store.size(), read.size());
+        assertEquals(store.currencyCount(), read.currencyCount());
+        for (int i = 0; i < store.size(); i++) {
+            assertEquals(store.date(i), read.date(i));
+            assertEquals(store.rates(i), read.rates(i));
+        }
+        int gbp = read.currencyId("GBP");
+        assertFalse(read.hasRate(gbp, 0));
+        // The published scale is kept.
+        assertEquals(new BigDecimal("1.0800"), read.rateAsBigDecimal(read.currencyId("USD"), 0));
+    }
+
+    @Test
+    void checksum_isTrailerOfFileAndOnlyDependsOnData() throws IOException {
+        file.write(store);
+        byte[] bytes = Files.readAllBytes(file.getPath());
+        long trailer = ByteBuffer.wrap(bytes, bytes.length - Long.BYTES, Long.BYTES).getLong();
+
+        assertEquals(trailer, RateStoreFile.checksum(store));
+        assertEquals(RateStoreFile.checksum(store), RateStoreFile.checksum(file.read()));
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 30));
+        builder.putRate(row, "USD", new BigDecimal("1.0745"));
+        builder.putRate(row, "GBP", new BigDecimal("0.86365"));
+        row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "USD", new BigDecimal("1.0800"));
+        assertNotEquals(RateStoreFile.checksum(store), RateStoreFile.checksum(builder.build()));
+    }
+
+    @Test
+    void write_replacesExistingFile() throws IOException {
+        file.write(ColumnarRateStore.builder().build());
+        file.write(store);
+
+        assertEquals(2, file.read().size());
+        try (var files = Files.list(file.getPath().getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void read_corruptFile_throwsException() throws IOException {
+        file.write(store);
+        byte[] bytes = Files.readAllBytes(file.getPath());
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file.getPath(), bytes);
+
+        assertThrows(IOException.class, () -> file.read());
+    }
+
+    @Test
+    void read_truncatedFile_throwsException() throws IOException {
+        file.write(store);
+        byte[] bytes = Files.readAllBytes(file.getPath());
+        Files.write(file.getPath(), Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> file.read());
+    }
+
+    @Test
+    void exists_noFile_returnsFalse() {
+        assertFalse(file.exists());
+    }
+}
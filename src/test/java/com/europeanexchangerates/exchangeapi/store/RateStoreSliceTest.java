@@ -0,0 +1,92 @@
+package com.europeanexchangerates.exchangeapi.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RateStoreSliceTest {
+    private ColumnarRateStore store;
+    private RateStoreSlice slice;
+
+    @BeforeEach
+    void setUp() {
+        ColumnarRateStore.Builder builder = ColumnarRateStore.builder();
+        int row = builder.addDay(LocalDate.of(2023, 5, 24));
+        builder.putRate(row, "USD", new BigDecimal("1.0785"));
+        builder.putRate(row, "JPY", new BigDecimal("149.30"));
+        row = builder.addDay(LocalDate.of(2023, 5, 25));
+        builder.putRate(row, "USD", new BigDecimal("1.0735"));
+        builder.putRate(row, "JPY", new BigDecimal("149.63"));
+        row = builder.addDay(LocalDate.of(2023, 5, 26));
+        builder.putRate(row, "USD", new BigDecimal("1.0751"));
+        builder.putRate(row, "GBP", new BigDecimal("0.86813"));
+        row = builder.addDay(LocalDate.of(2023, 5, 29));
+        builder.putRate(row, "USD", new BigDecimal("1.0715"));
+        builder.putRate(row, "JPY", new BigDecimal("150.29"));
+        store = builder.build();
+        // May 25 and 26 with GBP and USD in that order.
+        slice = RateStoreSlice.of(store, 1, 2, new int[] { store.currencyId("GBP"), store.currencyId("USD") });
+    }
+
+    @Test
+    void of_viewsDaysAndCurrencies() {
+        assertEquals(2, slice.size());
+        assertEquals(2, slice.currencyCount());
+        assertEquals(LocalDate.of(2023, 5, 25), slice.date(0));
+        assertEquals("GBP", slice.currencyCode(0));
+        assertEquals(1, slice.currencyId("usd"));
+        assertEquals(-1, slice.currencyId("JPY"));
+        assertFalse(slice.hasRate(0, 0));
+        assertEquals(new BigDecimal("0.86813"), slice.rateAsBigDecimal(0, 1));
+        assertEquals(store.rate(store.currencyId("USD"), 2), slice.rate(1, 1));
+        assertEquals(4, slice.publishedScale(1, 1));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "2023-05-24, -1, 0, -1",
+            "2023-05-25, 0, 0, 0",
+            "2023-05-26, 1, 1, 1",
+            "2023-05-27, -1, 2, 1",
+            "2023-05-29, -1, 2, 1",
+    })
+    void lookups(String date, int index, int ceiling, int floor) {
+        LocalDate localDate = LocalDate.parse(date);
+        assertEquals(index, slice.indexOf(localDate));
+        assertEquals(ceiling, slice.ceilingIndex(localDate));
+        assertEquals(floor, slice.floorIndex(localDate));
+    }
+
+    @Test
+    void of_duplicateCurrency_throwsException() {
+        int usd = store.currencyId("USD");
+        assertThrows(IllegalArgumentException.class, () -> RateStoreSlice.of(store, 0, 3, new int[] { usd, usd }));
+    }
+
+    @Test
+    void write_roundTripsThroughRateStoreFile(@TempDir Path directory) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RateStoreFile.write(slice, bytes);
+        Path path = directory.resolve("slice.snapshot");
+        Files.write(path, bytes.toByteArray());
+
+        ColumnarRateStore read = new RateStoreFile(path).read();
+
+        assertEquals(2, read.size());
+        assertEquals(LocalDate.of(2023, 5, 26), read.date(1));
+        assertEquals(-1, read.currencyId("JPY"));
+        assertEquals(new BigDecimal("1.0735"), read.rateAsBigDecimal(read.currencyId("USD"), 0));
+        assertNull(read.rateAsBigDecimal(read.currencyId("GBP"), 0));
+    }
+}
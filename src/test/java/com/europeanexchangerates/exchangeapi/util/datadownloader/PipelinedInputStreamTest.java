@@ -0,0 +1,82 @@
+package com.europeanexchangerates.exchangeapi.util.datadownloader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.Duration;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PipelinedInputStreamTest {
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    void read_returnsSourceInOrder() throws IOException {
+        byte[] source = randomBytes(100_000);
+
+        try (PipelinedInputStream pipeline = new PipelinedInputStream(new ByteArrayInputStream(source), 1000, 3)) {
+            // Mix single byte and bulk reads across the buffer boundaries.
+            byte[] read = new byte[source.length];
+            read[0] = (byte) pipeline.read();
+            int length = 1;
+            int count;
+            while ((count = pipeline.read(read, length, Math.min(777, read.length - length))) > 0) {
+                length += count;
+            }
+
+            assertEquals(source.length, length);
+            assertArrayEquals(source, read);
+            assertEquals(-1, pipeline.read());
+            assertEquals(source.length, pipeline.getBytes());
+        }
+    }
+
+    @Test
+    void read_emptySource_returnsEndOfStream() throws IOException {
+        try (PipelinedInputStream pipeline = new PipelinedInputStream(new ByteArrayInputStream(new byte[0]))) {
+            assertEquals(-1, pipeline.read(new byte[10], 0, 10));
+        }
+    }
+
+    @Test
+    void read_failingSource_throwsAfterReadData() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+        InputStream source = new SequenceInputStream(new ByteArrayInputStream(new byte[10]), failing);
+
+        try (PipelinedInputStream pipeline = new PipelinedInputStream(source, 4, 2)) {
+            IOException exception = assertThrows(IOException.class, pipeline::readAllBytes);
+            assertEquals("Connection reset", exception.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void close_beforeEndOfSource_stopsProducer() {
+        // A source that never ends.
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 'x';
+            }
+        };
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            PipelinedInputStream pipeline = new PipelinedInputStream(endless, 16, 2);
+            assertEquals('x', pipeline.read());
+            pipeline.close();
+        });
+    }
+}
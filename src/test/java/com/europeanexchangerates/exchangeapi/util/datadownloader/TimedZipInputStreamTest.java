@@ -0,0 +1,63 @@
+package com.europeanexchangerates.exchangeapi.util.datadownloader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class TimedZipInputStreamTest {
+    private static final String CSV = "Date,USD,JPY\n2023-06-02,1.0763,150.46\n";
+
+    private static byte[] zip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("eurofxref-hist.csv"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void read_returnsInflatedContent() throws IOException {
+        try (TimedZipInputStream zip = new TimedZipInputStream(new ByteArrayInputStream(zip(CSV)), 0)) {
+            assertNotNull(zip.getNextEntry());
+            assertEquals(CSV, new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            assertNull(zip.getNextEntry());
+        }
+    }
+
+    @Test
+    void read_slowSource_countsWaitingAsDownloadTime() throws IOException {
+        // Every read of the compressed data takes at least a millisecond.
+        InputStream slow = new FilterInputStream(new ByteArrayInputStream(zip(CSV))) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.read(b, off, Math.min(len, 16));
+            }
+        };
+        long openNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+        try (TimedZipInputStream zip = new TimedZipInputStream(slow, openNanos)) {
+            zip.getNextEntry();
+            zip.readAllBytes();
+
+            assertTrue(zip.getDownloadNanos() >= openNanos + TimeUnit.MILLISECONDS.toNanos(2));
+            assertTrue(zip.getInflateNanos() >= 0);
+        }
+    }
+}
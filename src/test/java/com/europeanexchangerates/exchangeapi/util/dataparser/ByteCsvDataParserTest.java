@@ -0,0 +1,136 @@
+package com.europeanexchangerates.exchangeapi.util.dataparser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.europeanexchangerates.exchangeapi.dto.ExchangeRate;
+import com.europeanexchangerates.exchangeapi.exception.MalformedDataException;
+import com.europeanexchangerates.exchangeapi.store.RateStore;
+
+class ByteCsvDataParserTest {
+    private ByteCsvDataParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new ByteCsvDataParser();
+    }
+
+    @Test
+    void parseData() throws Exception {
+        String testInput = "Date,USD,EUR\n" +
+                "2023-06-04,1.2100,0.8400\n" +
+                "2023-06-03,1.2200,0.8500\n";
+        InputStream inputStream = new ByteArrayInputStream(testInput.getBytes());
+
+        TreeMap<LocalDate, ExchangeRate> result = parser.parseData(inputStream);
+
+        assertEquals(new BigDecimal("1.2100"), result.get(LocalDate.of(2023, 6, 4)).getRates().get("USD"));
+        assertEquals(new BigDecimal("0.8400"), result.get(LocalDate.of(2023, 6, 4)).getRates().get("EUR"));
+        assertEquals(new BigDecimal("1.2200"), result.get(LocalDate.of(2023, 6, 3)).getRates().get("USD"));
+        assertEquals(new BigDecimal("0.8500"), result.get(LocalDate.of(2023, 6, 3)).getRates().get("EUR"));
+    }
+
+    @Test
+    void parseData_sameResultAsCsvDataParser() throws Exception {
+        TreeMap<LocalDate, ExchangeRate> expected = new CsvDataParser()
+                .parseData(getClass().getResourceAsStream("/fixtures/eurofxref-hist.csv"));
+
+        TreeMap<LocalDate, ExchangeRate> result = parser
+                .parseData(getClass().getResourceAsStream("/fixtures/eurofxref-hist.csv"));
+
+        assertEquals(expected.keySet(), result.keySet());
+        expected.forEach((date, exchangeRate) -> assertEquals(exchangeRate.getRates(), result.get(date).getRates()));
+    }
+
+    @Test
+    void parseToStore_ecbFile_skipsNotAvailableRatesAndTrailingColumn() throws Exception {
+        RateStore store = parser.parseToStore(getClass().getResourceAsStream("/fixtures/eurofxref-hist.csv"));
+
+        assertEquals(6, store.size());
+        assertEquals(5, store.currencyCount());
+        assertEquals(LocalDate.of(2007, 12, 31), store.date(0));
+        int cyp = store.currencyId("CYP");
+        assertEquals(new BigDecimal("0.58527"), store.rateAsBigDecimal(cyp, 0));
+        assertFalse(store.hasRate(cyp, 5));
+        assertEquals(new BigDecimal("149.30"), store.rateAsBigDecimal(store.currencyId("JPY"), 1));
+    }
+
+    @Test
+    void parseToStore_windowsLineEndings() throws Exception {
+        String testInput = "Date,USD,EUR,\r\n" +
+                "2023-06-04,1.2100,0.8400,\r\n";
+
+        RateStore store = parser.parseToStore(new ByteArrayInputStream(testInput.getBytes()));
+
+        assertEquals(1, store.size());
+        assertEquals(new BigDecimal("0.8400"), store.rateAsBigDecimal(store.currencyId("EUR"), 0));
+    }
+
+    @Test
+    void parseDataSince_stopsReadingAtOlderDates() throws Exception {
+        // The malformed last row would fail the parsing if it were read.
+        String testInput = "Date,USD,EUR\n" +
+                "2023-06-04,1.2100,0.8400\n" +
+                "2023-06-03,1.2200,0.8500\n" +
+                "not a row\n";
+        InputStream inputStream = new ByteArrayInputStream(testInput.getBytes());
+
+        TreeMap<LocalDate, ExchangeRate> result = parser.parseDataSince(inputStream, LocalDate.of(2023, 6, 3));
+
+        assertEquals(1, result.size());
+        assertEquals(new BigDecimal("1.2100"), result.get(LocalDate.of(2023, 6, 4)).getRates().get("USD"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // missing rate
+            "Date,USD,EUR\n2023-06-04,1.2100,\n",
+            // missing columns
+            "Date,USD,EUR\n2023-06-04,1.2100\n",
+            // invalid date
+            "Date,USD\n2023-02-29,1.2100\n",
+            // invalid rate
+            "Date,USD\n2023-06-04,abc\n",
+            // too many decimal places
+            "Date,USD\n2023-06-04,1.21000001\n",
+            // too large to be scaled
+            "Date,USD\n2023-06-04,1234567890123.5\n",
+            "Date,USD\n2023-06-04,123456789012345678\n",
+            // invalid currency code
+            "Date,US$\n2023-06-04,1.2100\n",
+    })
+    void parseData_throwsExceptionForMalformedData(String testInput) {
+        InputStream inputStream = new ByteArrayInputStream(testInput.getBytes());
+
+        assertThrows(MalformedDataException.class, () -> parser.parseData(inputStream));
+    }
+
+    @Test
+    void parseToStore_largestRate_parsesIt() throws Exception {
+        String testInput = "Date,USD\n2023-06-04,999999999999.999999\n";
+
+        RateStore store = parser.parseToStore(new ByteArrayInputStream(testInput.getBytes()));
+
+        assertEquals(new BigDecimal("999999999999.999999"), store.rateAsBigDecimal(store.currencyId("USD"), 0));
+    }
+
+    @Test
+    void parseToStore_tooLargeRate_reportsLine() {
+        String testInput = "Date,USD\n2023-06-04,1.2100\n2023-06-03,9999999999999\n";
+        InputStream inputStream = new ByteArrayInputStream(testInput.getBytes());
+
+        MalformedDataException e = assertThrows(MalformedDataException.class,
+                () -> parser.parseToStore(inputStream));
+        assertEquals("Rate is too large on line 3.", e.getMessage());
+    }
+}
@@ -52,4 +52,43 @@ class CsvZipDataParserTest {
 
         assertThrows(Exception.class, () -> parser.parseData(inputStream));
     }
+
+    @Test
+    void parseData_ecbFile_skipsNotAvailableRates() throws Exception {
+        InputStream inputStream = getClass().getResourceAsStream("/fixtures/eurofxref-hist.csv");
+
+        TreeMap<LocalDate, ExchangeRate> result = parser.parseData(inputStream);
+
+        assertEquals(6, result.size());
+        assertEquals(5, result.get(LocalDate.of(2007, 12, 31)).getRates().size());
+        assertEquals(4, result.get(LocalDate.of(2023, 5, 30)).getRates().size());
+        assertNull(result.get(LocalDate.of(2023, 5, 30)).getRates().get("CYP"));
+        assertEquals(new BigDecimal("0.58527"), result.get(LocalDate.of(2007, 12, 31)).getRates().get("CYP"));
+    }
+
+    @Test
+    void parseDataSince_returnsOnlyNewerDates() throws Exception {
+        InputStream inputStream = getClass().getResourceAsStream("/fixtures/eurofxref-hist.csv");
+
+        TreeMap<LocalDate, ExchangeRate> result = parser.parseDataSince(inputStream, LocalDate.of(2023, 5, 26));
+
+        assertEquals(2, result.size());
+        assertEquals(LocalDate.of(2023, 5, 29), result.firstKey());
+        assertEquals(LocalDate.of(2023, 5, 30), result.lastKey());
+    }
+
+    @Test
+    void parseDataSince_stopsReadingAtOlderDates() throws Exception {
+        // The malformed last row would fail the parsing if it were read.
+        String testInput = "Date,USD,EUR\n" +
+                "2023-06-04,1.2100,0.8400\n" +
+                "2023-06-03,1.2200,0.8500\n" +
+                "not a row\n";
+        InputStream inputStream = new ByteArrayInputStream(testInput.getBytes());
+
+        TreeMap<LocalDate, ExchangeRate> result = parser.parseDataSince(inputStream, LocalDate.of(2023, 6, 3));
+
+        assertEquals(1, result.size());
+        assertEquals(new BigDecimal("1.2100"), result.get(LocalDate.of(2023, 6, 4)).getRates().get("USD"));
+    }
 }
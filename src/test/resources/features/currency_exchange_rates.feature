@@ -21,6 +21,12 @@ Feature: Currency Exchange Rates API
         Then I should receive a 200 status code
         And the response should include the highest reference exchange rate that the USD achieved in the year 2022
 
+    Scenario: Retrieve the lowest reference exchange rate for a given currency and period
+        Given I am an API client
+        When I make a GET request to "/lowest_rate" with parameters start date "2022-01-01", end date "2022-12-31", and currency "USD"
+        Then I should receive a 200 status code
+        And the response should include the lowest reference exchange rate that the USD achieved in the year 2022
+
     Scenario: Retrieve the average reference exchange rate for a given currency and period
         Given I am an API client
         When I make a GET request to "/average_rate" with parameters start date "2022-01-01", end date "2022-12-31", and currency "USD"